@@ -2,11 +2,24 @@ package cli;
 
 import core.Scheduler;
 
+import java.io.PrintStream;
+
 /**
  * @author Monke Vladyslav
  * @version 1.1
  */
 public interface Command {
 
-    void execute(String[] args, Scheduler scheduler);
+    /**
+     * @param out Ausgabe des Befehls: System.out im REPL, die Antwort an den Client im Daemon
+     */
+    void execute(String[] args, Scheduler scheduler, PrintStream out);
+
+    /**
+     * Lange Befehle ohne Scheduler (z.B. eine Aufnahme auswerten) fuehrt der Client selbst aus,
+     * damit sie den Daemon nicht blockieren; der Daemon lehnt sie ab. {@code scheduler} ist dann null.
+     */
+    default boolean runsInClient(String[] args) {
+        return false;
+    }
 }
@@ -20,6 +20,13 @@ public class CommandRegistry {
         commands.put("add", new AddCommand());
         commands.put("change", new ChangeCommand());
         commands.put("help", new HelpCommand());
+        commands.put("depend", new DependCommand());
+        commands.put("history", new HistoryCommand());
+        commands.put("dead", new DeadCommand());
+        commands.put("export", new ExportCommand());
+        commands.put("import", new ImportCommand());
+        commands.put("find", new FindCommand());
+        commands.put("record", new RecordCommand());
     }
 
     public static Command get(String name) {
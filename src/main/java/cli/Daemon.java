@@ -0,0 +1,271 @@
+package cli;
+
+import core.Scheduler;
+import core.ShardCoordinator;
+import core.runnable.PluginLoader;
+import storage.Checkpoint;
+import storage.Data;
+import storage.DeadLetterQueue;
+import storage.ExecutionLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+
+/**
+ * Langlaufender Scheduler, der die {@link Command}s ueber einen Unix-Domain-Socket anbietet.
+ * Ein Selector-Thread bedient alle Verbindungen; Befehle einer Verbindung werden der
+ * Reihe nach ausgefuehrt, sodass Clients Anfragen pipelinen koennen.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class Daemon {
+
+    private static final Duration LEASE = Duration.ofSeconds(Long.getLong("tasks.lease", 6));
+
+    // so viele Antwortbytes je Verbindung, dann werden keine weiteren Befehle gelesen, bis der Client abholt
+    private static final int MAX_QUEUED = 1 << 20;
+
+    private final Scheduler scheduler;
+
+    private final Path socket;
+
+    private Selector selector;
+
+    private volatile boolean running = true;
+
+    public Daemon(Scheduler scheduler, Path socket) {
+        this.scheduler = scheduler;
+        this.socket = socket;
+    }
+
+    /**
+     * {@code [socket] [--cluster <dir>] [--node <id>]}. Mit {@code --cluster} teilen sich alle
+     * Daemons mit demselben Verzeichnis die Aufgaben ueber einen {@link ShardCoordinator}.
+     */
+    public static void main(String[] args) {
+        Path socket = Protocol.DEFAULT_SOCKET;
+        Path cluster = null;
+        String node = "node-" + ProcessHandle.current().pid();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cluster" -> cluster = Path.of(args[++i]);
+                case "--node" -> node = args[++i];
+                default -> socket = Path.of(args[i]);
+            }
+        }
+        // Plugins vor den Aufgaben, sonst fehlen deren Aktionen beim Laden
+        PluginLoader plugins = new PluginLoader(Path.of(Data.PLUGIN_DIR));
+        plugins.start();
+        Scheduler scheduler = new Scheduler();
+        // im Cluster fuehrt jeder Knoten seine eigene Historie
+        Path historyDir = cluster == null ? Path.of(Data.HISTORY_DIR) : cluster.resolve(Data.HISTORY_DIR + "-" + node);
+        ExecutionLog history = new ExecutionLog(historyDir, Data.HISTORY_RETENTION);
+        scheduler.setExecutionLog(history);
+        scheduler.setDeadLetters(new DeadLetterQueue(cluster == null
+                ? Path.of(Data.DEAD_LETTER_FILE) : cluster.resolve(node + "-" + Data.DEAD_LETTER_FILE)));
+        ShardCoordinator coordinator = null;
+        if (cluster != null) {
+            coordinator = new ShardCoordinator(scheduler, cluster, node, LEASE);
+            coordinator.start();
+            System.out.println("Node " + node + " joined " + cluster.toAbsolutePath()
+                    + " owning " + coordinator.ownedShards() + " shards");
+        } else {
+            Checkpoint.load(scheduler);
+        }
+        scheduler.start();
+
+        Daemon daemon = new Daemon(scheduler, socket);
+        Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            daemon.stop();
+            // auf das Speichern und Abmelden im finally warten
+            try {
+                main.join(5000);
+            } catch (InterruptedException ignored) {
+            }
+        }));
+        try {
+            System.out.println("Listening on " + socket.toAbsolutePath());
+            daemon.run();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (coordinator != null) coordinator.stop();
+            // erst nichts mehr feuern, dann speichern, sonst fehlen spaete Laeufe in Datei und Checkpoint
+            scheduler.shutdown();
+            if (coordinator == null) {
+                Data.saveTasks(scheduler);
+                Checkpoint.save(scheduler);
+            }
+            history.close();
+            plugins.close();
+        }
+    }
+
+    public void run() throws IOException {
+        Files.deleteIfExists(socket);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+             Selector selector = Selector.open()) {
+            this.selector = selector;
+            server.bind(UnixDomainSocketAddress.of(socket));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) accept(server);
+                        else if (key.isReadable()) read(key);
+                        if (key.isValid() && key.isWritable()) write(key);
+                    } catch (IOException e) {
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                // ausstehende Antworten (z.B. auf "shutdown") noch zustellen
+                if (key.isValid() && key.attachment() instanceof Connection) {
+                    try {
+                        write(key);
+                    } catch (IOException ignored) {
+                    }
+                }
+                key.channel().close();
+            }
+        } finally {
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    public void stop() {
+        running = false;
+        Selector s = selector;
+        if (s != null) s.wakeup();
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) return;
+        client.configureBlocking(false);
+        client.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        if (channel.read(connection.in) < 0) {
+            key.cancel();
+            channel.close();
+            return;
+        }
+        process(key, connection);
+    }
+
+    /**
+     * Fuehrt die vollstaendig gelesenen Befehle aus, solange die Antworten unter {@link #MAX_QUEUED} bleiben.
+     */
+    private void process(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer in = connection.in.flip();
+        while (in.remaining() >= 4 && connection.queued < MAX_QUEUED) {
+            int length = in.getInt(in.position());
+            if (length < 0 || length > Protocol.MAX_FRAME) throw new IOException("Invalid frame length " + length);
+            if (in.remaining() < 4 + length) {
+                if (in.capacity() < 4 + length) connection.grow(4 + length);
+                break;
+            }
+            in.getInt();
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            ByteBuffer response = handle(new String(bytes, StandardCharsets.UTF_8));
+            connection.queued += response.remaining();
+            connection.out.add(response);
+        }
+        connection.in.compact();
+        int ops = connection.queued < MAX_QUEUED ? SelectionKey.OP_READ : 0;
+        if (!connection.out.isEmpty()) ops |= SelectionKey.OP_WRITE;
+        key.interestOps(ops);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        Queue<ByteBuffer> out = connection.out;
+        while (!out.isEmpty()) {
+            ByteBuffer buffer = out.peek();
+            int written = channel.write(buffer);
+            connection.queued -= written;
+            if (buffer.hasRemaining()) break;
+            out.poll();
+        }
+        // zurueckgehaltene Befehle liegen schon im Puffer, es kommt kein neues Lese-Ereignis fuer sie
+        if (connection.queued < MAX_QUEUED && running) process(key, connection);
+    }
+
+    private ByteBuffer handle(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts[0].equals("shutdown")) {
+            stop();
+            return Protocol.response(Protocol.OK, "Shutting down".getBytes(StandardCharsets.UTF_8));
+        }
+        Command cmd = CommandRegistry.get(parts[0]);
+        if (cmd == null) {
+            return Protocol.response(Protocol.UNKNOWN_COMMAND,
+                    ("Unknown command " + parts[0]).getBytes(StandardCharsets.UTF_8));
+        }
+        // wuerde den Selector-Thread und damit alle Clients aufhalten
+        if (cmd.runsInClient(parts)) {
+            return Protocol.response(Protocol.ERROR,
+                    ("Run \"" + line.trim() + "\" in the client (--connect), not in the daemon\n")
+                            .getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte status = Protocol.OK;
+        try (PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            try {
+                cmd.execute(parts, scheduler, out);
+            } catch (RuntimeException e) {
+                out.println(e);
+                status = Protocol.ERROR;
+            }
+        }
+        return Protocol.response(status, bytes.toByteArray());
+    }
+
+    private static class Connection {
+
+        private ByteBuffer in = ByteBuffer.allocate(4096);
+
+        private final Queue<ByteBuffer> out = new ArrayDeque<>();
+
+        // Bytes in out, die noch nicht geschrieben sind
+        private int queued;
+
+        private void grow(int capacity) {
+            ByteBuffer bigger = ByteBuffer.allocate(capacity);
+            bigger.put(in);
+            bigger.flip();
+            in = bigger;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Duenner Client fuer den {@link Daemon}.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class DaemonClient implements Closeable {
+
+    private final SocketChannel channel;
+
+    public DaemonClient() throws IOException {
+        this(Protocol.DEFAULT_SOCKET);
+    }
+
+    public DaemonClient(Path socket) throws IOException {
+        channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(socket));
+    }
+
+    public Response send(String line) throws IOException {
+        write(Protocol.request(line));
+        return read();
+    }
+
+    /**
+     * Schickt alle Befehle auf einmal und liest die Antworten in gleicher Reihenfolge.
+     * Geschrieben wird auf einem eigenen Thread, waehrend dieser schon liest: der Daemon
+     * nimmt keine Befehle mehr an, solange zu viele Antworten auf Abholung warten.
+     */
+    public List<Response> sendAll(List<String> lines) throws IOException {
+        List<ByteBuffer> requests = new ArrayList<>(lines.size());
+        int size = 0;
+        for (String line : lines) {
+            ByteBuffer request = Protocol.request(line);
+            size += request.remaining();
+            requests.add(request);
+        }
+        ByteBuffer batch = ByteBuffer.allocate(size);
+        for (ByteBuffer request : requests) batch.put(request);
+        batch.flip();
+
+        IOException[] failed = new IOException[1];
+        Thread writer = Thread.ofVirtual().name("daemon-client-write").start(() -> {
+            try {
+                write(batch);
+            } catch (IOException e) {
+                failed[0] = e;
+            }
+        });
+        List<Response> responses = new ArrayList<>(lines.size());
+        boolean complete = false;
+        try {
+            for (int i = 0; i < lines.size(); i++) responses.add(read());
+            complete = true;
+        } finally {
+            // sonst haengt der Schreiber an einer Verbindung, von der niemand mehr liest
+            if (!complete) channel.close();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while sending");
+            }
+        }
+        if (failed[0] != null) throw failed[0];
+        return responses;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private Response read() throws IOException {
+        ByteBuffer frame = Protocol.readFrame(channel);
+        byte status = frame.get();
+        String output = StandardCharsets.UTF_8.decode(frame).toString();
+        return new Response(status, output);
+    }
+
+    public record Response(byte status, String output) {
+
+        public boolean ok() {
+            return status == Protocol.OK;
+        }
+    }
+}
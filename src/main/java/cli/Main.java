@@ -1,22 +1,54 @@
 package cli;
 
 import core.Scheduler;
+import core.runnable.PluginLoader;
+import storage.Checkpoint;
 import storage.Data;
+import storage.DeadLetterQueue;
+import storage.ExecutionLog;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
  * Main
+ * <p>
+ * Ohne Argumente laeuft der Scheduler im REPL. {@code --daemon [socket]} startet den
+ * {@link Daemon}, {@code --connect [socket]} ist ein REPL gegen einen laufenden Daemon.
+ * {@code --startup} laedt nur den Zeitplan, meldet die Dauer und beendet sich wieder
+ * (Trainingslauf fuer das AppCDS-Archiv, Profil {@code appcds}).
  *
  * @author Monke Vladyslav
  * @version 1.1
  */
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--daemon")) {
+            Daemon.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--connect")) {
+            connect(args.length > 1 ? Path.of(args[1]) : Protocol.DEFAULT_SOCKET);
+            return;
+        }
+
+        PluginLoader plugins = new PluginLoader(Path.of(Data.PLUGIN_DIR));
+        plugins.start();
         Scheduler scheduler = new Scheduler();
-        Data.loadTasks(scheduler);
+        ExecutionLog history = new ExecutionLog(Path.of(Data.HISTORY_DIR), Data.HISTORY_RETENTION);
+        scheduler.setExecutionLog(history);
+        scheduler.setDeadLetters(new DeadLetterQueue(Path.of(Data.DEAD_LETTER_FILE)));
+        Checkpoint.load(scheduler);
 
         scheduler.start();
+        if (args.length > 0 && args[0].equals("--startup")) {
+            scheduler.shutdown();
+            history.close();
+            plugins.close();
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in);
         while (true) {
@@ -24,16 +56,39 @@ public class Main {
             String line = scanner.nextLine();
 
             if (line.equals("exit")) {
-                Data.saveTasks(scheduler);
                 scheduler.shutdown();
+                Data.saveTasks(scheduler);
+                Checkpoint.save(scheduler);
+                history.close();
+                plugins.close();
                 break;  
             }
 
             String[] parts = line.split(" ");
             Command cmd = CommandRegistry.get(parts[0]);
             if (cmd != null) {
-                cmd.execute(parts, scheduler);
+                cmd.execute(parts, scheduler, System.out);
+            }
+        }
+    }
+
+    private static void connect(Path socket) {
+        try (DaemonClient client = new DaemonClient(socket)) {
+            Scanner scanner = new Scanner(System.in);
+            while (true) {
+                System.out.print("> ");
+                String line = scanner.nextLine();
+                if (line.equals("exit")) break;
+                String[] parts = line.trim().split(" ");
+                Command cmd = CommandRegistry.get(parts[0]);
+                if (cmd != null && cmd.runsInClient(parts)) {
+                    cmd.execute(parts, null, System.out);
+                    continue;
+                }
+                System.out.print(client.send(line).output());
             }
+        } catch (IOException e) {
+            System.out.println("Daemon not reachable at " + socket + ": " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
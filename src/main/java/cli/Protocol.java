@@ -0,0 +1,65 @@
+package cli;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Rahmenformat zwischen Daemon und Clients.
+ * <p>
+ * Anfrage: int Laenge + UTF-8-Befehlszeile (wie im REPL).
+ * Antwort: int Laenge + 1 Byte Status + UTF-8-Ausgabe des Befehls.
+ * Ein Client darf mehrere Anfragen senden, ohne auf Antworten zu warten;
+ * die Antworten kommen in derselben Reihenfolge zurueck.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public final class Protocol {
+
+    public static final Path DEFAULT_SOCKET = Path.of(System.getProperty("tasks.socket", "tasks.sock"));
+
+    public static final int MAX_FRAME = 1 << 20;
+
+    public static final byte OK = 0;
+    public static final byte UNKNOWN_COMMAND = 1;
+    public static final byte ERROR = 2;
+
+    private Protocol() {
+    }
+
+    public static ByteBuffer request(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+        buffer.putInt(bytes.length).put(bytes).flip();
+        return buffer;
+    }
+
+    public static ByteBuffer response(byte status, byte[] output) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + output.length);
+        buffer.putInt(output.length + 1).put(status).put(output).flip();
+        return buffer;
+    }
+
+    /**
+     * Liest genau einen Rahmen von einem blockierenden Kanal.
+     */
+    public static ByteBuffer readFrame(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(channel, header);
+        int length = header.flip().getInt();
+        if (length < 0 || length > MAX_FRAME) throw new IOException("Invalid frame length " + length);
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(channel, body);
+        return body.flip();
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new EOFException("Connection closed");
+        }
+    }
+}
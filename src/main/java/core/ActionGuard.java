@@ -0,0 +1,103 @@
+package core;
+
+import java.util.Queue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Laufzeitzustand einer Aktion: belegte Bulkhead-Plaetze, wartende Aufgaben und
+ * der Circuit Breaker. Nur unter der Sperre des {@link Scheduler} benutzt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ActionGuard {
+
+    private final String action;
+
+    private final ActionPolicy policy;
+
+    private final ResourceClass resource;
+
+    // wartet auf einen Bulkhead-Platz, fair nach Tag
+    private final Queue<Task> waiting;
+
+    private int active;
+
+    private int failures;
+
+    private long openUntil;
+
+    public ActionGuard(String action, ActionPolicy policy, ResourceClass resource) {
+        this(action, policy, resource, tag -> 1);
+    }
+
+    public ActionGuard(String action, ActionPolicy policy, ResourceClass resource, ToIntFunction<String> weights) {
+        this.action = action;
+        this.policy = policy;
+        this.resource = resource;
+        this.waiting = new FairQueue(weights);
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public ActionPolicy getPolicy() {
+        return policy;
+    }
+
+    public ResourceClass getResource() {
+        return resource;
+    }
+
+    /**
+     * Offen heisst: keine Ausfuehrung bis {@link #getOpenUntil()}. Danach darf ein Versuch
+     * laufen; schlaegt er fehl, oeffnet der Breaker sofort wieder.
+     */
+    public boolean isOpen(long now) {
+        return now < openUntil;
+    }
+
+    public long getOpenUntil() {
+        return openUntil;
+    }
+
+    public boolean tryAcquire() {
+        if (active >= policy.getMaxConcurrent()) return false;
+        active++;
+        return true;
+    }
+
+    public void release() {
+        active--;
+    }
+
+    public void succeeded() {
+        failures = 0;
+    }
+
+    /**
+     * @return true, wenn der Breaker durch diesen Fehler oeffnet
+     */
+    public boolean failed(long now) {
+        failures++;
+        if (failures < policy.getFailureThreshold()) return false;
+        openUntil = now + policy.getOpenDuration().toMillis();
+        return true;
+    }
+
+    public Queue<Task> waiting() {
+        return waiting;
+    }
+
+    /**
+     * Loest {@code old} ab, z.B. nach neu geladenem Plugin mit anderer Policy: belegte Plaetze
+     * und wartende Aufgaben ziehen um, der Breaker beginnt neu.
+     */
+    public void takeOver(ActionGuard old) {
+        active += old.active;
+        old.active = 0;
+        waiting.addAll(old.waiting);
+        old.waiting.clear();
+    }
+}
@@ -0,0 +1,49 @@
+package core;
+
+import java.time.Duration;
+
+/**
+ * Laufzeitgrenzen einer Aktion: Timeout, maximale parallele Ausfuehrungen (Bulkhead)
+ * und ab wie vielen Fehlern in Folge der Circuit Breaker fuer wie lange oeffnet.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ActionPolicy {
+
+    public static final ActionPolicy DEFAULT = new ActionPolicy(Duration.ofMinutes(5), 4, 5, Duration.ofMinutes(10));
+
+    private final Duration timeout;
+
+    private final int maxConcurrent;
+
+    private final int failureThreshold;
+
+    private final Duration openDuration;
+
+    public ActionPolicy(Duration timeout, int maxConcurrent, int failureThreshold, Duration openDuration) {
+        if (timeout != null && !timeout.isNegative() && !timeout.isZero() && maxConcurrent >= 1
+                && failureThreshold >= 1 && openDuration != null && !openDuration.isNegative()) {
+            this.timeout = timeout;
+            this.maxConcurrent = maxConcurrent;
+            this.failureThreshold = failureThreshold;
+            this.openDuration = openDuration;
+        } else throw new IllegalArgumentException("Invalid action policy");
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+}
@@ -0,0 +1,289 @@
+package core;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cron-Ausdruck mit fuenf Feldern: Minute Stunde Tag Monat Wochentag.
+ * <p>
+ * Unterstuetzt {@code *}, Listen, Bereiche, Schritte ({@code *}/15), Namen
+ * ({@code MON-FRI}, {@code JAN}), {@code L} als letzten Tag des Monats und die Makros
+ * {@code @hourly}, {@code @daily}, {@code @weekly}, {@code @monthly}, {@code @yearly}.
+ * Sind Tag und Wochentag beide eingeschraenkt, reicht wie bei Vixie-cron einer von beiden.
+ * <p>
+ * Zeiten werden in der Zeitzone der Regel ausgewertet. Faellt ein Zeitpunkt in eine
+ * Zeitumstellungsluecke, wird am Ende der Luecke ausgefuehrt; doppelte Ortszeiten
+ * beim Zurueckstellen feuern nur einmal. Abseits der Umstellungen rechnet
+ * {@link #nextFire(long)} nur mit primitiven Werten.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public final class CronRule implements RecurrenceRule {
+
+    private static final int MAX_YEARS = 8;
+
+    private static final String[] MONTHS =
+            {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final String expression;
+    private final ZoneId zone;
+    private final ZoneRules rules;
+
+    private final long minutes;
+    private final long hours;
+    private final long days;
+    private final long months;
+    private final long weekdays;
+    private final boolean lastDay;
+    private final boolean anyDay;
+    private final boolean anyWeekday;
+
+    // die zwei zuletzt benutzten Zeitraeume, meist "jetzt" und "nach der naechsten Umstellung"
+    private volatile OffsetWindow window;
+    private volatile OffsetWindow following;
+
+    public CronRule(String expression, ZoneId zone) {
+        if (expression == null || zone == null) throw new IllegalArgumentException("Invalid cron rule");
+        this.expression = expression.trim();
+        this.zone = zone;
+        this.rules = zone.getRules();
+
+        String[] fields = expand(this.expression).split("\\s+");
+        if (fields.length != 5) throw new IllegalArgumentException("Cron needs 5 fields: " + expression);
+        minutes = parseField(fields[0], 0, 59, null);
+        hours = parseField(fields[1], 0, 23, null);
+        lastDay = fields[2].equalsIgnoreCase("L");
+        days = lastDay ? 0 : parseField(fields[2], 1, 31, null);
+        months = parseField(fields[3], 1, 12, MONTHS);
+        long dow = parseField(fields[4], 0, 7, DAYS);
+        weekdays = (dow | (dow >>> 7)) & 0x7F;
+        anyDay = fields[2].equals("*");
+        anyWeekday = fields[4].equals("*");
+        window = OffsetWindow.at(rules, System.currentTimeMillis() / 1000);
+        following = window;
+    }
+
+    public long nextFire(long afterEpochMilli) {
+        OffsetWindow w = windowAt(Math.floorDiv(afterEpochMilli, 1000));
+        long minute = Math.floorDiv(Math.floorDiv(afterEpochMilli, 1000) + w.offset, 60) + 1;
+        long lastEpochDay = Math.floorDiv(minute, 1440) + MAX_YEARS * 366L;
+        while (true) {
+            long candidate = nextLocalMinute(minute, lastEpochDay);
+            if (candidate == NONE) return NONE;
+            long utc = candidate * 60 - w.offset;
+            if (utc < w.fastFrom || utc >= w.fastUntil) {
+                OffsetWindow other = windowAt(utc);
+                long shifted = candidate * 60 - other.offset;
+                utc = shifted >= other.fastFrom && shifted < other.fastUntil ? shifted : resolve(candidate);
+            }
+            if (utc * 1000 > afterEpochMilli) return utc * 1000;
+            minute = candidate + 1;
+        }
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Sucht die erste passende Ortszeit-Minute (Minuten seit 1970 in Ortszeit) ab {@code minute}.
+     */
+    private long nextLocalMinute(long minute, long lastEpochDay) {
+        long epochDay = Math.floorDiv(minute, 1440);
+        int minuteOfDay = Math.floorMod(minute, 1440);
+        while (epochDay <= lastEpochDay) {
+            // Hinnant: civil_from_days
+            long z = epochDay + 719468;
+            long era = Math.floorDiv(z, 146097);
+            long doe = z - era * 146097;
+            long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+            int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+            int length = monthLength(year, month);
+
+            if ((months & (1L << month)) == 0) {
+                epochDay += length - day + 1;
+                minuteOfDay = 0;
+                continue;
+            }
+            int weekday = Math.floorMod(epochDay + 4, 7);
+            while (day <= length) {
+                if (anyWeekday && !anyDay) {
+                    // nur der Tag zaehlt: direkt zum naechsten gesetzten Tages-Bit springen
+                    int next = lastDay ? length : Long.numberOfTrailingZeros(days & (-1L << day));
+                    if (next > length) break;
+                    if (next != day) {
+                        epochDay += next - day;
+                        weekday = (weekday + next - day) % 7;
+                        day = next;
+                        minuteOfDay = 0;
+                    }
+                }
+                if (dayMatches(day, length, weekday)) {
+                    int hour = minuteOfDay / 60;
+                    long hourBits = hours & (-1L << hour);
+                    while (hourBits != 0) {
+                        int h = Long.numberOfTrailingZeros(hourBits);
+                        int from = h == hour ? minuteOfDay % 60 : 0;
+                        long minuteBits = minutes & (-1L << from);
+                        if (minuteBits != 0) {
+                            return epochDay * 1440 + h * 60L + Long.numberOfTrailingZeros(minuteBits);
+                        }
+                        hourBits &= hourBits - 1;
+                    }
+                }
+                day++;
+                epochDay++;
+                weekday = weekday == 6 ? 0 : weekday + 1;
+                minuteOfDay = 0;
+            }
+            if (day <= length) {
+                epochDay += length - day + 1;
+                minuteOfDay = 0;
+            }
+        }
+        return NONE;
+    }
+
+    private OffsetWindow windowAt(long epochSecond) {
+        OffsetWindow w = window;
+        if (epochSecond >= w.from && epochSecond < w.until) return w;
+        w = following;
+        if (epochSecond >= w.from && epochSecond < w.until) return w;
+        w = OffsetWindow.at(rules, epochSecond);
+        following = window;
+        window = w;
+        return w;
+    }
+
+    private boolean dayMatches(int day, int length, int weekday) {
+        boolean dom = lastDay ? day == length : (days & (1L << day)) != 0;
+        boolean dow = (weekdays & (1L << weekday)) != 0;
+        if (anyDay || anyWeekday) return dom && dow;
+        return dom || dow;
+    }
+
+    /**
+     * Langsamer Weg nahe einer Zeitumstellung. Bei doppelter Ortszeit gilt nur der
+     * fruehere Zeitpunkt; liegt der schon zurueck, sucht der Aufrufer weiter.
+     *
+     * @return Unix-Sekunde
+     */
+    private long resolve(long localMinute) {
+        LocalDateTime local = LocalDateTime.ofEpochSecond(localMinute * 60, 0, ZoneOffset.UTC);
+        List<ZoneOffset> offsets = rules.getValidOffsets(local);
+        if (offsets.isEmpty()) {
+            return rules.getTransition(local).toEpochSecond();
+        }
+        return localMinute * 60 - offsets.get(0).getTotalSeconds();
+    }
+
+    private static int monthLength(long year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static String expand(String expression) {
+        return switch (expression.toLowerCase(Locale.ROOT)) {
+            case "@yearly", "@annually" -> "0 0 1 1 *";
+            case "@monthly" -> "0 0 1 * *";
+            case "@weekly" -> "0 0 * * 0";
+            case "@daily", "@midnight" -> "0 0 * * *";
+            case "@hourly" -> "0 * * * *";
+            default -> expression;
+        };
+    }
+
+    private static long parseField(String field, int min, int max, String[] names) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = Integer.parseInt(part.substring(slash + 1));
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                from = value(dash >= 0 ? part.substring(0, dash) : part, min, names);
+                to = dash >= 0 ? value(part.substring(dash + 1), min, names) : (slash >= 0 ? max : from);
+            }
+            if (from < min || to > max || from > to || step < 1) {
+                throw new IllegalArgumentException("Invalid cron field: " + field);
+            }
+            for (int i = from; i <= to; i += step) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    private static int value(String token, int min, String[] names) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(token)) return i + (min == 1 ? 1 : 0);
+            }
+        }
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron value: " + token);
+        }
+    }
+
+    /**
+     * Zeitraum mit fester Verschiebung zwischen zwei Umstellungen. Innerhalb von
+     * [fastFrom, fastUntil) ist die Umrechnung Ortszeit -> UTC eindeutig.
+     */
+    private record OffsetWindow(long from, long until, long fastFrom, long fastUntil, int offset) {
+
+        static OffsetWindow at(ZoneRules rules, long epochSecond) {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            int offset = rules.getOffset(instant).getTotalSeconds();
+            if (rules.isFixedOffset()) {
+                return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, offset);
+            }
+            ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            long from = Long.MIN_VALUE;
+            long fastFrom = Long.MIN_VALUE;
+            if (previous != null) {
+                from = previous.toEpochSecond();
+                fastFrom = from + Math.abs(previous.getDuration().getSeconds());
+            }
+            long until = Long.MAX_VALUE;
+            long fastUntil = Long.MAX_VALUE;
+            if (next != null) {
+                until = next.toEpochSecond();
+                fastUntil = until - Math.abs(next.getDuration().getSeconds());
+            }
+            return new OffsetWindow(from, until, fastFrom, fastUntil, offset);
+        }
+    }
+}
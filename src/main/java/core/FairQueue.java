@@ -0,0 +1,159 @@
+package core;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Warteschlange, die faellige Aufgaben gewichtet fair nach {@link Task#getTag()} herausgibt
+ * (Weighted Fair Queuing, selbstgetaktet). Innerhalb eines Tags bleibt die Reihenfolge FIFO.
+ * <p>
+ * Jeder Lauf zaehlt gleich viel; die vorderste Aufgabe eines Tags hat die Zielzeit
+ * {@code vorige + 1 / Gewicht}. {@link #poll()} nimmt die kleinste, die virtuelle Zeit springt
+ * auf ihren Wert. Ein Tag, der tausende Aufgaben auf einmal einreiht, bekommt so nur seinen
+ * Anteil, und wer spaeter dazukommt, startet bei der aktuellen virtuellen Zeit statt hinter
+ * dem ganzen Rueckstand. Nur unter der Sperre des {@link Scheduler} benutzt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class FairQueue extends AbstractQueue<Task> {
+
+    private final ToIntFunction<String> weights;
+
+    // nur Tags mit wartenden Aufgaben
+    private final Map<String, Flow> flows = new HashMap<>();
+
+    // dieselben Flows nach Zielzeit, bei Gleichstand der zuerst angelegte
+    private final TreeSet<Flow> order = new TreeSet<>(Comparator.comparingDouble((Flow flow) -> flow.finish)
+            .thenComparingLong(flow -> flow.sequence));
+
+    private long sequence;
+
+    private double virtualTime;
+
+    private int size;
+
+    /**
+     * Alle Tags gleich gewichtet.
+     */
+    public FairQueue() {
+        this(tag -> 1);
+    }
+
+    /**
+     * @param weights Gewicht je Tag, mindestens 1; wird bei jeder Aufgabe neu gefragt
+     */
+    public FairQueue(ToIntFunction<String> weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public boolean offer(Task task) {
+        Flow flow = flows.get(task.getTag());
+        if (flow == null) {
+            flow = new Flow(task.getTag(), virtualTime + step(task.getTag()), sequence++);
+            flows.put(task.getTag(), flow);
+            order.add(flow);
+        }
+        flow.tasks.add(task);
+        size++;
+        return true;
+    }
+
+    @Override
+    public Task poll() {
+        Flow flow = order.pollFirst();
+        if (flow == null) return null;
+        Task task = flow.tasks.poll();
+        size--;
+        virtualTime = flow.finish;
+        if (flow.tasks.isEmpty()) {
+            flows.remove(flow.tag);
+        } else {
+            flow.finish += step(flow.tag);
+            order.add(flow);
+        }
+        return task;
+    }
+
+    @Override
+    public Task peek() {
+        return order.isEmpty() ? null : order.first().tasks.peek();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Task task)) return false;
+        Flow flow = flows.get(task.getTag());
+        return flow != null && flow.tasks.contains(task);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Task task)) return false;
+        Flow flow = flows.get(task.getTag());
+        if (flow == null || !flow.tasks.remove(task)) return false;
+        size--;
+        if (flow.tasks.isEmpty()) {
+            flows.remove(task.getTag());
+            order.remove(flow);
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        flows.clear();
+        order.clear();
+        size = 0;
+    }
+
+    /**
+     * Tag fuer Tag nach Zielzeit, nicht in Ausgabereihenfolge; ohne {@code remove()}.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return order.stream().flatMap(flow -> flow.tasks.stream()).iterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return wartende Aufgaben dieses Tags
+     */
+    public int size(String tag) {
+        Flow flow = flows.get(tag);
+        return flow == null ? 0 : flow.tasks.size();
+    }
+
+    private double step(String tag) {
+        return 1.0 / Math.max(1, weights.applyAsInt(tag));
+    }
+
+    private static final class Flow {
+
+        private final String tag;
+
+        private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+
+        // Zielzeit der vordersten Aufgabe; nur ausserhalb von order aendern
+        private double finish;
+
+        private final long sequence;
+
+        private Flow(String tag, double finish, long sequence) {
+            this.tag = tag;
+            this.finish = finish;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package core;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Erzeugt die ids neuer Aufgaben. Die Standardimplementierung ist {@link #uuidV7()}.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    UUID next();
+
+    /**
+     * Zeitlich sortierte UUIDv7 (RFC 9562): 48 Bit Unix-Millisekunden, danach Zufall
+     * aus {@link ThreadLocalRandom}. Keine gemeinsame Datenstruktur zwischen Threads.
+     */
+    static IdGenerator uuidV7() {
+        return () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+            long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(msb, lsb);
+        };
+    }
+
+    /**
+     * UUIDv7 mit 62-Bit-Zaehler statt Zufall; jeder Thread reserviert Bloecke von
+     * {@value MonotonicIds#BLOCK} ids, sodass der gemeinsame Zaehler nur selten beruehrt wird.
+     * Die oberen 64 Bit sind pro Instanz fest: Startzeit plus 12 Zufallsbits; der Zaehler beginnt
+     * bei einem Zufallswert (29 Bit). Zwei Instanzen aus derselben Millisekunde, auch in zwei
+     * Prozessen, kollidieren nur, wenn alle 41 Zufallsbits gleich sind (etwa 1 zu 2^41).
+     */
+    static IdGenerator monotonic() {
+        return new MonotonicIds();
+    }
+
+    /**
+     * Das alte Verhalten: {@link UUID#randomUUID()} ueber SecureRandom.
+     */
+    static IdGenerator random() {
+        return UUID::randomUUID;
+    }
+
+    final class MonotonicIds implements IdGenerator {
+
+        static final int BLOCK = 1024;
+
+        // einmal pro Instanz; die unteren 12 Bit fuer den Praefix, Bit 32 bis 60 fuer den Zaehlerstart
+        private final long seed = new SecureRandom().nextLong();
+
+        private final long prefix = (System.currentTimeMillis() << 16) | 0x7000L | (seed & 0x0FFFL);
+
+        // Bit 61 bleibt frei: bis zum Ueberlauf der 62 Bit sind es mindestens 2^61 ids
+        private final AtomicLong counter = new AtomicLong(seed & 0x1FFFFFFF00000000L);
+
+        private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+        public UUID next() {
+            long[] range = block.get();
+            if (range[0] == range[1]) {
+                range[0] = counter.getAndAdd(BLOCK);
+                range[1] = range[0] + BLOCK;
+            }
+            // Variante 10 in den obersten zwei Bit, darunter der Zaehler
+            return new UUID(prefix, (range[0]++ & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package core;
+
+import java.time.Duration;
+
+/**
+ * Aktion, die ihre Daten vor dem Termin vorbereiten kann. Der {@link Scheduler} ruft
+ * {@link #prefetch()} {@link #lead()} vor jedem geplanten Lauf im IO-Pool auf, damit
+ * {@code run()} nur noch das fertige Ergebnis zeigt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public interface Prefetching {
+
+    /**
+     * @return so lange vor dem Termin wird vorbereitet
+     */
+    Duration lead();
+
+    /**
+     * Darf blockieren; Fehler werden nur ausgegeben, der Lauf holt die Daten dann selbst.
+     */
+    void prefetch() throws Exception;
+}
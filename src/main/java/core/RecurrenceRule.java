@@ -0,0 +1,54 @@
+package core;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Regel fuer wiederkehrende Aufgaben, die den naechsten Ausfuehrungszeitpunkt berechnet.
+ * Zeiten sind Unix-Millisekunden, damit die Berechnung ohne Objekte auskommt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public interface RecurrenceRule {
+
+    long NONE = Long.MIN_VALUE;
+
+    /**
+     * @return der erste Zeitpunkt echt nach {@code afterEpochMilli} oder {@link #NONE}
+     */
+    long nextFire(long afterEpochMilli);
+
+    /**
+     * Wie {@link #nextFire(long)}; {@link #NONE} ist kein gueltiger Instant.
+     *
+     * @return der erste Zeitpunkt echt nach {@code after} oder null, wenn die Regel nie mehr feuert
+     */
+    default Instant nextAfter(Instant after) {
+        long next = nextFire(after.toEpochMilli());
+        return next == NONE ? null : Instant.ofEpochMilli(next);
+    }
+
+    /**
+     * Fuellt {@code out} mit den naechsten Zeitpunkten nach {@code afterEpochMilli}.
+     *
+     * @return Anzahl der geschriebenen Zeitpunkte
+     */
+    default int nextFireTimes(long afterEpochMilli, long[] out) {
+        long time = afterEpochMilli;
+        for (int i = 0; i < out.length; i++) {
+            time = nextFire(time);
+            if (time == NONE) return i;
+            out[i] = time;
+        }
+        return out.length;
+    }
+
+    String getExpression();
+
+    ZoneId getZone();
+
+    static RecurrenceRule cron(String expression, ZoneId zone) {
+        return new CronRule(expression, zone);
+    }
+}
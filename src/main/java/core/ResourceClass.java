@@ -0,0 +1,23 @@
+package core;
+
+/**
+ * Wovon eine Aktion hauptsaechlich lebt. Jede Klasse hat im {@link SystemClock} einen eigenen
+ * Pool, damit etwa ein Backup auf der Platte keine kurzen HTTP-Aufrufe aufhaelt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public enum ResourceClass {
+
+    // rechnet: so viele Threads wie Kerne
+    CPU,
+
+    // Platte und Prozesse: blockiert Plattform-Threads
+    IO,
+
+    // wartet auf das Netz: virtuelle Threads
+    NETWORK,
+
+    // wartet auf Kindprozesse: virtuelle Threads, so viele wie Prozesse erlaubt sind
+    PROCESS
+}
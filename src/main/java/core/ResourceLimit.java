@@ -0,0 +1,63 @@
+package core;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Zulassung zum Pool einer {@link ResourceClass}: hoechstens {@code capacity} Aktionen sind
+ * gleichzeitig uebergeben (laufend oder in der Warteschlange des Pools), weitere warten hier,
+ * ohne einen Thread zu belegen, und werden fair nach Tag zugelassen ({@link FairQueue}).
+ * Nur unter der Sperre des {@link Scheduler} benutzt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ResourceLimit {
+
+    private final ResourceClass resource;
+
+    private final int capacity;
+
+    private final FairQueue waiting;
+
+    private int active;
+
+    public ResourceLimit(ResourceClass resource, int capacity) {
+        this(resource, capacity, tag -> 1);
+    }
+
+    /**
+     * @param weights Gewicht je Tag fuer die Reihenfolge der Wartenden
+     */
+    public ResourceLimit(ResourceClass resource, int capacity, ToIntFunction<String> weights) {
+        if (resource == null || capacity < 1) throw new IllegalArgumentException("Invalid resource limit");
+        this.resource = resource;
+        this.capacity = capacity;
+        this.waiting = new FairQueue(weights);
+    }
+
+    public ResourceClass getResource() {
+        return resource;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public boolean tryAcquire() {
+        if (active >= capacity) return false;
+        active++;
+        return true;
+    }
+
+    public void release() {
+        active--;
+    }
+
+    public FairQueue waiting() {
+        return waiting;
+    }
+}
@@ -0,0 +1,83 @@
+package core;
+
+import java.time.Duration;
+
+/**
+ * Wiederholungen einer fehlgeschlagenen Ausfuehrung: hoechstens {@code maxAttempts} Versuche,
+ * dazwischen exponentiell wachsende Wartezeit (Faktor 2, gedeckelt) mit Jitter.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class RetryPolicy {
+
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(10);
+
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(10);
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    public RetryPolicy(int maxAttempts) {
+        this(maxAttempts, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        if (maxAttempts >= 1 && initialBackoff != null && !initialBackoff.isNegative() && !initialBackoff.isZero()
+                && maxBackoff != null && maxBackoff.compareTo(initialBackoff) >= 0) {
+            this.maxAttempts = maxAttempts;
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+        } else throw new IllegalArgumentException("Invalid retry policy");
+    }
+
+    /**
+     * Liest die Form aus {@link #toString()}: "3 PT10S PT10M".
+     */
+    public static RetryPolicy parse(String value) {
+        String[] parts = value.trim().split("\\s+");
+        try {
+            if (parts.length == 1) return new RetryPolicy(Integer.parseInt(parts[0]));
+            if (parts.length == 3) {
+                return new RetryPolicy(Integer.parseInt(parts[0]), Duration.parse(parts[1]), Duration.parse(parts[2]));
+            }
+        } catch (RuntimeException e) {
+            // unten einheitlich gemeldet
+        }
+        throw new IllegalArgumentException("Invalid retry policy: " + value);
+    }
+
+    /**
+     * Wartezeit vor dem naechsten Versuch. Die Haelfte ist fest, die andere zufaellig
+     * ("equal jitter"), damit gleichzeitig fehlgeschlagene Aufgaben nicht im Gleichschritt wiederholen.
+     *
+     * @param failures bisherige Fehlschlaege dieses Laufs, ab 1
+     * @param random   Zufallswert aus [0, 1)
+     */
+    public Duration backoff(int failures, double random) {
+        long cap = maxBackoff.toMillis();
+        long base = initialBackoff.toMillis();
+        int shift = Math.min(failures - 1, 62);
+        long delay = shift >= Long.numberOfLeadingZeros(base) - 1 ? cap : Math.min(cap, base << shift);
+        return Duration.ofMillis(delay / 2 + (long) (random * (delay - delay / 2)));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public String toString() {
+        return maxAttempts + " " + initialBackoff + " " + maxBackoff;
+    }
+}
@@ -0,0 +1,17 @@
+package core;
+
+/**
+ * Wird nach jedem gestarteten Lauf aufgerufen, auf dem Worker-Thread und ohne Scheduler-Lock.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@FunctionalInterface
+public interface RunListener {
+
+    /**
+     * @param task      die Aufgabe mit dem geplanten Zeitpunkt dieses Laufs
+     * @param startedAt Start in Epoch-Millisekunden der {@link SchedulerClock}
+     */
+    void finished(Task task, long startedAt, long durationNanos, boolean success);
+}
@@ -1,16 +1,20 @@
 package core;
 
+import core.jfr.ActionRunEvent;
+import core.jfr.TaskEvents;
+import core.runnable.RunnableRegistry;
 import storage.Data;
+import storage.DeadLetterQueue;
+import storage.ExecutionLog;
 
+import java.io.PrintStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @author Monke Vladyslav
@@ -18,37 +22,191 @@ import java.util.concurrent.TimeUnit;
  */
 public class Scheduler {
 
-    private final List<Task> tasks = new ArrayList<>();
+    // so viele Aufgaben plant start() je Sperre ein
+    private static final int START_BATCH = 4096;
+
+    // unveraenderliche Version; Schreiber ersetzen sie unter der Sperre, Leser brauchen keine
+    private volatile TaskVector tasks = TaskVector.EMPTY;
+
+    // id -> Stelle in tasks, nur unter der Sperre
+    private final Map<UUID, Integer> positions = new HashMap<>();
+
+    // Namenssuche; geschrieben unter der Sperre, gelesen ohne
+    private volatile TaskIndex index = new TaskIndex();
 
     private final Map<UUID, ScheduledFuture<?>> scheduled = new HashMap<>();
 
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    // Zeit, Timer und Worker; austauschbar fuer Simulationen
+    private final SchedulerClock clock;
+
+    // legt Weckzeitpunkte von Aufgaben mit Spielraum zusammen
+    private final WakeupCoalescer wakeups;
+
+    // Spielraum in ms je Prioritaet 1 bis 5; Prioritaet 1 standardmaessig exakt
+    private final long[] slack = {0, 10, 100, 1_000, 5_000};
+
+    private final TaskGraph graph = new TaskGraph();
+
+    // faellige Aufgaben, die noch auf Voraussetzungen warten
+    private final Map<UUID, Task> parked = new HashMap<>();
+
+    // laufende Ausfuehrungen, fuer Timeout und Abbruch per remove(UUID)
+    private final Map<UUID, Execution> running = new HashMap<>();
+
+    // Weckzeit von Wiederholungen und nach offenem Breaker; sonst zaehlt die Verspaetung ab executeAt
+    private final Map<UUID, Long> wakeupDue = new HashMap<>();
+
+    // waehrend des Laufs geaenderte Aufgaben (Name, Prioritaet, Tag); das Ende des Laufs plant sie weiter
+    private final Map<UUID, Task> replacedWhileRunning = new HashMap<>();
+
+    private final Map<String, ActionGuard> guards = new HashMap<>();
+
+    // Aufgaben je Aktion mit Argumenten; bei 0 vergisst die Registry sie, nur unter der Sperre
+    private final Map<Runnable, Integer> uses = new IdentityHashMap<>();
+
+    // Zulassung je Pool: was darueber hinaus faellig ist, wartet hier statt in der Warteschlange des Pools
+    private final Map<ResourceClass, ResourceLimit> limits = new EnumMap<>(ResourceClass.class);
+
+    // Gewicht und Quote je Tag; fehlt ein Tag, hat er Gewicht 1 und keine Quote
+    private final Map<String, TagShare> shares = new HashMap<>();
+
+    // im Cluster: nur Aufgaben eigener Shards werden geplant
+    private volatile ShardCoordinator coordinator;
+
+    private volatile ExecutionLog executionLog;
+
+    private volatile DeadLetterQueue deadLetters;
+
+    // Fehlschlaege des aktuellen Laufs, fuer die RetryPolicy
+    private final Map<UUID, Integer> failures = new HashMap<>();
+
+    private volatile RunListener runListener;
+
+    private volatile boolean autoSave = true;
+
+    public Scheduler() {
+        this(new SystemClock());
+    }
+
+    public Scheduler(SchedulerClock clock) {
+        this.clock = clock;
+        this.wakeups = new WakeupCoalescer(clock);
+        for (ResourceClass resource : ResourceClass.values()) {
+            limits.put(resource, new ResourceLimit(resource, clock.capacity(resource), this::weightOf));
+        }
+        // -Dtasks.tags=bulk=1:100/1min,ops=4 (Gewicht, optional Starts je Zeitraum)
+        String tags = System.getProperty("tasks.tags");
+        if (tags != null) shares.putAll(TagShare.parseAll(tags));
+        // -Dtasks.slack=0,10,100,1000,5000 (ms je Prioritaet)
+        String configured = System.getProperty("tasks.slack");
+        if (configured != null) {
+            String[] parts = configured.split(",");
+            if (parts.length != slack.length) throw new IllegalArgumentException("Invalid timer slack: " + configured);
+            // direkt ins Feld, nicht ueber den ueberschreibbaren Setter
+            for (int i = 0; i < parts.length; i++) {
+                long millis = Long.parseLong(parts[i].trim());
+                if (millis < 0) throw new IllegalArgumentException("Invalid timer slack for priority " + (i + 1));
+                slack[i] = millis;
+            }
+        }
+    }
+
+    public SchedulerClock getClock() {
+        return clock;
+    }
+
+    public WakeupCoalescer getWakeups() {
+        return wakeups;
+    }
+
+    public synchronized Duration getTimerSlack(int priority) {
+        if (priority < 1 || priority > slack.length) throw new IllegalArgumentException("Invalid priority: " + priority);
+        return Duration.ofMillis(slack[priority - 1]);
+    }
+
+    /**
+     * Wie spaet Aufgaben dieser Prioritaet hoechstens starten duerfen, damit ihre Timer mit
+     * anderen zusammengelegt werden koennen. Gilt fuer ab jetzt geplante Timer.
+     */
+    public synchronized void setTimerSlack(int priority, Duration slack) {
+        if (priority < 1 || priority > this.slack.length || slack == null || slack.isNegative()) {
+            throw new IllegalArgumentException("Invalid timer slack for priority " + priority);
+        }
+        this.slack[priority - 1] = slack.toMillis();
+    }
 
-    public synchronized List<Task> snapshot() {
-        return new ArrayList<>(tasks);
+    /**
+     * Aktuelle Version der Aufgabenliste, ohne Kopie und ohne Sperre. Sie aendert sich
+     * nie; spaetere Aenderungen erscheinen erst in der naechsten Version.
+     */
+    public List<Task> snapshot() {
+        return tasks;
     }
 
     public void list() {
+        list(System.out);
+    }
+
+    public void list(PrintStream out) {
         for (Task task : snapshot()) {
+            Set<UUID> after = prerequisitesOf(task.getId());
             ZonedDateTime local = task.getExecuteAT().atZone(ZoneId.systemDefault());
-            System.out.println(
+            out.println(
                     "ID : " + task.getId() +
                             "\nName : " + task.getName() +
                             "\nPriority : " + task.getPriority() +
                             "\nExecution: " + local +
-                            "\nAction " + task.getAction().toString() +
-                            "\nRepeatInterval " + task.getRepeatInterval()
+                            "\nAction " + RunnableRegistry.nameOf(task.getAction()) +
+                            "\nRepeatInterval " + task.getRepeatInterval() +
+                            (task.getTag().equals(Task.DEFAULT_TAG) ? "" : "\nTag " + task.getTag()) +
+                            (task.getRecurrence() == null ? "" :
+                                    "\nCron " + task.getRecurrence() + " (" + task.getRecurrence().getZone() + ")") +
+                            (after.isEmpty() ? "" : "\nAfter " + after)
             );
         }
     }
 
     public void addTask(Task task) {
         synchronized (this) {
-            tasks.add(task);
+            append(task);
             scheduleTask(task);
         }
     }
 
+    /**
+     * Fuegt Aufgaben samt Kanten in einem Schritt hinzu und plant erst danach ein, damit kein
+     * Abhaengiger vor seinen Voraussetzungen startet. Ungueltige Aufgaben und Kanten fallen weg.
+     *
+     * @param after Voraussetzungen je Aufgabe, auch auf schon vorhandene Aufgaben
+     * @param schedule false: geplant wird spaeter mit {@link #start()}
+     * @return Meldungen zu ausgelassenen Aufgaben und Kanten
+     */
+    public synchronized List<String> addTasks(Collection<Task> added, Map<UUID, Set<UUID>> after, boolean schedule) {
+        List<String> ignored = new ArrayList<>();
+        List<Task> appended = new ArrayList<>(added.size());
+        for (Task task : added) {
+            try {
+                append(task);
+                appended.add(task);
+            } catch (IllegalArgumentException e) {
+                ignored.add("Ignoring task: " + e.getMessage());
+            }
+        }
+        for (Map.Entry<UUID, Set<UUID>> entry : after.entrySet()) {
+            for (UUID prerequisite : entry.getValue()) {
+                try {
+                    addDependency(prerequisite, entry.getKey());
+                } catch (IllegalArgumentException e) {
+                    ignored.add("Ignoring dependency: " + e.getMessage());
+                }
+            }
+        }
+        if (schedule) {
+            for (Task task : appended) scheduleTask(task);
+        }
+        return ignored;
+    }
+
     public void addTask(String name, byte priority, Instant executeAT, Runnable action, Duration repeatInterval) {
         Task task = new Task(name, priority, executeAT, action, repeatInterval);
         addTask(task);
@@ -60,29 +218,40 @@ public class Scheduler {
     }
 
     public void remove(UUID id) {
-        ScheduledFuture<?> future;
         synchronized (this) {
-            tasks.removeIf(task -> task.getId().equals(id));
-            future = scheduled.remove(id);
+            Task task = find(id);
+            if (task != null) removeInternal(task);
         }
-        if (future != null) future.cancel(false);
     }
 
     public void remove(String name) {
-        List<Task> toRemove;
         synchronized (this) {
-            toRemove = new ArrayList<>();
-            for (Task task : tasks) {
-                if (task.getName().equals(name)) toRemove.add(task);
-            }
-            tasks.removeAll(toRemove);
-            for (Task task : toRemove) {
-                ScheduledFuture<?> future = scheduled.remove(task.getId());
-                if (future != null) future.cancel(false);
-            }
+            removeAll(index.named(name));
+        }
+    }
+
+    /**
+     * Entfernt alle Aufgaben, deren Name mit {@code prefix} beginnt.
+     *
+     * @return Anzahl entfernter Aufgaben
+     */
+    public int removeByPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) throw new IllegalArgumentException("Invalid prefix");
+        synchronized (this) {
+            List<Task> toRemove = index.startingWith(prefix);
+            removeAll(toRemove);
+            return toRemove.size();
         }
     }
 
+    /**
+     * Hoechstens {@code limit} Aufgaben, deren Name {@code text} enthaelt (gross/klein egal);
+     * braucht die Sperre des Schedulers nicht.
+     */
+    public List<Task> search(String text, int limit) {
+        return index.search(text, limit);
+    }
+
     public void remove(int priority) {
         List<Task> toRemove;
         synchronized (this) {
@@ -90,93 +259,863 @@ public class Scheduler {
             for (Task task : tasks) {
                 if (task.getPriority() == priority) toRemove.add(task);
             }
-            tasks.removeAll(toRemove);
-            for (Task task : toRemove) {
-                ScheduledFuture<?> future = scheduled.remove(task.getId());
-                if (future != null) future.cancel(false);
-            }
+            removeAll(toRemove);
+        }
+    }
+
+    /**
+     * Der Abhaengige startet erst, wenn alle Voraussetzungen, die bis zu seinem
+     * Ausfuehrungszeitpunkt faellig sind, fertig gelaufen sind.
+     *
+     * @throws IllegalArgumentException bei unbekannten ids oder einem Zyklus
+     */
+    public synchronized void addDependency(UUID prerequisite, UUID dependent) {
+        if (find(prerequisite) == null || find(dependent) == null) {
+            throw new IllegalArgumentException("Unknown task in dependency " + prerequisite + " -> " + dependent);
         }
+        graph.add(prerequisite, dependent);
+    }
+
+    public synchronized void removeDependency(UUID prerequisite, UUID dependent) {
+        if (graph.remove(prerequisite, dependent)) release(Set.of(dependent));
+    }
+
+    public synchronized Set<UUID> prerequisitesOf(UUID id) {
+        return graph.prerequisitesOf(id);
+    }
+
+    /**
+     * @return alle Kanten als Paare {prerequisite, dependent}
+     */
+    public synchronized List<UUID[]> dependencies() {
+        return graph.edges();
     }
 
     public synchronized void sortByPriority() {
-        tasks.sort(Comparator.comparingInt(Task::getPriority));
+        reorder(Comparator.comparingInt(Task::getPriority));
     }
 
     public synchronized void sortByName() {
-        tasks.sort(Comparator.comparing(Task::getName));
+        reorder(Comparator.comparing(Task::getName));
     }
 
     public synchronized void sortByTime() {
-        tasks.sort(Comparator.comparing(Task::getExecuteAT));
+        reorder(Comparator.comparing(Task::getExecuteAT));
     }
 
     private void scheduleTask(Task task) {
-        if (scheduled.containsKey(task.getId())) return;
-        long delay = task.getExecuteAT().toEpochMilli() - Instant.now().toEpochMilli();
+        if (scheduled.containsKey(task.getId()) || !owns(task)) return;
+        long delay = task.getExecuteAT().toEpochMilli() - clock.millis();
         if (delay < 0) delay = 0;
 
-        ScheduledFuture<?> f = executor.schedule(() -> {
-            try {
+        scheduled.put(task.getId(), wakeup(task, delay));
+        if (task.getAction() instanceof Prefetching action) prefetch(task, action, delay);
+        TaskEvents.scheduled(task, delay);
+    }
+
+    /**
+     * Bereitet den Lauf {@link Prefetching#lead()} vorher im IO-Pool vor, sofern die Aufgabe dann noch so geplant ist.
+     */
+    private void prefetch(Task task, Prefetching action, long delay) {
+        clock.schedule(() -> {
+            synchronized (this) {
+                if (find(task.getId()) != task || !scheduled.containsKey(task.getId())) return;
+            }
+            clock.execute(ResourceClass.IO, () -> {
+                try {
+                    action.prefetch();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    System.out.println("Prefetch failed for " + task.getName() + ": " + e.getMessage());
+                }
+            });
+        }, Math.max(0, delay - action.lead().toMillis()));
+    }
+
+    private ScheduledFuture<?> wakeup(Task task, long delay) {
+        return wakeups.schedule(() -> due(task), delay, slack[task.getPriority() - 1]);
+    }
+
+    private synchronized void due(Task task) {
+        scheduled.remove(task.getId());
+        // Lease kann seit dem Planen abgelaufen sein
+        if (find(task.getId()) != task || !owns(task)) return;
+        if (!ready(task)) {
+            parked.put(task.getId(), task);
+            return;
+        }
+        admit(task);
+    }
+
+    /**
+     * Verbraucht eine Marke der Quote des Tags und startet die Aufgabe; ohne freie Marke
+     * wartet sie beim Tag, bis dessen Timer die naechsten freigibt.
+     */
+    private void admit(Task task) {
+        TagShare share = shares.get(task.getTag());
+        if (share == null || (share.throttled().isEmpty() && share.tryStart(clock.nanos()))) {
+            dispatch(task);
+            return;
+        }
+        share.throttled().add(task);
+        armQuota(share);
+    }
+
+    private void armQuota(TagShare share) {
+        if (share.getTimer() != null || share.throttled().isEmpty()) return;
+        long delay = share.getQuota() == null ? 0 : (share.getQuota().nanosUntilAvailable(clock.nanos()) + 999_999) / 1_000_000;
+        share.setTimer(clock.schedule(() -> drainQuota(share), delay));
+    }
+
+    /**
+     * Startet so viele beim Tag wartende Aufgaben, wie die Quote gerade erlaubt.
+     */
+    private synchronized void drainQuota(TagShare share) {
+        share.setTimer(null);
+        while (!share.throttled().isEmpty() && share.tryStart(clock.nanos())) dispatch(share.throttled().poll());
+        armQuota(share);
+    }
+
+    private int weightOf(String tag) {
+        TagShare share = shares.get(tag);
+        return share == null ? 1 : share.getWeight();
+    }
+
+    /**
+     * Setzt Gewicht und Quote eines Tags; {@code null} setzt ihn auf Gewicht 1 ohne Quote zurueck.
+     * Aufgaben, die auf die alte Quote warten, gehen an die neue.
+     */
+    public synchronized void setTagShare(String tag, TagShare share) {
+        TagShare old = share == null ? shares.remove(tag) : shares.put(tag, share);
+        if (old == null) return;
+        if (old.getTimer() != null) old.getTimer().cancel(false);
+        for (Task task : old.throttled()) admit(task);
+    }
+
+    /**
+     * @return Gewicht und Quote je Tag, soweit gesetzt
+     */
+    public synchronized Map<String, TagShare> getTagShares() {
+        return new TreeMap<>(shares);
+    }
+
+    /**
+     * @return faellige Aufgaben des Tags, die auf ihre Quote oder einen Platz warten
+     */
+    public synchronized int waitingIn(String tag) {
+        TagShare share = shares.get(tag);
+        int waiting = share == null ? 0 : share.throttled().size();
+        for (ResourceLimit limit : limits.values()) waiting += limit.waiting().size(tag);
+        return waiting;
+    }
+
+    /**
+     * Startet die Aktion im Pool ihrer Ressourcenklasse, sofern Circuit Breaker, Bulkhead der
+     * Aktion und Zulassung des Pools es erlauben. Sonst wartet die Aufgabe, ohne einen Worker zu blockieren.
+     */
+    private void dispatch(Task task) {
+        ActionGuard guard = guardOf(task);
+        long now = clock.millis();
+        if (guard.isOpen(now)) {
+            long delay = guard.getOpenUntil() - now;
+            scheduled.put(task.getId(), wakeup(task, delay));
+            wakeupDue.put(task.getId(), guard.getOpenUntil());
+            TaskEvents.rescheduled(task, guard.getOpenUntil(), "breaker");
+            return;
+        }
+        if (!guard.tryAcquire()) {
+            guard.waiting().add(task);
+            return;
+        }
+        ResourceLimit limit = limits.get(guard.getResource());
+        if (!limit.tryAcquire()) {
+            guard.release();
+            limit.waiting().add(task);
+            return;
+        }
+        Long wakeup = wakeupDue.remove(task.getId());
+        Execution execution = new Execution(task, guard,
+                wakeup == null ? task.getExecuteAT().toEpochMilli() : wakeup);
+        running.put(task.getId(), execution);
+        clock.execute(guard.getResource(), () -> run(execution));
+        execution.watchdog = clock.schedule(execution::timeout, guard.getPolicy().getTimeout().toMillis());
+        TaskEvents.dispatched(task, guard.getAction(), guard.getResource().name(), execution.due, now);
+    }
+
+    private ActionGuard guardOf(Task task) {
+        String action = RunnableRegistry.nameOf(task.getAction());
+        ActionPolicy policy = RunnableRegistry.policyOf(action);
+        ResourceClass resource = RunnableRegistry.resourceOf(action);
+        ActionGuard guard = guards.get(action);
+        if (guard != null && guard.getPolicy() == policy && guard.getResource() == resource) return guard;
+        // neue Aktion oder neu geladenes Plugin: dessen Policy gilt ab jetzt
+        ActionGuard next = new ActionGuard(action, policy, resource, this::weightOf);
+        if (guard != null) next.takeOver(guard);
+        guards.put(action, next);
+        return next;
+    }
+
+    /**
+     * @return die Warteschlange, in der die Aufgabe auf eine Marke oder einen Platz wartet (Quote,
+     * Bulkhead oder Pool), sonst null
+     */
+    private Queue<Task> queueOf(Task task) {
+        TagShare share = shares.get(task.getTag());
+        if (share != null && share.throttled().contains(task)) return share.throttled();
+        ActionGuard guard = guardOf(task);
+        if (guard.waiting().contains(task)) return guard.waiting();
+        Queue<Task> pool = limits.get(guard.getResource()).waiting();
+        return pool.contains(task) ? pool : null;
+    }
+
+    /**
+     * Fertig ist eine Voraussetzung, wenn sie weder laeuft noch wartet und ihr
+     * naechster Lauf nach dem des Abhaengigen liegt.
+     */
+    private boolean ready(Task task) {
+        for (UUID id : graph.prerequisitesOf(task.getId())) {
+            if (running.containsKey(id) || parked.containsKey(id)) return false;
+            Task prerequisite = find(id);
+            if (prerequisite != null && !prerequisite.getExecuteAT().isAfter(task.getExecuteAT())) return false;
+        }
+        return true;
+    }
+
+    private void run(Execution execution) {
+        Task task = execution.task;
+        boolean success = false;
+        String error = null;
+        ActionRunEvent event = TaskEvents.runStarted();
+        try {
+            if (execution.start(clock)) {
                 task.getAction().run();
-                if (task.getRepeatInterval() != null) {
-                    String name = task.getName();
-                    byte priority = task.getPriority();
-                    Runnable action = task.getAction();
-                    Duration repeatInterval = task.getRepeatInterval();
-                    Instant executeAt = task.getExecuteAT().plus(repeatInterval);
-                    Task next = new Task(name, priority, executeAt, action, repeatInterval);
-                    addTask(next);
-                    Data.saveTasks(this);
+                success = !execution.timedOut;
+            }
+        } catch (Throwable e) {
+            // auch ein Error ist ein Fehlschlag; die Buchfuehrung unten gibt Bulkhead und Pool frei
+            error = e.toString();
+            if (e instanceof VirtualMachineError) throw e;
+        } finally {
+            execution.finish();
+            if (execution.startedAt != 0) {
+                TaskEvents.runEnded(event, task, execution.guard.getAction(), execution.due, execution.startedAt,
+                        statusOf(execution, success).name());
+            }
+            record(execution, success);
+            Instant next = task.nextExecuteAt();
+            Instant executeAt = null;
+            int failed = 0;
+            boolean dead = false;
+            Task current;
+            synchronized (this) {
+                execution.watchdog.cancel(false);
+                running.remove(task.getId());
+                current = replacedWhileRunning.remove(task.getId());
+                if (current == null) current = task;
+                // der Platz im Pool gehoert zur Ressource beim Start, der im Bulkhead ist ggf. umgezogen
+                ResourceLimit limit = limits.get(execution.guard.getResource());
+                limit.release();
+                ActionGuard guard = guardOf(task);
+                guard.release();
+                if (success) {
+                    guard.succeeded();
+                } else if (!execution.cancelled) {
+                    if (execution.timedOut) error = "timed out after " + guard.getPolicy().getTimeout();
+                    guard.failed(clock.millis());
                 }
-            } finally {
-                synchronized (this) {
-                    scheduled.remove(task.getId());
-                    remove(task.getId());
+
+                Set<UUID> dependents = graph.dependentsOf(task.getId());
+                Duration retryIn = null;
+                if (success) {
+                    failures.remove(task.getId());
+                    executeAt = next;
+                } else if (!execution.cancelled) {
+                    failed = failures.merge(task.getId(), 1, Integer::sum);
+                    RetryPolicy retry = current.getRetry();
+                    if (retry != null && failed < retry.getMaxAttempts()) {
+                        retryIn = retry.backoff(failed, ThreadLocalRandom.current().nextDouble());
+                    } else {
+                        // aufgeben: dieser Lauf ist verloren, wiederkehrende Aufgaben laufen planmaessig weiter
+                        failures.remove(task.getId());
+                        dead = true;
+                        executeAt = next;
+                        skipDependents(task.getId());
+                    }
+                }
+                if (find(task.getId()) == current) {
+                    if (retryIn != null) {
+                        // executeAt bleibt, damit Wiederholung und Abhaengige am selben Lauf haengen
+                        long retryAt = clock.millis() + retryIn.toMillis();
+                        scheduled.put(current.getId(), wakeup(current, retryIn.toMillis()));
+                        wakeupDue.put(current.getId(), retryAt);
+                        TaskEvents.rescheduled(current, retryAt, "retry");
+                    } else if (executeAt != null) {
+                        Task following = current.withExecuteAt(executeAt);
+                        TaskEvents.rescheduled(current, executeAt.toEpochMilli(), "next");
+                        put(current, following);
+                        scheduleTask(following);
+                    } else {
+                        delete(List.of(current));
+                        graph.removeTask(current.getId());
+                    }
                 }
+                if (success) release(dependents);
+
+                // zuerst, wer schon auf den Pool wartet, dann die naechste Aufgabe derselben Aktion
+                Task queued = limit.waiting().poll();
+                if (queued != null) dispatch(queued);
+                Task waiting = guard.waiting().poll();
+                if (waiting != null) dispatch(waiting);
+            }
+            DeadLetterQueue letters = deadLetters;
+            if (dead && letters != null) letters.add(current, failed, error == null ? "failed" : error);
+            // im Cluster auch erledigte Einmal-Aufgaben zeitnah festschreiben, sonst feuert ein Nachfolger sie erneut
+            if (autoSave && (executeAt != null || dead || coordinator != null)) Data.saveTasks(this);
+        }
+    }
+
+    /**
+     * Startet wartende Abhaengige, deren Voraussetzungen jetzt erfuellt sind.
+     */
+    private void release(Set<UUID> ids) {
+        for (UUID id : ids) {
+            Task task = parked.get(id);
+            if (task != null && ready(task)) {
+                parked.remove(id);
+                admit(task);
             }
-        }, delay, TimeUnit.MILLISECONDS);
-        scheduled.put(task.getId(), f);
+        }
     }
 
-    public void start() {
+    /**
+     * Eine Voraussetzung ist fehlgeschlagen: wartende Abhaengige lassen diesen Lauf aus.
+     */
+    private void skipDependents(UUID id) {
+        for (UUID dependent : graph.dependentsOf(id)) {
+            Task task = parked.remove(dependent);
+            if (task == null) continue;
+            ExecutionLog log = executionLog;
+            if (log != null) {
+                long now = clock.millis();
+                log.append(dependent, guardOf(task).getAction(), task.getExecuteAT().toEpochMilli(), now, 0,
+                        ExecutionLog.Status.SKIPPED);
+            }
+            Instant executeAt = task.nextExecuteAt();
+            if (executeAt != null) {
+                TaskEvents.rescheduled(task, executeAt.toEpochMilli(), "skipped");
+                Task next = task.withExecuteAt(executeAt);
+                put(task, next);
+                scheduleTask(next);
+            } else {
+                delete(List.of(task));
+                skipDependents(dependent);
+                graph.removeTask(dependent);
+            }
+        }
+    }
+
+    private void removeInternal(Task task) {
+        removeAll(List.of(task));
+    }
+
+    /**
+     * Entfernt mehrere Aufgaben; die Liste wird dafuer nur einmal neu aufgebaut.
+     */
+    private void removeAll(Collection<Task> removed) {
+        if (removed.isEmpty()) return;
+        delete(removed);
+        for (Task task : removed) {
+            failures.remove(task.getId());
+            parked.remove(task.getId());
+            replacedWhileRunning.remove(task.getId());
+            wakeupDue.remove(task.getId());
+            Queue<Task> waiting = queueOf(task);
+            if (waiting != null) waiting.remove(task);
+            Execution execution = running.get(task.getId());
+            if (execution != null) execution.cancel();
+            ScheduledFuture<?> future = scheduled.remove(task.getId());
+            if (future != null) future.cancel(false);
+            release(graph.removeTask(task.getId()));
+        }
+    }
+
+    /**
+     * Schreibt den Lauf in die Historie, ohne Objekte anzulegen.
+     */
+    private void record(Execution execution, boolean success) {
+        if (execution.startedAt == 0) return;
+        long duration = clock.nanos() - execution.startNanos;
+        RunListener listener = runListener;
+        if (listener != null) listener.finished(execution.task, execution.startedAt, duration, success);
+        ExecutionLog log = executionLog;
+        if (log == null) return;
+        log.append(execution.task.getId(), execution.guard.getAction(), execution.task.getExecuteAT().toEpochMilli(),
+                execution.startedAt, duration, statusOf(execution, success));
+    }
+
+    private static ExecutionLog.Status statusOf(Execution execution, boolean success) {
+        if (success) return ExecutionLog.Status.SUCCESS;
+        if (execution.cancelled) return ExecutionLog.Status.CANCELLED;
+        if (execution.timedOut) return ExecutionLog.Status.TIMEOUT;
+        return ExecutionLog.Status.FAILED;
+    }
+
+    public DeadLetterQueue getDeadLetters() {
+        return deadLetters;
+    }
+
+    public void setDeadLetters(DeadLetterQueue deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Plant eine Aufgabe aus der Dead-Letter-Queue sofort neu ein. Existiert sie noch
+     * (wiederkehrend), laeuft eine einmalige Kopie.
+     *
+     * @return die eingeplante Aufgabe oder null, wenn die id nicht in der Queue steht
+     */
+    public Task replay(UUID id) {
+        DeadLetterQueue letters = deadLetters;
+        if (letters == null) return null;
+        DeadLetterQueue.DeadLetter letter = letters.remove(id);
+        if (letter == null) return null;
+        Task dead = letter.task();
+        Task task;
         synchronized (this) {
-            for(Task task : tasks) {
+            task = find(id) == null
+                    ? dead.withExecuteAt(Instant.ofEpochMilli(clock.millis()))
+                    : new Task(dead.getName(), dead.getPriority(), Instant.ofEpochMilli(clock.millis()), dead.getAction(), null)
+                            .withRetry(dead.getRetry());
+            addTask(task);
+        }
+        return task;
+    }
+
+    public RunListener getRunListener() {
+        return runListener;
+    }
+
+    public void setRunListener(RunListener runListener) {
+        this.runListener = runListener;
+    }
+
+    /**
+     * Ob nach jedem Lauf {@code tasks.json} geschrieben wird; Simulationen schalten das ab.
+     */
+    public void setAutoSave(boolean autoSave) {
+        this.autoSave = autoSave;
+    }
+
+    public ExecutionLog getExecutionLog() {
+        return executionLog;
+    }
+
+    public void setExecutionLog(ExecutionLog executionLog) {
+        this.executionLog = executionLog;
+    }
+
+    private boolean owns(Task task) {
+        ShardCoordinator c = coordinator;
+        return c == null || c.owns(task.getId());
+    }
+
+    public ShardCoordinator getCoordinator() {
+        return coordinator;
+    }
+
+    public void setCoordinator(ShardCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    public synchronized Set<UUID> runningIds() {
+        return new HashSet<>(running.keySet());
+    }
+
+    /**
+     * @return an den Pool der Klasse uebergebene Aktionen, laufend oder in dessen Warteschlange
+     */
+    public synchronized int activeIn(ResourceClass resource) {
+        return limits.get(resource).getActive();
+    }
+
+    /**
+     * @return faellige Aufgaben, die auf einen Platz im Pool der Klasse warten
+     */
+    public synchronized int waitingFor(ResourceClass resource) {
+        return limits.get(resource).waiting().size();
+    }
+
+    /**
+     * Uebernimmt den gemeinsamen Stand eines Cluster-Abgleichs. {@code base} ist der Stand,
+     * gegen den abgeglichen wurde: was sich seitdem lokal geaendert hat oder gerade laeuft,
+     * bleibt wie es ist. {@code after} ersetzt die Voraussetzungen der genannten Aufgaben.
+     */
+    public synchronized void merge(List<Task> merged, Map<UUID, Task> base, Map<UUID, Set<UUID>> after) {
+        Set<UUID> ids = new HashSet<>();
+        for (Task task : merged) ids.add(task.getId());
+        List<Task> removed = new ArrayList<>();
+        for (Task task : tasks) {
+            if (!ids.contains(task.getId()) && base.get(task.getId()) == task) removed.add(task);
+        }
+        removeAll(removed);
+        for (Task task : merged) {
+            UUID id = task.getId();
+            Task current = find(id);
+            if (current == null) {
+                if (!base.containsKey(id)) append(task);
+            } else if (current != task && current == base.get(id) && !running.containsKey(id)) {
+                replace(current, task);
+            }
+        }
+        for (Map.Entry<UUID, Set<UUID>> entry : after.entrySet()) {
+            UUID dependent = entry.getKey();
+            for (UUID prerequisite : graph.prerequisitesOf(dependent)) {
+                if (!entry.getValue().contains(prerequisite)) graph.remove(prerequisite, dependent);
+            }
+            for (UUID prerequisite : entry.getValue()) {
+                if (ids.contains(prerequisite)) {
+                    try {
+                        graph.add(prerequisite, dependent);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Ignoring dependency: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        rearm();
+    }
+
+    /**
+     * Uebernimmt eine Differenz in einem Schritt: {@code upserts} ersetzen Aufgaben gleicher id
+     * oder kommen hinzu, {@code removals} fallen weg, {@code after} ersetzt die Voraussetzungen der
+     * genannten Aufgaben. Die Liste wird hoechstens einmal neu aufgebaut, sonst kostet jede
+     * Aenderung nur sich selbst. Laufende Aufgaben bleiben unveraendert.
+     *
+     * @return ids, die gerade liefen und deshalb nicht angewendet wurden
+     */
+    public synchronized Set<UUID> apply(Collection<Task> upserts, Collection<UUID> removals,
+                                        Map<UUID, Set<UUID>> after) {
+        Set<UUID> busy = new HashSet<>();
+        List<Task> removed = new ArrayList<>();
+        for (UUID id : removals) {
+            Task task = find(id);
+            if (task == null) continue;
+            if (running.containsKey(id)) busy.add(id);
+            else removed.add(task);
+        }
+        removeAll(removed);
+        for (Task task : upserts) {
+            UUID id = task.getId();
+            Task current = find(id);
+            if (current == null) {
+                append(task);
                 scheduleTask(task);
+            } else if (running.containsKey(id)) {
+                busy.add(id);
+            } else if (current != task) {
+                replace(current, task);
             }
         }
+        for (Map.Entry<UUID, Set<UUID>> entry : after.entrySet()) {
+            UUID dependent = entry.getKey();
+            if (busy.contains(dependent) || find(dependent) == null) continue;
+            for (UUID prerequisite : graph.prerequisitesOf(dependent)) {
+                if (!entry.getValue().contains(prerequisite)) graph.remove(prerequisite, dependent);
+            }
+            for (UUID prerequisite : entry.getValue()) {
+                if (find(prerequisite) == null) continue;
+                try {
+                    graph.add(prerequisite, dependent);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Ignoring dependency: " + e.getMessage());
+                }
+            }
+            release(Set.of(dependent));
+        }
+        return busy;
     }
 
+    /**
+     * Plant Aufgaben neu gewonnener Shards ein und gibt die verlorener Shards ab.
+     */
+    public synchronized void rearm() {
+        for (Task task : tasks) {
+            UUID id = task.getId();
+            if (owns(task)) {
+                if (!scheduled.containsKey(id) && !running.containsKey(id) && !parked.containsKey(id)
+                        && queueOf(task) == null) {
+                    scheduleTask(task);
+                }
+            } else {
+                ScheduledFuture<?> future = scheduled.remove(id);
+                if (future != null) future.cancel(false);
+                wakeupDue.remove(id);
+                parked.remove(id);
+                Queue<Task> waiting = queueOf(task);
+                if (waiting != null) waiting.remove(task);
+            }
+        }
+        release(new HashSet<>(parked.keySet()));
+    }
+
+    /**
+     * @return die aktuelle Aufgabe mit dieser id oder null
+     */
+    public synchronized Task get(UUID id) {
+        return find(id);
+    }
+
+    private Task find(UUID id) {
+        Integer position = positions.get(id);
+        return position == null ? null : tasks.get(position);
+    }
+
+    /*
+     * Die einzigen Stellen, die eine neue Version veroeffentlichen; alle unter der Sperre.
+     */
+
+    private void append(Task task) {
+        if (positions.putIfAbsent(task.getId(), tasks.size()) != null) {
+            throw new IllegalArgumentException("Invalid task: duplicate id " + task.getId());
+        }
+        tasks = tasks.plus(task);
+        index.add(task);
+        use(task.getAction());
+    }
+
+    private void put(Task task, Task newTask) {
+        tasks = tasks.with(positions.get(task.getId()), newTask);
+        index.replace(task, newTask);
+        if (task.getAction() != newTask.getAction()) {
+            use(newTask.getAction());
+            release(task.getAction());
+        }
+    }
+
+    /**
+     * Behaelt die Reihenfolge (z.B. nach "sort"): der Teil vor der ersten Luecke wird geteilt,
+     * nur die Aufgaben dahinter werden neu angehaengt und neu nummeriert.
+     */
+    private void delete(Collection<Task> removed) {
+        Set<Task> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+        int from = tasks.size();
+        for (Task task : removed) {
+            Integer position = positions.get(task.getId());
+            if (position == null || tasks.get(position) != task) continue;
+            gone.add(task);
+            from = Math.min(from, position);
+        }
+        if (gone.isEmpty()) return;
+        TaskVector kept = tasks.truncate(from);
+        for (int i = from; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (gone.contains(task)) {
+                positions.remove(task.getId());
+                index.remove(task);
+                release(task.getAction());
+            } else {
+                positions.put(task.getId(), kept.size());
+                kept = kept.plus(task);
+            }
+        }
+        tasks = kept;
+    }
+
+    private void use(Runnable action) {
+        if (RunnableRegistry.isConfigured(action)) uses.merge(action, 1, Integer::sum);
+    }
+
+    private void release(Runnable action) {
+        if (!RunnableRegistry.isConfigured(action)) return;
+        if (uses.merge(action, -1, Integer::sum) <= 0) {
+            uses.remove(action);
+            RunnableRegistry.release(action);
+        }
+    }
+
+    private void reorder(Comparator<Task> order) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(order);
+        tasks = TaskVector.of(sorted);
+        reindex();
+    }
+
+    private void reindex() {
+        positions.clear();
+        int i = 0;
+        for (Task task : tasks) positions.put(task.getId(), i++);
+    }
+
+    /**
+     * Uebernimmt einen gespeicherten Stand in einen leeren Scheduler: Liste, Positionen und
+     * Suchindex in einem Schritt statt Aufgabe fuer Aufgabe. {@code index} muss genau
+     * {@code restored} enthalten. Geplant wird wie sonst mit {@link #start()}.
+     *
+     * @return Meldungen zu ausgelassenen Kanten
+     */
+    public synchronized List<String> restore(List<Task> restored, Map<UUID, Set<UUID>> after, TaskIndex index) {
+        if (!tasks.isEmpty()) throw new IllegalArgumentException("Invalid restore: scheduler already has tasks");
+        if (index.size() != restored.size()) throw new IllegalArgumentException("Invalid restore: index differs");
+        tasks = TaskVector.of(restored);
+        reindex();
+        if (positions.size() != restored.size()) {
+            tasks = TaskVector.EMPTY;
+            positions.clear();
+            throw new IllegalArgumentException("Invalid restore: duplicate ids");
+        }
+        this.index = index;
+        for (Task task : restored) use(task.getAction());
+        List<String> ignored = new ArrayList<>();
+        for (Map.Entry<UUID, Set<UUID>> entry : after.entrySet()) {
+            for (UUID prerequisite : entry.getValue()) {
+                try {
+                    addDependency(prerequisite, entry.getKey());
+                } catch (IllegalArgumentException e) {
+                    ignored.add("Ignoring dependency: " + e.getMessage());
+                }
+            }
+        }
+        return ignored;
+    }
+
+    /**
+     * Der Suchindex, z.B. fuer einen Checkpoint; er hat seine eigene Sperre.
+     */
+    public TaskIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Plant alle Aufgaben ein: was in der naechsten Sekunde faellig ist zuerst, der Rest in
+     * Bloecken, zwischen denen faellige Aufgaben und Befehle die Sperre bekommen.
+     */
+    public void start() {
+        List<Task> all = snapshot();
+        long soon = clock.millis() + 1_000;
+        synchronized (this) {
+            for (Task task : all) {
+                if (task.getExecuteAT().toEpochMilli() <= soon && find(task.getId()) == task) scheduleTask(task);
+            }
+        }
+        for (int from = 0; from < all.size(); from += START_BATCH) {
+            synchronized (this) {
+                for (Task task : all.subList(from, Math.min(all.size(), from + START_BATCH))) {
+                    // die fruehen sind schon geplant
+                    if (task.getExecuteAT().toEpochMilli() > soon && find(task.getId()) == task) scheduleTask(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stoppt den Timer sofort; ausstehende Zeitpunkte liegen in tasks.json und werden beim
+     * naechsten Start neu geplant. Laufende Aktionen duerfen noch zu Ende laufen.
+     */
     public void shutdown() {
-        executor.shutdown();
+        clock.shutdown();
     }
 
     public void changeName(UUID id, String newName) {
-        ScheduledFuture<?> future;
-        Task newTask;
-        for (Task task : snapshot()) {
-            if (task.getId().equals(id)) {
-                newTask = task.withName(newName);
-                tasks.remove(task);
-                future = scheduled.remove(id);
-                if (future != null) future.cancel(false);
-                addTask(newTask);
-                break;
-            }
+        synchronized (this) {
+            Task task = find(id);
+            if (task != null) replace(task, task.withName(newName));
         }
     }
 
     public void changePriority(UUID id, byte newPriority) {
-        ScheduledFuture<?> future;
-        Task newTask;
-        for (Task task : snapshot()) {
-            if (task.getId().equals(id)) {
-                newTask = task.withPriority(newPriority);
-                tasks.remove(task);
-                future = scheduled.remove(id);
-                if (future != null) future.cancel(false);
-                addTask(newTask);
-                break;
+        synchronized (this) {
+            Task task = find(id);
+            if (task != null) replace(task, task.withPriority(newPriority));
+        }
+    }
+
+    public void changeTag(UUID id, String newTag) {
+        synchronized (this) {
+            Task task = find(id);
+            if (task != null) replace(task, task.withTag(newTag));
+        }
+    }
+
+    private void replace(Task task, Task newTask) {
+        put(task, newTask);
+        if (running.containsKey(task.getId())) {
+            replacedWhileRunning.put(task.getId(), newTask);
+            return;
+        }
+        Queue<Task> waiting = queueOf(task);
+        if (waiting != null) {
+            waiting.remove(task);
+            // neuer Tag: Quote und Anteil des neuen Tags gelten
+            if (task.getTag().equals(newTask.getTag())) waiting.add(newTask);
+            else admit(newTask);
+            return;
+        }
+        if (parked.containsKey(task.getId())) {
+            parked.put(task.getId(), newTask);
+            return;
+        }
+        ScheduledFuture<?> future = scheduled.remove(task.getId());
+        if (future != null) {
+            future.cancel(false);
+            wakeupDue.remove(task.getId());
+            scheduleTask(newTask);
+        }
+    }
+    /**
+     * Eine laufende Aktion. Timeout und Abbruch unterbrechen den Worker-Thread nur,
+     * solange er noch an dieser Aktion arbeitet.
+     */
+    private static class Execution {
+
+        private final Task task;
+
+        private final ActionGuard guard;
+
+        // Faelligkeit dieses Laufs, fuer JFR
+        private final long due;
+
+        private ScheduledFuture<?> watchdog;
+
+        private Thread thread;
+
+        private volatile boolean timedOut;
+
+        private volatile boolean cancelled;
+
+        private long startedAt;
+
+        private long startNanos;
+
+        private Execution(Task task, ActionGuard guard, long due) {
+            this.task = task;
+            this.guard = guard;
+            this.due = due;
+        }
+
+        private synchronized boolean start(SchedulerClock clock) {
+            if (timedOut || cancelled) return false;
+            thread = Thread.currentThread();
+            startedAt = clock.millis();
+            startNanos = clock.nanos();
+            return true;
+        }
+
+        private void finish() {
+            synchronized (this) {
+                thread = null;
             }
+            Thread.interrupted();
+        }
+
+        private synchronized void timeout() {
+            timedOut = true;
+            if (thread != null) thread.interrupt();
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (thread != null) thread.interrupt();
         }
     }
 //     public void changeExecuteAt(UUID id, String addTime) {
@@ -0,0 +1,46 @@
+package core;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Zeit, Timer und Worker des {@link Scheduler}. Im Betrieb {@link SystemClock}; fuer
+ * Simulationen und Lasttests {@link VirtualClock}, die ohne Warten durch die Zeit laeuft.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public interface SchedulerClock {
+
+    /**
+     * @return aktuelle Zeit in Epoch-Millisekunden
+     */
+    long millis();
+
+    /**
+     * @return monotone Zeit fuer Dauern
+     */
+    long nanos();
+
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis);
+
+    /**
+     * Fuehrt eine Aktion auf einem Worker aus, nie auf dem aufrufenden Thread.
+     */
+    void execute(Runnable work);
+
+    /**
+     * Fuehrt eine Aktion im Pool ihrer Ressourcenklasse aus; ohne eigene Pools wie {@link #execute(Runnable)}.
+     */
+    default void execute(ResourceClass resource, Runnable work) {
+        execute(work);
+    }
+
+    /**
+     * @return wie viele Aktionen der Klasse gleichzeitig uebergeben werden sollen, laufend plus wartend
+     */
+    default int capacity(ResourceClass resource) {
+        return Integer.MAX_VALUE;
+    }
+
+    void shutdown();
+}
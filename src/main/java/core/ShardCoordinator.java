@@ -0,0 +1,357 @@
+package core;
+
+import storage.Data;
+import storage.LeaseStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verteilt Aufgaben mehrerer Scheduler-Prozesse ueber Shards.
+ * <p>
+ * Eine Aufgabe gehoert ueber den Hash ihrer id zu einem Shard; jeder Shard wird per
+ * Rendezvous-Hashing einem lebenden Knoten zugeteilt, der ihn als Lease in der
+ * {@link LeaseStore} haelt. Nur der Besitzer feuert die Aufgabe. Kommt ein Knoten dazu
+ * oder faellt sein Heartbeat aus, wandern die Shards beim naechsten {@link #sync()}.
+ * <p>
+ * Die Aufgaben liegen gemeinsam in {@code tasks.json} des Cluster-Verzeichnisses.
+ * {@link #sync()} fuehrt Datei und Speicher zusammen: Ergebnisse eigener Laeufe
+ * werden nur mit gueltigem Fencing-Token geschrieben, ein Knoten mit abgelaufener
+ * Lease kann also keinen neueren Stand ueberschreiben. Laeufe und Befehle melden ihre
+ * Aenderungen mit {@link #requestSync()}; was binnen {@link #FLUSH_DELAY_MILLIS} zusammenkommt,
+ * schreibt ein einziger Abgleich auf dem Heartbeat-Thread.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ShardCoordinator {
+
+    public static final int DEFAULT_SHARDS = 64;
+
+    public static final long FLUSH_DELAY_MILLIS = 100;
+
+    private final Scheduler scheduler;
+
+    private final SchedulerClock clock;
+
+    private final LeaseStore store;
+
+    private final String nodeId;
+
+    private final long leaseMillis;
+
+    private final Path tasksFile;
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "shard-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // pro Shard: gueltig bis (0 = nicht unser) und Fencing-Token; wird bei jedem sync neu veroeffentlicht
+    private volatile long[] leaseUntil;
+
+    private long[] tokens;
+
+    // Stand nach dem letzten sync, um lokale und fremde Aenderungen zu unterscheiden
+    private Map<UUID, Task> synced = new HashMap<>();
+
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+
+    private volatile boolean leaving;
+
+    private boolean left;
+
+    public ShardCoordinator(Scheduler scheduler, Path directory, String nodeId, Duration lease) {
+        this(scheduler, new LeaseStore(directory, DEFAULT_SHARDS), nodeId, lease);
+    }
+
+    public ShardCoordinator(Scheduler scheduler, LeaseStore store, String nodeId, Duration lease) {
+        if (nodeId == null || nodeId.isBlank() || nodeId.contains(" ") || nodeId.equals("-")) {
+            throw new IllegalArgumentException("Invalid node id: " + nodeId);
+        }
+        if (lease.toMillis() < 300) throw new IllegalArgumentException("Invalid lease: " + lease);
+        this.scheduler = scheduler;
+        this.clock = scheduler.getClock();
+        this.store = store;
+        this.nodeId = nodeId;
+        this.leaseMillis = lease.toMillis();
+        this.tasksFile = store.getDirectory().resolve(Data.TASKS_FILE);
+        this.leaseUntil = new long[store.getShards()];
+        this.tokens = new long[store.getShards()];
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int shardOf(UUID id) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        return (int) Math.floorMod(mix(h), (long) store.getShards());
+    }
+
+    /**
+     * Lock-frei, damit der Scheduler unter seinem eigenen Lock fragen kann.
+     */
+    public boolean owns(UUID id) {
+        return leaseUntil[shardOf(id)] > clock.millis();
+    }
+
+    public int ownedShards() {
+        long now = clock.millis();
+        int count = 0;
+        for (long until : leaseUntil) {
+            if (until > now) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Tritt dem Cluster bei, uebernimmt den gemeinsamen Stand und erneuert die Leases
+     * alle {@code lease / 3}.
+     */
+    public void start() {
+        scheduler.setCoordinator(this);
+        sync();
+        long period = leaseMillis / 3;
+        heartbeat.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                System.out.println("Cluster sync failed: " + e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Feuert nichts mehr, wartet laufende Aktionen ab, schreibt den letzten Stand, gibt alle
+     * Shards frei und meldet den Knoten ab, damit die anderen sofort statt erst nach Ablauf
+     * der Lease uebernehmen.
+     */
+    public void stop() {
+        leaving = true;
+        // nicht unterbrechen: ein laufender Abgleich schreibt sonst halb und verliert den Dateilock
+        heartbeat.shutdown();
+        try {
+            heartbeat.awaitTermination(leaseMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        leaseUntil = new long[store.getShards()];
+        scheduler.rearm();
+        long deadline = clock.millis() + leaseMillis;
+        while (!scheduler.runningIds().isEmpty() && clock.millis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        sync(true);
+    }
+
+    /**
+     * Merkt einen Abgleich vor, statt fuer jeden Lauf Datei und Lock einzeln anzufassen;
+     * kehrt sofort zurueck.
+     */
+    public void requestSync() {
+        if (leaving || !flushPending.compareAndSet(false, true)) return;
+        try {
+            heartbeat.schedule(() -> {
+                flushPending.set(false);
+                try {
+                    sync();
+                } catch (RuntimeException e) {
+                    System.out.println("Cluster sync failed: " + e);
+                }
+            }, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // gestoppt: stop() schreibt den letzten Stand selbst
+            flushPending.set(false);
+        }
+    }
+
+    /**
+     * Heartbeat, Neuverteilung der Shards und Abgleich der Aufgaben in einem Schritt unter dem Dateilock.
+     */
+    public void sync() {
+        sync(false);
+    }
+
+    /**
+     * @param leave Shards freigeben und abmelden; nur aus {@link #stop()}
+     */
+    private synchronized void sync(boolean leave) {
+        if (left || (leaving && !leave)) return;
+        flushPending.set(false);
+        Set<UUID> busy = new HashSet<>();
+        for (UUID id : scheduler.runningIds()) busy.add(id);
+        Merge merge = store.update(leases -> {
+            long now = clock.millis();
+            long until = now + leaseMillis;
+            // vor der Neuverteilung: fuer welche Shards duerfen wir noch schreiben?
+            boolean[] fenced = new boolean[tokens.length];
+            for (int shard = 0; shard < tokens.length; shard++) {
+                fenced[shard] = nodeId.equals(leases.owner(shard)) && leases.token(shard) == tokens[shard]
+                        && leases.expiry(shard) > now;
+            }
+            Merge result = merge(fenced);
+            write(result);
+
+            if (leave) {
+                for (int shard = 0; shard < tokens.length; shard++) {
+                    if (nodeId.equals(leases.owner(shard))) leases.release(shard);
+                }
+                leases.nodes().remove(nodeId);
+                left = true;
+                return result;
+            }
+            leases.nodes().put(nodeId, until);
+            leases.nodes().values().removeIf(expiry -> expiry <= now);
+            List<String> live = new ArrayList<>(leases.nodes().keySet());
+            Set<Integer> busyShards = new HashSet<>();
+            for (UUID id : busy) busyShards.add(shardOf(id));
+
+            long[] nextUntil = new long[tokens.length];
+            for (int shard = 0; shard < tokens.length; shard++) {
+                String owner = leases.owner(shard);
+                boolean mine = nodeId.equals(owner);
+                boolean desired = nodeId.equals(ownerOf(shard, live));
+                if (mine && (desired || busyShards.contains(shard))) {
+                    // laufende Aktionen erst zu Ende bringen, sonst feuert der neue Besitzer doppelt
+                    tokens[shard] = leases.grant(shard, nodeId, until);
+                    nextUntil[shard] = until;
+                } else if (mine) {
+                    leases.release(shard);
+                } else if (desired && (owner == null || leases.expiry(shard) <= now)) {
+                    tokens[shard] = leases.grant(shard, nodeId, until);
+                    nextUntil[shard] = until;
+                }
+            }
+            leaseUntil = nextUntil;
+            return result;
+        });
+        scheduler.merge(merge.tasks, merge.base, merge.after);
+        Map<UUID, Task> next = new HashMap<>();
+        for (Task task : merge.tasks) next.put(task.getId(), task);
+        synced = next;
+    }
+
+    /**
+     * Entscheidet pro Aufgabe zwischen Datei und Speicher.
+     */
+    private Merge merge(boolean[] fenced) {
+        Map<UUID, Set<UUID>> diskAfter = new HashMap<>();
+        Map<UUID, Task> disk = new LinkedHashMap<>();
+        for (Task task : Data.readTasks(tasksFile.toString(), diskAfter)) disk.put(task.getId(), task);
+        Merge result = new Merge();
+        Map<UUID, Task> memory = result.base;
+        for (Task task : scheduler.snapshot()) memory.put(task.getId(), task);
+
+        for (Task task : disk.values()) {
+            UUID id = task.getId();
+            Task local = memory.get(id);
+            Task last = synced.get(id);
+            if (local == null && last != null) continue; // lokal geloescht
+            if (local != null && local != last && mayWrite(local, last, fenced)) {
+                result.add(local, scheduler.prerequisitesOf(id));
+            } else {
+                result.add(local != null && local.sameAs(task) ? local : task, diskAfter.get(id));
+                result.after.put(id, diskAfter.getOrDefault(id, Set.of()));
+            }
+        }
+        for (Task task : memory.values()) {
+            UUID id = task.getId();
+            // neu hier angelegt; was schon einmal synchronisiert war und jetzt fehlt, hat ein anderer Knoten geloescht
+            if (!disk.containsKey(id) && !synced.containsKey(id)) {
+                result.add(task, scheduler.prerequisitesOf(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lokale Aenderungen gewinnen. Ein neuer Ausfuehrungszeitpunkt stammt aber aus einem Lauf
+     * und zaehlt nur mit gueltigem Fencing-Token.
+     */
+    private boolean mayWrite(Task local, Task last, boolean[] fenced) {
+        if (last != null && local.getExecuteAT().equals(last.getExecuteAT())) return true;
+        return fenced[shardOf(local.getId())];
+    }
+
+    private void write(Merge merge) {
+        try {
+            Path tmp = tasksFile.resolveSibling(Data.TASKS_FILE + ".tmp");
+            Data.writeTasks(tmp.toString(), merge.tasks, id -> {
+                Set<UUID> after = merge.edges.get(id);
+                if (after == null) return null;
+                Set<UUID> known = new HashSet<>(after);
+                known.retainAll(merge.ids);
+                return known;
+            });
+            Files.move(tmp, tasksFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String ownerOf(int shard, List<String> nodes) {
+        String best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (String node : nodes) {
+            long score = mix(node.hashCode() * 0x9E3779B97F4A7C15L + shard);
+            if (best == null || score > bestScore) {
+                best = node;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Ergebnis eines Abgleichs. {@code base} ist der Speicherstand, gegen den abgeglichen wurde;
+     * {@code after} enthaelt nur die Kanten der Aufgaben, deren Stand aus der Datei kommt.
+     */
+    private static class Merge {
+
+        private final Map<UUID, Task> base = new LinkedHashMap<>();
+
+        private final List<Task> tasks = new ArrayList<>();
+
+        private final Set<UUID> ids = new HashSet<>();
+
+        private final Map<UUID, Set<UUID>> edges = new HashMap<>();
+
+        private final Map<UUID, Set<UUID>> after = new HashMap<>();
+
+        private void add(Task task, Set<UUID> prerequisites) {
+            tasks.add(task);
+            ids.add(task.getId());
+            if (prerequisites != null && !prerequisites.isEmpty()) edges.put(task.getId(), prerequisites);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package core;
+
+import core.runnable.ProcessAction;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Echte Zeit: ein Timer-Thread und ein eigener Pool je {@link ResourceClass}.
+ * <p>
+ * CPU hat so viele Threads wie Kerne, IO einen festen Pool von Plattform-Threads, NETWORK
+ * und PROCESS einen virtuellen Thread je Aufruf; PROCESS nimmt so viele an, wie
+ * {@link ProcessAction#MAX_PROCESSES} Kindprozesse erlaubt. CPU und IO nehmen zusaetzlich so viele wartende Aktionen
+ * an, wie sie Threads haben, damit kein Thread auf den Scheduler warten muss; alles darueber
+ * haelt der Scheduler zurueck ({@link #capacity}). Die Groessen lassen sich mit
+ * {@code -Dtasks.pools=<cpu>,<io>,<network>} setzen.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class SystemClock implements SchedulerClock {
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+
+    private final Map<ResourceClass, ExecutorService> pools = new EnumMap<>(ResourceClass.class);
+
+    private final Map<ResourceClass, Integer> capacities = new EnumMap<>(ResourceClass.class);
+
+    public SystemClock() {
+        this(sizes());
+    }
+
+    /**
+     * @param sizes Threads fuer CPU und IO, gleichzeitige Aufrufe fuer NETWORK
+     */
+    public SystemClock(int... sizes) {
+        if (sizes.length != 3 || sizes[0] < 1 || sizes[1] < 1 || sizes[2] < 1) {
+            throw new IllegalArgumentException("Invalid pool sizes");
+        }
+        // abgebrochene Timer (Watchdogs, verschobene Aufgaben) sonst erst zu ihrem Zeitpunkt entfernt,
+        // und der Timer-Thread wacht dafuer umsonst auf
+        executor.setRemoveOnCancelPolicy(true);
+        pools.put(ResourceClass.CPU, Executors.newFixedThreadPool(sizes[0], Thread.ofPlatform().name("cpu-", 1).factory()));
+        pools.put(ResourceClass.IO, Executors.newFixedThreadPool(sizes[1], Thread.ofPlatform().name("io-", 1).factory()));
+        pools.put(ResourceClass.NETWORK, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("network-", 1).factory()));
+        pools.put(ResourceClass.PROCESS, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("process-", 1).factory()));
+        capacities.put(ResourceClass.CPU, sizes[0] * 2);
+        capacities.put(ResourceClass.IO, sizes[1] * 2);
+        capacities.put(ResourceClass.NETWORK, sizes[2]);
+        capacities.put(ResourceClass.PROCESS, ProcessAction.MAX_PROCESSES);
+    }
+
+    private static int[] sizes() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        String configured = System.getProperty("tasks.pools");
+        if (configured == null) return new int[]{cores, Math.max(4, cores), 256};
+        String[] parts = configured.split(",");
+        if (parts.length != 3) throw new IllegalArgumentException("Invalid pool sizes: " + configured);
+        int[] sizes = new int[3];
+        for (int i = 0; i < 3; i++) sizes[i] = Integer.parseInt(parts[i].trim());
+        return sizes;
+    }
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanos() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Arbeit ohne Klasse landet im IO-Pool.
+     */
+    @Override
+    public void execute(Runnable work) {
+        execute(ResourceClass.IO, work);
+    }
+
+    @Override
+    public void execute(ResourceClass resource, Runnable work) {
+        pools.get(resource).execute(work);
+    }
+
+    @Override
+    public int capacity(ResourceClass resource) {
+        return capacities.get(resource);
+    }
+
+    /**
+     * Stoppt den Timer sofort, laufende Aktionen duerfen noch zu Ende laufen.
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+        for (ExecutorService pool : pools.values()) pool.shutdown();
+    }
+}
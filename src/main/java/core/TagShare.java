@@ -0,0 +1,126 @@
+package core;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Anteil eines Tags: Gewicht in den Warteschlangen der Pools und Bulkheads ({@link FairQueue})
+ * und optional eine Quote, wie viele Laeufe der Tag starten darf ({@link TokenBucket}).
+ * Faellige Aufgaben ueber der Quote warten hier in FIFO-Reihenfolge, bis wieder Marken frei
+ * sind; dafuer laeuft hoechstens ein Timer je Tag. Nur unter der Sperre des {@link Scheduler} benutzt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class TagShare {
+
+    private final int weight;
+
+    private final TokenBucket quota;
+
+    private final Queue<Task> throttled = new ArrayDeque<>();
+
+    private ScheduledFuture<?> timer;
+
+    /**
+     * @param quota {@code null}: keine Quote
+     */
+    public TagShare(int weight, TokenBucket quota) {
+        if (weight < 1 || weight > 1000) throw new IllegalArgumentException("Invalid weight: " + weight);
+        this.weight = weight;
+        this.quota = quota;
+    }
+
+    /**
+     * "4" oder "1:100/1min": Gewicht, optional hoechstens 100 Starts je Minute (auch als Stoss).
+     */
+    public static TagShare parse(String value) {
+        String[] parts = value.trim().split(":");
+        try {
+            int weight = Integer.parseInt(parts[0].trim());
+            if (parts.length == 1) return new TagShare(weight, null);
+            String[] rate = parts.length == 2 ? parts[1].split("/") : new String[0];
+            if (rate.length != 2) throw new IllegalArgumentException("Invalid quota: " + value);
+            long count = Long.parseLong(rate[0].trim());
+            Duration per = duration(rate[1].trim());
+            if (count < 1 || per.isZero() || per.dividedBy(count).isZero()) {
+                throw new IllegalArgumentException("Invalid quota: " + value);
+            }
+            return new TagShare(weight, new TokenBucket(count, per.dividedBy(count)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid tag share: " + value);
+        }
+    }
+
+    /**
+     * "bulk=1:100/1min,ops=4" wie in {@code -Dtasks.tags}.
+     */
+    public static Map<String, TagShare> parseAll(String value) {
+        Map<String, TagShare> shares = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) continue;
+            int equals = entry.indexOf('=');
+            if (equals <= 0) throw new IllegalArgumentException("Invalid tag share: " + entry.trim());
+            shares.put(entry.substring(0, equals).trim(), parse(entry.substring(equals + 1)));
+        }
+        return shares;
+    }
+
+    private static Duration duration(String value) {
+        String unit = value.replaceAll("\\d", "");
+        long amount = Long.parseLong(value.substring(0, value.length() - unit.length()));
+        return switch (unit) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "s", "sec" -> Duration.ofSeconds(amount);
+            case "min" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            case "d" -> Duration.ofDays(amount);
+            default -> throw new IllegalArgumentException("Invalid quota period: " + value);
+        };
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return die Quote oder null
+     */
+    public TokenBucket getQuota() {
+        return quota;
+    }
+
+    /**
+     * @param now {@link SchedulerClock#nanos()}
+     * @return true, wenn der Tag jetzt einen Lauf starten darf; verbraucht dann eine Marke
+     */
+    public boolean tryStart(long now) {
+        return quota == null || quota.tryAcquire(now);
+    }
+
+    /**
+     * Faellige Aufgaben, die auf eine Marke warten.
+     */
+    public Queue<Task> throttled() {
+        return throttled;
+    }
+
+    ScheduledFuture<?> getTimer() {
+        return timer;
+    }
+
+    void setTimer(ScheduledFuture<?> timer) {
+        this.timer = timer;
+    }
+
+    @Override
+    public String toString() {
+        if (quota == null) return String.valueOf(weight);
+        Duration per = quota.getRefillEvery().multipliedBy(quota.getCapacity());
+        return weight + ":" + quota.getCapacity() + "/" + per.toMillis() + "ms";
+    }
+}
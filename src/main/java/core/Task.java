@@ -2,7 +2,9 @@ package core;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 /**
  * @author Monke Vladyslav
@@ -10,6 +12,13 @@ import java.util.UUID;
  */
 public class Task {
 
+    // Aufgaben ohne --tag; bekommt wie jeder Tag ohne Eintrag in -Dtasks.tags das Gewicht 1
+    public static final String DEFAULT_TAG = "default";
+
+    private static final Pattern TAG = Pattern.compile("[A-Za-z0-9._-]{1,32}");
+
+    private static volatile IdGenerator idGenerator = IdGenerator.uuidV7();
+
     private final UUID id;
 
     private final String name;
@@ -22,18 +31,48 @@ public class Task {
 
     private final Duration repeatInterval;
 
+    private final RecurrenceRule recurrence;
+
+    private final RetryPolicy retry;
+
+    private final String tag;
+
     public Task(String name, byte priority, Instant executeAT, Runnable action, Duration repeatInterval) {
         if ((name != null) && (priority >=1 && priority <= 5) && executeAT != null) {
-            this.id = UUID.randomUUID();
+            this.id = idGenerator.next();
             this.name = name;
             this.priority = priority;
             this.executeAt = executeAT;
             this.action = action;
             this.repeatInterval = repeatInterval;
+            this.recurrence = null;
+            this.retry = null;
+            this.tag = DEFAULT_TAG;
         } else throw new IllegalArgumentException("Invalid arguments for task");
     }
 
     public Task(UUID id, String name, byte priority, Instant executeAT, Runnable action, Duration repeatInterval) {
+        this(id, name, priority, executeAT, action, repeatInterval, null);
+    }
+
+    public Task(UUID id, String name, byte priority, Instant executeAT, Runnable action, Duration repeatInterval,
+                RecurrenceRule recurrence) {
+        this(id, name, priority, executeAT, action, repeatInterval, recurrence, null);
+    }
+
+    public Task(UUID id, String name, byte priority, Instant executeAT, Runnable action, Duration repeatInterval,
+                RecurrenceRule recurrence, RetryPolicy retry) {
+        this(id, name, priority, executeAT, action, repeatInterval, recurrence, retry, DEFAULT_TAG);
+    }
+
+    /**
+     * @param tag Besitzer oder Herkunft, z.B. ein Skript; der Scheduler teilt Pools fair zwischen Tags auf
+     */
+    public Task(UUID id, String name, byte priority, Instant executeAT, Runnable action, Duration repeatInterval,
+                RecurrenceRule recurrence, RetryPolicy retry, String tag) {
+        if (tag == null || !(tag.equals(DEFAULT_TAG) || TAG.matcher(tag).matches())) {
+            throw new IllegalArgumentException("Invalid tag: " + tag);
+        }
         if ((name != null) && (priority >=1 && priority <= 5) && (executeAT != null) && id != null) {
             this.id = id;
             this.name = name;
@@ -41,27 +80,72 @@ public class Task {
             this.executeAt = executeAT;
             this.action = action;
             this.repeatInterval = repeatInterval;
+            this.recurrence = recurrence;
+            this.retry = retry;
+            this.tag = tag;
         } else throw new IllegalArgumentException("Invalid arguments for task");
     }
 
+    public static void setIdGenerator(IdGenerator generator) {
+        if (generator != null)
+            idGenerator = generator;
+        else throw new IllegalArgumentException("Invalid id generator");
+    }
+
     public Task withName(String name) {
         if (name != null)
-            return new Task(id, name, priority, executeAt, action, repeatInterval);
+            return new Task(id, name, priority, executeAt, action, repeatInterval, recurrence, retry, tag);
         else throw new IllegalArgumentException("Invalid name");
     }
 
     public Task withPriority(byte priority) {
         if (priority >= 1 && priority <=5)
-            return new Task(id, name, priority, executeAt, action, repeatInterval);
+            return new Task(id, name, priority, executeAt, action, repeatInterval, recurrence, retry, tag);
         else throw new IllegalArgumentException("Invalid priority");
     }
 
     public Task withExecuteAt(Instant executeAt) {
         if (executeAt != null)
-            return new Task(id, name, priority, executeAt, action, repeatInterval);
+            return new Task(id, name, priority, executeAt, action, repeatInterval, recurrence, retry, tag);
         else throw new IllegalArgumentException("Invalid execution time");
     }
 
+    public Task withRecurrence(RecurrenceRule recurrence) {
+        return new Task(id, name, priority, executeAt, action, repeatInterval, recurrence, retry, tag);
+    }
+
+    public Task withRetry(RetryPolicy retry) {
+        return new Task(id, name, priority, executeAt, action, repeatInterval, recurrence, retry, tag);
+    }
+
+    public Task withTag(String tag) {
+        return new Task(id, name, priority, executeAt, action, repeatInterval, recurrence, retry, tag);
+    }
+
+    /**
+     * @return der naechste Ausfuehrungszeitpunkt nach {@code executeAt} oder null, wenn die Aufgabe nicht wiederholt wird
+     */
+    public Instant nextExecuteAt() {
+        if (recurrence != null) return recurrence.nextAfter(executeAt);
+        if (repeatInterval != null) return executeAt.plus(repeatInterval);
+        return null;
+    }
+
+    /**
+     * Gleicher Inhalt, die id zaehlt nicht. Aktionen werden per Identitaet verglichen; die
+     * Registry liefert je Name dieselbe Instanz.
+     */
+    public boolean sameAs(Task other) {
+        return name.equals(other.name) && priority == other.priority && executeAt.equals(other.executeAt)
+                && action == other.action && Objects.equals(repeatInterval, other.repeatInterval)
+                && Objects.equals(expression(), other.expression())
+                && Objects.equals(String.valueOf(retry), String.valueOf(other.retry)) && tag.equals(other.tag);
+    }
+
+    private String expression() {
+        return recurrence == null ? null : recurrence.getExpression() + " " + recurrence.getZone();
+    }
+
     public String getName() {
         return name;
     }
@@ -85,4 +169,19 @@ public class Task {
     public Duration getRepeatInterval() {
         return repeatInterval;
     }
+
+    public RecurrenceRule getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * @return die Wiederholungsregel bei Fehlschlag oder null, dann landet ein Fehlschlag sofort in der Dead-Letter-Queue
+     */
+    public RetryPolicy getRetry() {
+        return retry;
+    }
+
+    public String getTag() {
+        return tag;
+    }
 }
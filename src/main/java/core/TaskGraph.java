@@ -0,0 +1,102 @@
+package core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Abhaengigkeiten zwischen Aufgaben als gerichteter azyklischer Graph.
+ * Nicht threadsicher; der {@link Scheduler} greift nur unter seiner Sperre darauf zu.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class TaskGraph {
+
+    private final Map<UUID, Set<UUID>> prerequisites = new HashMap<>();
+
+    private final Map<UUID, Set<UUID>> dependents = new HashMap<>();
+
+    /**
+     * @throws IllegalArgumentException wenn die Kante einen Zyklus schliessen wuerde
+     */
+    public void add(UUID prerequisite, UUID dependent) {
+        if (prerequisite.equals(dependent) || reaches(prerequisite, dependent)) {
+            throw new IllegalArgumentException("Dependency " + prerequisite + " -> " + dependent + " would create a cycle");
+        }
+        prerequisites.computeIfAbsent(dependent, k -> new LinkedHashSet<>()).add(prerequisite);
+        dependents.computeIfAbsent(prerequisite, k -> new LinkedHashSet<>()).add(dependent);
+    }
+
+    public boolean remove(UUID prerequisite, UUID dependent) {
+        Set<UUID> before = prerequisites.get(dependent);
+        if (before == null || !before.remove(prerequisite)) return false;
+        if (before.isEmpty()) prerequisites.remove(dependent);
+        Set<UUID> after = dependents.get(prerequisite);
+        after.remove(dependent);
+        if (after.isEmpty()) dependents.remove(prerequisite);
+        return true;
+    }
+
+    /**
+     * Entfernt alle Kanten der Aufgabe.
+     *
+     * @return die Aufgaben, die von ihr abhingen
+     */
+    public Set<UUID> removeTask(UUID id) {
+        for (UUID prerequisite : prerequisitesOf(id)) remove(prerequisite, id);
+        Set<UUID> released = dependentsOf(id);
+        for (UUID dependent : released) remove(id, dependent);
+        return released;
+    }
+
+    public Set<UUID> prerequisitesOf(UUID id) {
+        Set<UUID> set = prerequisites.get(id);
+        return set == null ? Set.of() : Collections.unmodifiableSet(new LinkedHashSet<>(set));
+    }
+
+    public Set<UUID> dependentsOf(UUID id) {
+        Set<UUID> set = dependents.get(id);
+        return set == null ? Set.of() : Collections.unmodifiableSet(new LinkedHashSet<>(set));
+    }
+
+    public boolean hasPrerequisites(UUID id) {
+        return prerequisites.containsKey(id);
+    }
+
+    /**
+     * @return alle Kanten als Paare {prerequisite, dependent}
+     */
+    public List<UUID[]> edges() {
+        List<UUID[]> edges = new ArrayList<>();
+        for (Map.Entry<UUID, Set<UUID>> entry : prerequisites.entrySet()) {
+            for (UUID prerequisite : entry.getValue()) edges.add(new UUID[]{prerequisite, entry.getKey()});
+        }
+        return edges;
+    }
+
+    /**
+     * Tiefensuche ueber die Voraussetzungen: haengt {@code from} (transitiv) von {@code target} ab?
+     */
+    private boolean reaches(UUID from, UUID target) {
+        Deque<UUID> stack = new ArrayDeque<>();
+        Set<UUID> seen = new HashSet<>();
+        stack.push(from);
+        while (!stack.isEmpty()) {
+            UUID current = stack.pop();
+            if (current.equals(target)) return true;
+            if (!seen.add(current)) continue;
+            Set<UUID> next = prerequisites.get(current);
+            if (next != null) next.forEach(stack::push);
+        }
+        return false;
+    }
+}
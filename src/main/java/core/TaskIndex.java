@@ -0,0 +1,274 @@
+package core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Suchindex ueber die Namen der Aufgaben, gross/klein egal.
+ * <p>
+ * Zwei Strukturen: eine sortierte Map der Namen fuer Praefixe und exakte Namen und ein
+ * invertierter Index ueber alle Trigramme (drei aufeinanderfolgende Zeichen) fuer Teilstrings.
+ * Eine Suche liest nur die kuerzeste Trefferliste der Trigramme des Suchtexts und prueft deren
+ * Kandidaten direkt. Jede Aufgabe belegt einen Platz; beim Entfernen oder Umbenennen wird er
+ * nur als frei markiert und bleibt in den Trigrammlisten stehen, bis mehr freie als belegte
+ * Plaetze existieren und der Index neu aufgebaut wird.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class TaskIndex {
+
+    // unter so vielen freien Plaetzen lohnt kein Neuaufbau
+    private static final int COMPACT_MIN = 1024;
+
+    private Task[] tasks = new Task[16];
+
+    // Namen klein geschrieben, parallel zu tasks
+    private String[] names = new String[16];
+
+    // Stelle des Platzes in seiner Liste in byName, parallel zu tasks; Entfernen ohne Suche
+    private int[] nameAt = new int[16];
+
+    private int slots;
+
+    private int dead;
+
+    private final Map<UUID, Integer> slotOf;
+
+    private final TreeMap<String, IntList> byName = new TreeMap<>();
+
+    private final Map<Long, IntList> grams = new HashMap<>();
+
+    public TaskIndex() {
+        slotOf = new HashMap<>();
+    }
+
+    private TaskIndex(int expected) {
+        slotOf = HashMap.newHashMap(expected);
+    }
+
+    public synchronized int size() {
+        return slotOf.size();
+    }
+
+    public synchronized void add(Task task) {
+        if (slotOf.containsKey(task.getId())) {
+            throw new IllegalArgumentException("Invalid task: already indexed " + task.getId());
+        }
+        insert(task);
+    }
+
+    public synchronized void remove(Task task) {
+        Integer slot = slotOf.remove(task.getId());
+        if (slot == null) return;
+        IntList sameName = byName.get(names[slot]);
+        int at = nameAt[slot];
+        int moved = sameName.values[--sameName.size];
+        sameName.values[at] = moved;
+        nameAt[moved] = at;
+        if (sameName.size == 0) byName.remove(names[slot]);
+        tasks[slot] = null;
+        names[slot] = null;
+        dead++;
+        if (dead > COMPACT_MIN && dead > slotOf.size()) compact();
+    }
+
+    /**
+     * Neue Version derselben Aufgabe; nur ein geaenderter Name kostet einen neuen Platz.
+     */
+    public synchronized void replace(Task task, Task newTask) {
+        Integer slot = slotOf.get(task.getId());
+        if (slot != null && task.getName().equals(newTask.getName())) {
+            tasks[slot] = newTask;
+            return;
+        }
+        remove(task);
+        insert(newTask);
+    }
+
+    /**
+     * Hoechstens {@code limit} Aufgaben, deren Name {@code text} enthaelt. Suchtexte unter drei
+     * Zeichen passen nur auf den Anfang des Namens.
+     */
+    public synchronized List<Task> search(String text, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Task> found = new ArrayList<>();
+        if (query.length() < 3) {
+            for (IntList slots : byName.subMap(query, query + Character.MAX_VALUE).values()) {
+                for (int i = 0; i < slots.size && found.size() < limit; i++) found.add(tasks[slots.values[i]]);
+                if (found.size() >= limit) break;
+            }
+            return found;
+        }
+        IntList shortest = null;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            IntList list = grams.get(gram(query, i));
+            if (list == null) return found;
+            if (shortest == null || list.size < shortest.size) shortest = list;
+        }
+        for (int i = 0; i < shortest.size && found.size() < limit; i++) {
+            int slot = shortest.values[i];
+            if (tasks[slot] != null && names[slot].contains(query)) found.add(tasks[slot]);
+        }
+        return found;
+    }
+
+    /**
+     * Alle Aufgaben, deren Name genau mit {@code prefix} beginnt (gross/klein zaehlt hier).
+     */
+    public synchronized List<Task> startingWith(String prefix) {
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        List<Task> found = new ArrayList<>();
+        for (IntList slots : byName.subMap(lower, lower + Character.MAX_VALUE).values()) {
+            for (int i = 0; i < slots.size; i++) {
+                Task task = tasks[slots.values[i]];
+                if (task.getName().startsWith(prefix)) found.add(task);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Alle Aufgaben mit genau diesem Namen.
+     */
+    public synchronized List<Task> named(String name) {
+        List<Task> found = new ArrayList<>();
+        IntList slots = byName.get(name.toLowerCase(Locale.ROOT));
+        if (slots == null) return found;
+        for (int i = 0; i < slots.size; i++) {
+            Task task = tasks[slots.values[i]];
+            if (task.getName().equals(name)) found.add(task);
+        }
+        return found;
+    }
+
+    /**
+     * Schreibt die Trigrammlisten fuer einen Checkpoint, mit Positionen in {@code order} statt Plaetzen.
+     *
+     * @throws IllegalArgumentException wenn {@code order} nicht genau die indizierten Aufgaben enthaelt
+     */
+    public synchronized void write(DataOutputStream out, List<Task> order) throws IOException {
+        if (order.size() != slotOf.size()) throw new IllegalArgumentException("Invalid index order: size differs");
+        int[] position = new int[slots];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < order.size(); i++) {
+            Integer slot = slotOf.get(order.get(i).getId());
+            if (slot == null) throw new IllegalArgumentException("Invalid index order: not indexed " + order.get(i).getId());
+            position[slot] = i;
+        }
+        out.writeInt(grams.size());
+        int[] live = new int[16];
+        for (Map.Entry<Long, IntList> entry : grams.entrySet()) {
+            IntList list = entry.getValue();
+            if (live.length < list.size) live = new int[list.size];
+            int n = 0;
+            for (int i = 0; i < list.size; i++) {
+                int at = position[list.values[i]];
+                if (at >= 0) live[n++] = at;
+            }
+            out.writeLong(entry.getKey());
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) out.writeInt(live[i]);
+        }
+    }
+
+    /**
+     * Gegenstueck zu {@link #write}: Platz i ist {@code tasks.get(i)}, die Trigramme werden nicht neu berechnet.
+     */
+    public static TaskIndex read(ByteBuffer in, List<Task> tasks) {
+        int count = tasks.size();
+        TaskIndex index = new TaskIndex(count);
+        index.tasks = tasks.toArray(new Task[Math.max(16, count)]);
+        index.names = new String[index.tasks.length];
+        index.nameAt = new int[index.tasks.length];
+        index.slots = count;
+        for (int slot = 0; slot < count; slot++) {
+            Task task = index.tasks[slot];
+            String name = task.getName().toLowerCase(Locale.ROOT);
+            index.names[slot] = name;
+            index.slotOf.put(task.getId(), slot);
+            IntList sameName = index.byName.computeIfAbsent(name, k -> new IntList());
+            index.nameAt[slot] = sameName.size;
+            sameName.add(slot);
+        }
+        int grams = in.getInt();
+        for (int i = 0; i < grams; i++) {
+            long gram = in.getLong();
+            int n = in.getInt();
+            if (n < 0 || n > count) throw new IllegalArgumentException("Invalid index: " + n + " entries");
+            IntList list = new IntList();
+            list.values = new int[Math.max(2, n)];
+            in.asIntBuffer().get(list.values, 0, n);
+            in.position(in.position() + n * Integer.BYTES);
+            list.size = n;
+            index.grams.put(gram, list);
+        }
+        return index;
+    }
+
+    private void insert(Task task) {
+        if (slots == tasks.length) {
+            tasks = Arrays.copyOf(tasks, slots * 2);
+            names = Arrays.copyOf(names, slots * 2);
+            nameAt = Arrays.copyOf(nameAt, slots * 2);
+        }
+        int slot = slots++;
+        String name = task.getName().toLowerCase(Locale.ROOT);
+        tasks[slot] = task;
+        names[slot] = name;
+        slotOf.put(task.getId(), slot);
+        IntList sameName = byName.computeIfAbsent(name, k -> new IntList());
+        nameAt[slot] = sameName.size;
+        sameName.add(slot);
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            IntList list = grams.computeIfAbsent(gram(name, i), k -> new IntList());
+            // Trigrammlisten wachsen nur hinten: steht der Platz schon am Ende, kam das Trigramm im Namen doppelt vor
+            if (list.size == 0 || list.values[list.size - 1] != slot) list.add(slot);
+        }
+    }
+
+    private void compact() {
+        Task[] alive = new Task[slotOf.size()];
+        int n = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (tasks[slot] != null) alive[n++] = tasks[slot];
+        }
+        tasks = new Task[Math.max(16, n * 2)];
+        names = new String[tasks.length];
+        nameAt = new int[tasks.length];
+        slots = 0;
+        dead = 0;
+        slotOf.clear();
+        byName.clear();
+        grams.clear();
+        for (Task task : alive) insert(task);
+    }
+
+    private static long gram(String text, int at) {
+        return (long) text.charAt(at) << 32 | (long) text.charAt(at + 1) << 16 | text.charAt(at + 2);
+    }
+
+    /**
+     * Wachsende Liste von Plaetzen ohne Boxing.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[2];
+
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package core;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Kompakte Aufgabentabelle fuer sehr grosse Zeitplaene.
+ * <p>
+ * Jede Spalte ist ein primitives Array (struct-of-arrays): ids und Zeiten als long,
+ * Prioritaet als byte, Aktion und Name als int-Verweise in deduplizierte Pools.
+ * Gemessen ({@code bench.TaskMemoryBenchmark}, 500k Aufgaben, 100 Namen) kostet eine Zeile
+ * samt Index etwa 61 Byte statt etwa 225 Byte fuer Task-Objekte plus Map im Scheduler.
+ * Zugriff erfolgt ueber die wiederverwendbare {@link View} oder ueber {@link #get(int)}.
+ * <p>
+ * Optional: der {@link Scheduler} haelt weiter Task-Objekte, weil Snapshots und der Abgleich
+ * im Cluster dieselben Instanzen vergleichen; {@link #get(int)} erzeugt jedes Mal eine neue.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class TaskTable {
+
+    private static final long NO_REPEAT = Long.MIN_VALUE;
+
+    private long[] idHigh;
+    private long[] idLow;
+    private long[] executeAt;
+    private long[] repeat;
+    private byte[] priority;
+    private int[] action;
+    private int[] name;
+    private int[] rule;
+    private int[] retry;
+    private int[] tag;
+    private int size;
+
+    // offene Adressierung: Slot haelt Zeile + 1, 0 = leer
+    private int[] index;
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private String[] names = new String[16];
+    private int[] nameRefs = new int[16];
+    private int[] freeNames = new int[16];
+    private int freeNameCount;
+    private int nameCount;
+
+    private final Map<Runnable, Integer> actionIds = new IdentityHashMap<>();
+    private final List<Runnable> actions = new ArrayList<>();
+
+    private final Map<RecurrenceRule, Integer> ruleIds = new IdentityHashMap<>();
+    private final List<RecurrenceRule> rules = new ArrayList<>();
+
+    private final Map<RetryPolicy, Integer> retryIds = new IdentityHashMap<>();
+    private final List<RetryPolicy> retries = new ArrayList<>();
+
+    private final Map<String, Integer> tagIds = new HashMap<>();
+    private final List<String> tags = new ArrayList<>();
+
+    public TaskTable() {
+        this(1024);
+    }
+
+    public TaskTable(int capacity) {
+        capacity = Math.max(capacity, 16);
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        executeAt = new long[capacity];
+        repeat = new long[capacity];
+        priority = new byte[capacity];
+        action = new int[capacity];
+        name = new int[capacity];
+        rule = new int[capacity];
+        retry = new int[capacity];
+        tag = new int[capacity];
+        index = new int[Integer.highestOneBit(capacity - 1) << 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return die Zeile der Aufgabe; eine vorhandene Aufgabe mit gleicher id wird ersetzt
+     */
+    public int add(Task task) {
+        long hi = task.getId().getMostSignificantBits();
+        long lo = task.getId().getLeastSignificantBits();
+        int row = find(hi, lo);
+        if (row < 0) {
+            if (size == idHigh.length) grow();
+            if ((size + 1) * 2 > index.length) rehash(index.length << 1);
+            row = size++;
+            idHigh[row] = hi;
+            idLow[row] = lo;
+            insertIndex(row);
+        } else {
+            releaseName(name[row]);
+        }
+        executeAt[row] = toNanos(task.getExecuteAT());
+        repeat[row] = task.getRepeatInterval() == null ? NO_REPEAT : toNanos(task.getRepeatInterval());
+        priority[row] = task.getPriority();
+        action[row] = actionId(task.getAction());
+        rule[row] = ruleId(task.getRecurrence());
+        retry[row] = retryId(task.getRetry());
+        tag[row] = tagId(task.getTag());
+        name[row] = internName(task.getName());
+        return row;
+    }
+
+    public int find(UUID id) {
+        return find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    public boolean remove(UUID id) {
+        int row = find(id);
+        if (row < 0) return false;
+        removeRow(row);
+        return true;
+    }
+
+    public Task get(int row) {
+        checkRow(row);
+        Duration interval = repeat[row] == NO_REPEAT ? null : Duration.ofNanos(repeat[row]);
+        return new Task(new UUID(idHigh[row], idLow[row]), names[name[row]], priority[row],
+                Instant.ofEpochSecond(0, executeAt[row]), actions.get(action[row]), interval,
+                rule[row] < 0 ? null : rules.get(rule[row]), retry[row] < 0 ? null : retries.get(retry[row]),
+                tags.get(tag[row]));
+    }
+
+    public List<Task> toList() {
+        List<Task> result = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) result.add(get(row));
+        return result;
+    }
+
+    public View view() {
+        return new View();
+    }
+
+    public int distinctNames() {
+        return nameCount - freeNameCount;
+    }
+
+    /**
+     * Flyweight-Sicht auf eine Zeile. Ein Objekt kann fuer beliebig viele Zeilen
+     * wiederverwendet werden; nur {@link #getId()}, {@link #getExecuteAT()} und
+     * {@link #toTask()} erzeugen neue Objekte.
+     */
+    public final class View {
+
+        private int row = -1;
+
+        public View moveTo(int row) {
+            checkRow(row);
+            this.row = row;
+            return this;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public long idHigh() {
+            return idHigh[row];
+        }
+
+        public long idLow() {
+            return idLow[row];
+        }
+
+        public UUID getId() {
+            return new UUID(idHigh[row], idLow[row]);
+        }
+
+        public String getName() {
+            return names[name[row]];
+        }
+
+        public byte getPriority() {
+            return priority[row];
+        }
+
+        public long executeAtNanos() {
+            return executeAt[row];
+        }
+
+        public Instant getExecuteAT() {
+            return Instant.ofEpochSecond(0, executeAt[row]);
+        }
+
+        public int actionId() {
+            return action[row];
+        }
+
+        public Runnable getAction() {
+            return actions.get(action[row]);
+        }
+
+        public boolean repeats() {
+            return repeat[row] != NO_REPEAT;
+        }
+
+        public long repeatNanos() {
+            return repeat[row];
+        }
+
+        public RecurrenceRule getRecurrence() {
+            return rule[row] < 0 ? null : rules.get(rule[row]);
+        }
+
+        public RetryPolicy getRetry() {
+            return retry[row] < 0 ? null : retries.get(retry[row]);
+        }
+
+        public String getTag() {
+            return tags.get(tag[row]);
+        }
+
+        public Task toTask() {
+            return get(row);
+        }
+    }
+
+    private void removeRow(int row) {
+        deleteIndex(row);
+        releaseName(name[row]);
+        int last = --size;
+        if (row != last) {
+            // letzte Zeile in die Luecke schieben und ihren Indexeintrag umbiegen
+            idHigh[row] = idHigh[last];
+            idLow[row] = idLow[last];
+            executeAt[row] = executeAt[last];
+            repeat[row] = repeat[last];
+            priority[row] = priority[last];
+            action[row] = action[last];
+            name[row] = name[last];
+            rule[row] = rule[last];
+            retry[row] = retry[last];
+            tag[row] = tag[last];
+            index[slotOf(last)] = row + 1;
+        }
+    }
+
+    private int find(long hi, long lo) {
+        int mask = index.length - 1;
+        for (int slot = hash(hi, lo) & mask; ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == 0) return -1;
+            int row = entry - 1;
+            if (idHigh[row] == hi && idLow[row] == lo) return row;
+        }
+    }
+
+    private int slotOf(int row) {
+        int mask = index.length - 1;
+        int slot = hash(idHigh[row], idLow[row]) & mask;
+        while (index[slot] != row + 1) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void insertIndex(int row) {
+        int mask = index.length - 1;
+        int slot = hash(idHigh[row], idLow[row]) & mask;
+        while (index[slot] != 0) slot = (slot + 1) & mask;
+        index[slot] = row + 1;
+    }
+
+    private void deleteIndex(int row) {
+        int mask = index.length - 1;
+        int hole = slotOf(row);
+        index[hole] = 0;
+        // Backward-Shift, damit Sondierketten ohne Grabsteine intakt bleiben
+        for (int slot = (hole + 1) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int r = index[slot] - 1;
+            int home = hash(idHigh[r], idLow[r]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                index[hole] = index[slot];
+                index[slot] = 0;
+                hole = slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        index = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = hash(idHigh[row], idLow[row]) & mask;
+            while (index[slot] != 0) slot = (slot + 1) & mask;
+            index[slot] = row + 1;
+        }
+    }
+
+    private void grow() {
+        int capacity = idHigh.length + (idHigh.length >> 1);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        executeAt = Arrays.copyOf(executeAt, capacity);
+        repeat = Arrays.copyOf(repeat, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        action = Arrays.copyOf(action, capacity);
+        name = Arrays.copyOf(name, capacity);
+        rule = Arrays.copyOf(rule, capacity);
+        retry = Arrays.copyOf(retry, capacity);
+        tag = Arrays.copyOf(tag, capacity);
+    }
+
+    private int internName(String value) {
+        Integer id = nameIds.get(value);
+        if (id != null) {
+            nameRefs[id]++;
+            return id;
+        }
+        int slot;
+        if (freeNameCount > 0) {
+            slot = freeNames[--freeNameCount];
+        } else {
+            if (nameCount == names.length) {
+                names = Arrays.copyOf(names, nameCount << 1);
+                nameRefs = Arrays.copyOf(nameRefs, nameCount << 1);
+            }
+            slot = nameCount++;
+        }
+        names[slot] = value;
+        nameRefs[slot] = 1;
+        nameIds.put(value, slot);
+        return slot;
+    }
+
+    private void releaseName(int slot) {
+        if (--nameRefs[slot] > 0) return;
+        nameIds.remove(names[slot]);
+        names[slot] = null;
+        if (freeNameCount == freeNames.length) freeNames = Arrays.copyOf(freeNames, freeNameCount << 1);
+        freeNames[freeNameCount++] = slot;
+    }
+
+    private int actionId(Runnable runnable) {
+        Integer id = actionIds.get(runnable);
+        if (id == null) {
+            id = actions.size();
+            actions.add(runnable);
+            actionIds.put(runnable, id);
+        }
+        return id;
+    }
+
+    private int ruleId(RecurrenceRule recurrence) {
+        if (recurrence == null) return -1;
+        Integer id = ruleIds.get(recurrence);
+        if (id == null) {
+            id = rules.size();
+            rules.add(recurrence);
+            ruleIds.put(recurrence, id);
+        }
+        return id;
+    }
+
+    private int retryId(RetryPolicy policy) {
+        if (policy == null) return -1;
+        Integer id = retryIds.get(policy);
+        if (id == null) {
+            id = retries.size();
+            retries.add(policy);
+            retryIds.put(policy, id);
+        }
+        return id;
+    }
+
+    private int tagId(String value) {
+        Integer id = tagIds.get(value);
+        if (id == null) {
+            id = tags.size();
+            tags.add(value);
+            tagIds.put(value, id);
+        }
+        return id;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Invalid row " + row);
+    }
+
+    private static long toNanos(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Execution time out of range: " + instant);
+        }
+    }
+
+    private static long toNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Repeat interval out of range: " + duration);
+        }
+    }
+
+    private static int hash(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
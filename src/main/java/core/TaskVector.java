@@ -0,0 +1,224 @@
+package core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Unveraenderliche Liste von Aufgaben, die sich Struktur mit ihren Vorgaengerversionen teilt.
+ * <p>
+ * Aufbau wie ein persistenter Vektor: ein Baum mit 32 Kindern je Knoten, dessen Blaetter die
+ * Aufgaben halten, plus ein offenes letztes Blatt ({@code tail}). Anhaengen kopiert meist nur
+ * dieses Blatt, Ersetzen nur den Pfad von der Wurzel zum Blatt, also hoechstens
+ * log32(n) kleine Arrays. Alle anderen Knoten gehoeren weiter auch der alten Version, die
+ * damit gueltig bleibt und ohne Sperre gelesen werden kann. Entfernen behaelt die Reihenfolge:
+ * der Teil davor wird geteilt ({@link #truncate(int)}), der Rest neu angehaengt. Sortieren
+ * baut den Baum neu auf.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public final class TaskVector extends AbstractList<Task> implements RandomAccess {
+
+    private static final int BITS = 5;
+
+    private static final int WIDTH = 1 << BITS;
+
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] NONE = new Object[0];
+
+    public static final TaskVector EMPTY = new TaskVector(0, BITS, NONE, NONE);
+
+    private final int size;
+
+    // Bits, um die der Index fuer die oberste Ebene verschoben wird
+    private final int shift;
+
+    private final Object[] root;
+
+    private final Object[] tail;
+
+    private TaskVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Baut in einem Durchgang auf, ohne Zwischenversionen.
+     */
+    public static TaskVector of(Collection<Task> tasks) {
+        if (tasks instanceof TaskVector vector) return vector;
+        return build(tasks.toArray(), tasks.size());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Invalid index: " + index);
+        return (Task) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * @return neue Version mit {@code task} am Ende
+     */
+    public TaskVector plus(Task task) {
+        int inTail = size - tailOffset();
+        if (inTail < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, inTail + 1);
+            newTail[inTail] = task;
+            return new TaskVector(size + 1, shift, root, newTail);
+        }
+        // volles Blatt in den Baum haengen, ggf. eine Ebene hoeher
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[]{root, path(shift, tail)};
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root);
+        }
+        return new TaskVector(size + 1, newShift, newRoot, new Object[]{task});
+    }
+
+    /**
+     * @return neue Version, in der {@code task} an Stelle {@code index} steht
+     */
+    public TaskVector with(int index, Task task) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Invalid index: " + index);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = task;
+            return new TaskVector(size, shift, root, newTail);
+        }
+        return new TaskVector(size, shift, assoc(shift, root, index, task), tail);
+    }
+
+    /**
+     * @return neue Version ohne das Element an Stelle {@code index}; die Reihenfolge bleibt,
+     * nur was dahinter liegt, wird neu angehaengt
+     */
+    public TaskVector without(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Invalid index: " + index);
+        TaskVector result = truncate(index);
+        for (int i = index + 1; i < size; i++) result = result.plus(get(i));
+        return result;
+    }
+
+    /**
+     * @return die ersten {@code length} Elemente; volle Blaetter davor werden geteilt, nur die
+     * inneren Knoten (ein Verweis je 32 Aufgaben) und der neue {@code tail} entstehen neu
+     */
+    public TaskVector truncate(int length) {
+        if (length < 0 || length > size) throw new IndexOutOfBoundsException("Invalid length: " + length);
+        if (length == size) return this;
+        if (length == 0) return EMPTY;
+        int tailOffset = ((length - 1) >>> BITS) << BITS;
+        Object[] newTail = Arrays.copyOf(leafFor(length - 1), length - tailOffset);
+        Object[] leaves = new Object[tailOffset >>> BITS];
+        for (int i = 0; i < leaves.length; i++) leaves[i] = leafFor(i << BITS);
+        return fromLeaves(leaves, newTail, length);
+    }
+
+    /**
+     * Laeuft blattweise statt ueber {@link #get(int)}, also ohne Abstieg je Element.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+
+            private int index;
+
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Task next() {
+                if (index >= size) throw new NoSuchElementException();
+                if ((index & MASK) == 0) leaf = leafFor(index);
+                return (Task) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    private int tailOffset() {
+        return size == 0 ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) return tail;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent) {
+        int child = ((size - 1) >>> level) & MASK;
+        Object[] copy = Arrays.copyOf(parent, Math.max(parent.length, child + 1));
+        if (level == BITS) {
+            copy[child] = tail;
+        } else {
+            Object[] existing = child < parent.length ? (Object[]) parent[child] : null;
+            copy[child] = existing != null ? pushTail(level - BITS, existing) : path(level - BITS, tail);
+        }
+        return copy;
+    }
+
+    private static Object[] path(int level, Object[] leaf) {
+        return level == 0 ? leaf : new Object[]{path(level - BITS, leaf)};
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Task task) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = task;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = assoc(level - BITS, (Object[]) node[child], index, task);
+        }
+        return copy;
+    }
+
+    /**
+     * Volle Blaetter von unten nach oben zu Knoten buendeln; der Rest wird {@code tail}.
+     */
+    private static TaskVector build(Object[] items, int size) {
+        if (size == 0) return EMPTY;
+        int tailOffset = ((size - 1) >>> BITS) << BITS;
+        Object[] tail = Arrays.copyOfRange(items, tailOffset, size);
+        Object[] leaves = new Object[tailOffset >>> BITS];
+        for (int i = 0; i < leaves.length; i++) {
+            leaves[i] = Arrays.copyOfRange(items, i << BITS, (i + 1) << BITS);
+        }
+        return fromLeaves(leaves, tail, size);
+    }
+
+    private static TaskVector fromLeaves(Object[] leaves, Object[] tail, int size) {
+        Object[] level = leaves;
+        int shift = BITS;
+        while (level.length > WIDTH) {
+            Object[] parents = new Object[(level.length + MASK) >>> BITS];
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = Arrays.copyOfRange(level, i << BITS, Math.min(level.length, (i + 1) << BITS));
+            }
+            level = parents;
+            shift += BITS;
+        }
+        return new TaskVector(size, shift, level, tail);
+    }
+}
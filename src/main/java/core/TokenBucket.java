@@ -0,0 +1,101 @@
+package core;
+
+import java.time.Duration;
+
+/**
+ * Ratenbegrenzung: bis zu {@code capacity} Marken, die mit fester Rate nachlaufen.
+ * Rechnet in Nanosekunden und ohne eigenen Thread; der Stand wird bei jedem Zugriff
+ * nachgefuehrt. Die Methoden mit {@code now} nehmen die Zeit einer anderen Uhr, etwa
+ * {@link SchedulerClock#nanos()}; ein Eimer sollte nur mit einer Uhr benutzt werden.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class TokenBucket {
+
+    private final long capacity;
+
+    private final long nanosPerToken;
+
+    // Zeitpunkt, zu dem der Eimer rechnerisch leer war; voll ist er bei now - capacity * nanosPerToken
+    private long emptyAt = Long.MIN_VALUE;
+
+    public TokenBucket(long capacity, Duration refillEvery) {
+        if (capacity >= 1 && refillEvery != null && !refillEvery.isNegative() && !refillEvery.isZero()) {
+            this.capacity = capacity;
+            this.nanosPerToken = refillEvery.toNanos();
+        } else throw new IllegalArgumentException("Invalid token bucket");
+    }
+
+    /**
+     * @return true, wenn sofort eine Marke frei war
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public synchronized boolean tryAcquire(long now) {
+        return reserve(now, 0) == 0;
+    }
+
+    /**
+     * Nimmt eine Marke und wartet hoechstens {@code maxWait} auf sie.
+     *
+     * @return false, wenn die Wartezeit nicht reicht; es wird dann keine Marke verbraucht
+     */
+    public boolean acquire(Duration maxWait) throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            wait = reserve(System.nanoTime(), maxWait.toNanos());
+        }
+        if (wait < 0) return false;
+        if (wait > 0) Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        return true;
+    }
+
+    public synchronized long available() {
+        long now = System.nanoTime();
+        refill(now);
+        return Math.min(capacity, (now - emptyAt) / nanosPerToken);
+    }
+
+    /**
+     * @return Nanosekunden, bis die naechste Marke frei ist, 0 wenn schon eine frei ist; verbraucht nichts
+     */
+    public long nanosUntilAvailable() {
+        return nanosUntilAvailable(System.nanoTime());
+    }
+
+    public synchronized long nanosUntilAvailable(long now) {
+        refill(now);
+        return Math.max(0, emptyAt + nanosPerToken - now);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public Duration getRefillEvery() {
+        return Duration.ofNanos(nanosPerToken);
+    }
+
+    /**
+     * @return Wartezeit in Nanosekunden bis zur reservierten Marke, -1 wenn sie laenger als {@code maxWait} waere
+     */
+    private long reserve(long now, long maxWait) {
+        refill(now);
+        long next = emptyAt + nanosPerToken;
+        long wait = Math.max(0, next - now);
+        if (wait > maxWait) return -1;
+        emptyAt = next;
+        return wait;
+    }
+
+    /**
+     * Mehr als {@code capacity} Marken sammeln sich nicht an.
+     */
+    private void refill(long now) {
+        long full = now - capacity * nanosPerToken;
+        if (emptyAt < full) emptyAt = full;
+    }
+}
@@ -0,0 +1,205 @@
+package core;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulierte Zeit fuer den {@link Scheduler}: Timer und Worker laufen alle auf dem Thread,
+ * der {@link #runUntil(long)} aufruft, und die Uhr springt direkt zum naechsten Ereignis.
+ * Ein Monat wiederkehrender Aufgaben dauert so nur so lange, wie die Laeufe selbst rechnen.
+ * <p>
+ * Der Ablauf ist deterministisch: gleichzeitige Ereignisse laufen in der Reihenfolge, in der
+ * sie geplant wurden. Es gibt {@code workers} simulierte Worker; eine Aktion kann mit
+ * {@link #busy(long)} angeben, wie lange sie ihren Worker belegt. Solange alle belegt sind,
+ * wartet weitere Arbeit und startet entsprechend spaeter. Die Nachbearbeitung des Schedulers
+ * (naechster Termin, Freigabe des Bulkheads) passiert dagegen sofort beim Start.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class VirtualClock implements SchedulerClock {
+
+    private final PriorityQueue<Event> timers = new PriorityQueue<>();
+
+    private final ArrayDeque<Runnable> work = new ArrayDeque<>();
+
+    // pro Worker: ab wann er wieder frei ist
+    private final long[] freeAt;
+
+    private long now;
+
+    private long sequence;
+
+    private long busy;
+
+    private long events;
+
+    public VirtualClock(Instant start, int workers) {
+        if (start == null || workers < 1) throw new IllegalArgumentException("Invalid virtual clock");
+        this.now = start.toEpochMilli();
+        this.freeAt = new long[workers];
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    @Override
+    public long nanos() {
+        return now * 1_000_000;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        Event event = new Event(now + Math.max(0, delayMillis), sequence++, task);
+        timers.add(event);
+        return event;
+    }
+
+    @Override
+    public void execute(Runnable work) {
+        this.work.add(work);
+    }
+
+    /**
+     * Von der gerade laufenden Aktion aufzurufen: belegt ihren Worker zusaetzlich so lange.
+     */
+    public void busy(long millis) {
+        if (millis > 0) busy += millis;
+    }
+
+    /**
+     * @return Anzahl ausgefuehrter Timer und Arbeiten seit dem Start
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    public int pendingTimers() {
+        return timers.size();
+    }
+
+    public void runFor(Duration duration) {
+        runUntil(now + duration.toMillis());
+    }
+
+    /**
+     * Arbeitet alle Ereignisse bis einschliesslich {@code until} ab; danach steht die Uhr auf {@code until}.
+     */
+    public void runUntil(long until) {
+        while (step(until)) {
+            // weiter
+        }
+        if (now < until) now = until;
+    }
+
+    private boolean step(long until) {
+        if (!work.isEmpty()) {
+            int worker = 0;
+            for (int i = 1; i < freeAt.length; i++) {
+                if (freeAt[i] < freeAt[worker]) worker = i;
+            }
+            if (freeAt[worker] <= now) {
+                busy = 0;
+                events++;
+                work.poll().run();
+                freeAt[worker] = now + busy;
+                return true;
+            }
+            // alle Worker belegt: bis der erste frei wird, zaehlen nur Timer
+            Event next = timers.peek();
+            long at = next == null ? freeAt[worker] : Math.min(next.time, freeAt[worker]);
+            if (at > until) return false;
+            now = at;
+            if (next != null && next.time == at) fire();
+            return true;
+        }
+        Event next = timers.peek();
+        if (next == null || next.time > until) return false;
+        now = next.time;
+        fire();
+        return true;
+    }
+
+    private void fire() {
+        Event event = timers.poll();
+        if (event.cancelled) return;
+        event.done = true;
+        events++;
+        event.task.run();
+    }
+
+    @Override
+    public void shutdown() {
+        timers.clear();
+        work.clear();
+    }
+
+    /**
+     * Ein geplanter Timer. Abgebrochene bleiben bis zu ihrem Zeitpunkt in der Warteschlange.
+     */
+    private final class Event implements ScheduledFuture<Object> {
+
+        private final long time;
+
+        private final long order;
+
+        private final Runnable task;
+
+        private boolean cancelled;
+
+        private boolean done;
+
+        private Event(long time, long order, Runnable task) {
+            this.time = time;
+            this.order = order;
+            this.task = task;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - now, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            Event event = (Event) other;
+            int byTime = Long.compare(time, event.time);
+            return byTime != 0 ? byTime : Long.compare(order, event.order);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done || cancelled) return false;
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        @Override
+        public Object get() {
+            if (!isDone()) throw new IllegalStateException("Virtual timer not fired yet");
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return get();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legt Timer mit Spielraum ({@code slack}) zusammen, damit viele fast gleichzeitig faellige
+ * Aufgaben den Timer-Thread nur einmal wecken.
+ * <p>
+ * Ein Timer mit Faelligkeit {@code t} und Spielraum {@code s} feuert irgendwann in
+ * {@code [t, t + s]}. Liegt dort schon ein Weckzeitpunkt, haengt er sich an; sonst entsteht
+ * einer auf dem naechsten Vielfachen von {@code s}, sodass Timer gleicher Klasse sich auf
+ * wenigen Rasterpunkten sammeln. Solange insgesamt nur wenige Weckzeitpunkte ausstehen,
+ * bringt das Raster nichts: dann wird exakt zur Faelligkeit geweckt. Timer ohne Spielraum
+ * gehen unveraendert an die {@link SchedulerClock}.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class WakeupCoalescer {
+
+    // darunter gilt die Warteschlange als duenn besetzt
+    public static final int SPARSE = 16;
+
+    private final SchedulerClock clock;
+
+    // Weckzeitpunkt (Epoch-ms) -> wartende Timer
+    private final TreeMap<Long, Batch> batches = new TreeMap<>();
+
+    private long wakeups;
+
+    public WakeupCoalescer(SchedulerClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return Handle zum Abbrechen; feuert spaetestens {@code slackMillis} nach der Faelligkeit
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis, long slackMillis) {
+        if (slackMillis < 0) throw new IllegalArgumentException("Invalid timer slack: " + slackMillis);
+        if (slackMillis == 0) return clock.schedule(task, delayMillis);
+        long due = clock.millis() + Math.max(0, delayMillis);
+        synchronized (this) {
+            Map.Entry<Long, Batch> existing = batches.ceilingEntry(due);
+            Batch batch;
+            if (existing != null && existing.getKey() - due <= slackMillis) {
+                batch = existing.getValue();
+            } else {
+                // frei, da im Fenster [due, due + slack] noch nichts liegt
+                long at = batches.size() < SPARSE ? due : Math.ceilDiv(due, slackMillis) * slackMillis;
+                Batch created = new Batch(at);
+                batches.put(at, created);
+                created.timer = clock.schedule(() -> fire(created), at - clock.millis());
+                batch = created;
+            }
+            Entry entry = new Entry(batch, task);
+            batch.entries.add(entry);
+            batch.live++;
+            return entry;
+        }
+    }
+
+    /**
+     * @return ausstehende Weckzeitpunkte mit Spielraum
+     */
+    public synchronized int pending() {
+        return batches.size();
+    }
+
+    /**
+     * @return wie oft ein zusammengelegter Weckzeitpunkt gefeuert hat
+     */
+    public synchronized long getWakeups() {
+        return wakeups;
+    }
+
+    private void fire(Batch batch) {
+        List<Entry> due = new ArrayList<>(batch.entries.size());
+        synchronized (this) {
+            if (batches.get(batch.at) != batch) return;
+            batches.remove(batch.at);
+            wakeups++;
+            for (Entry entry : batch.entries) {
+                if (entry.cancelled) continue;
+                entry.done = true;
+                due.add(entry);
+            }
+            batch.entries.clear();
+        }
+        // ausserhalb der Sperre: die Timer nehmen die Sperre des Schedulers
+        for (Entry entry : due) {
+            try {
+                entry.task.run();
+            } catch (RuntimeException e) {
+                System.out.println("Timer failed: " + e);
+            }
+        }
+    }
+
+    private static final class Batch {
+
+        private final long at;
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        // nicht abgebrochene Eintraege; bei 0 wird der Timer selbst abgebrochen
+        private int live;
+
+        private ScheduledFuture<?> timer;
+
+        private Batch(long at) {
+            this.at = at;
+        }
+    }
+
+    /**
+     * Ein einzelner Timer in einem Weckzeitpunkt. Abgebrochene bleiben bis zum Feuern in der Liste.
+     */
+    private final class Entry implements ScheduledFuture<Object> {
+
+        private final Batch batch;
+
+        private final Runnable task;
+
+        private boolean cancelled;
+
+        private boolean done;
+
+        private Entry(Batch batch, Runnable task) {
+            this.batch = batch;
+            this.task = task;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(batch.at - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (WakeupCoalescer.this) {
+                if (done || cancelled) return false;
+                cancelled = true;
+                if (--batch.live == 0 && batches.remove(batch.at, batch)) {
+                    batch.timer.cancel(false);
+                    batch.entries.clear();
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            synchronized (WakeupCoalescer.this) {
+                return cancelled;
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            synchronized (WakeupCoalescer.this) {
+                return done || cancelled;
+            }
+        }
+
+        @Override
+        public Object get() {
+            if (!isDone()) throw new IllegalStateException("Timer not fired yet");
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return get();
+        }
+    }
+}
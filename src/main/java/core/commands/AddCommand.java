@@ -2,14 +2,23 @@ package core.commands;
 
 import cli.Command;
 import core.runnable.RunnableRegistry;
+import core.RecurrenceRule;
+import core.RetryPolicy;
 import core.Scheduler;
-import core.runnable.WallpapersChanger.WallpaperHelper;
+import core.Task;
 import storage.Data;
 
+import java.io.PrintStream;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * @author Monke Vladyslav
@@ -21,37 +30,119 @@ public class AddCommand implements Command {
     /**
      * @param args Array von Argumenten des Befehls
      * @param scheduler die Scheduler-Instanz, aus der Aufgaben entfernt werden sollen
+     * @param out Ausgabe fuer Meldungen an den Benutzer
      */
 
-    public void execute (String[] args, Scheduler scheduler) {
+    public void execute (String[] args, Scheduler scheduler, PrintStream out) {
+        List<String> flags = new ArrayList<>();
         List<StringBuilder> parts = new ArrayList<>();
         int counter = 0;
         for (int i = 1; i < args.length; i++) {
             if (args[i].startsWith("--")) {
+                flags.add(args[i].substring(2));
                 parts.add(new StringBuilder());
                 counter = 0;
                 continue;
             }
+            if (parts.isEmpty()) continue;
             String add = counter > 0 ? " " + args[i] : args[i];
             parts.getLast().append(add);
             counter++;
         }
 
-        if (parts.size() < 4) {
-            System.out.println("Look up manual \"help\"");
+        String in = option(flags, parts, "in");
+        String cron = option(flags, parts, "cron");
+        String zone = option(flags, parts, "zone");
+        String after = option(flags, parts, "after");
+        String retry = option(flags, parts, "retry");
+        String tag = option(flags, parts, "tag");
+        if (parts.size() < 3 || (in == null && cron == null)) {
+            out.println("Look up manual \"help\"");
             return;
         }
         String name = parts.get(0).toString();
         byte priority = Byte.parseByte(parts.get(1).toString());
-        Instant executeAt = Instant.now().plus(parseDuration(parts.get(2).toString()));
-        Runnable action = RunnableRegistry.get(parts.get(3).toString());
         Duration repeatInterval = null;
-        if (parts.size() >= 5) repeatInterval = parseDuration(parts.get(4).toString());
+        if (parts.size() >= 4) repeatInterval = parseDuration(parts.get(3).toString());
+
+        RecurrenceRule recurrence = null;
+        RetryPolicy retryPolicy = null;
+        Runnable action;
+        Instant executeAt;
+        try {
+            action = RunnableRegistry.find(parts.get(2).toString());
+            if (action == null) throw new IllegalArgumentException("Invalid action: " + parts.get(2));
+            if (retry != null) retryPolicy = parseRetry(retry);
+            if (cron != null) {
+                recurrence = RecurrenceRule.cron(cron, zone == null ? ZoneId.systemDefault() : ZoneId.of(zone));
+            }
+            executeAt = in != null ? Instant.now().plus(parseDuration(in)) : recurrence.nextAfter(Instant.now());
+        } catch (DateTimeException | IllegalArgumentException e) {
+            out.println(e.getMessage());
+            return;
+        }
+        if (executeAt == null) {
+            out.println("Invalid cron: " + cron + " never fires");
+            return;
+        }
+        Task task;
+        try {
+            task = new Task(name, priority, executeAt, action, repeatInterval)
+                    .withRecurrence(recurrence)
+                    .withRetry(retryPolicy)
+                    .withTag(tag == null ? Task.DEFAULT_TAG : tag.trim());
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            return;
+        }
+        Set<UUID> prerequisites = new LinkedHashSet<>();
+        if (after != null) {
+            try {
+                for (String prerequisite : after.split(",")) prerequisites.add(UUID.fromString(prerequisite.trim()));
+            } catch (IllegalArgumentException e) {
+                out.println(e.getMessage());
+                return;
+            }
+        }
+        List<Task> added = new ArrayList<>();
+        added.add(task);
         if (name.equals("wallpaper")) {
-            scheduler.addTask(name, priority, executeAt.minusSeconds(240), new WallpaperHelper(), Duration.ofDays(15));
+            // die URL-Liste muss vor dem Wechsel geholt sein
+            Task helper = new Task(name, priority, executeAt, RunnableRegistry.get("wallpaper helper"), Duration.ofDays(15))
+                    .withTag(task.getTag());
+            added.add(helper);
+            prerequisites.add(helper.getId());
+        }
+        // erst mit allen Kanten einplanen, sonst kann die Aufgabe vor ihren Voraussetzungen starten
+        Map<UUID, Set<UUID>> edges = prerequisites.isEmpty() ? Map.of() : Map.of(task.getId(), prerequisites);
+        for (String message : scheduler.addTasks(added, edges, true)) out.println(message);
+        Data.requestSave(scheduler);
+    }
+
+    /**
+     * Entfernt eine benannte Option aus den Teilen und gibt ihren Wert zurueck.
+     */
+    private String option(List<String> flags, List<StringBuilder> parts, String flag) {
+        int index = flags.indexOf(flag);
+        if (index < 0) return null;
+        flags.remove(index);
+        return parts.remove(index).toString();
+    }
+
+    /**
+     * "--retry 3" oder "--retry 3 30s 1h": Versuche, erste und hoechste Wartezeit.
+     */
+    private RetryPolicy parseRetry(String input) {
+        String[] values = input.trim().split("\\s+");
+        int attempts;
+        try {
+            attempts = Integer.parseInt(values[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid retry attempts: " + values[0]);
         }
-        scheduler.addTask(name, priority, executeAt, action, repeatInterval);
-        Data.saveTasks(scheduler);
+        if (values.length == 1) return new RetryPolicy(attempts);
+        if (values.length == 3) return new RetryPolicy(attempts, parseDuration(values[1]), parseDuration(values[2]));
+        throw new IllegalArgumentException("Invalid retry: " + input);
     }
 
     private Duration parseDuration(String input) {
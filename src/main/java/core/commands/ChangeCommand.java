@@ -2,6 +2,7 @@ package core.commands;
 
 import cli.Command;
 import core.Scheduler;
+import java.io.PrintStream;
 import java.util.UUID;
 
 /**
@@ -10,14 +11,21 @@ import java.util.UUID;
  */
 public class ChangeCommand implements Command {
 
-    public void execute(String[] args, Scheduler scheduler) {
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
         if (args.length < 4) {
-            System.out.println("Look up manual \"help\"");
+            out.println("Look up manual \"help\"");
             return;
         }
         switch (args[1]) {
             case "--name" -> scheduler.changeName(UUID.fromString(args[2]), args[3]);
             case "--priority" -> scheduler.changePriority(UUID.fromString(args[2]), Byte.parseByte(args[3]));
+            case "--tag" -> {
+                try {
+                    scheduler.changeTag(UUID.fromString(args[2]), args[3]);
+                } catch (IllegalArgumentException e) {
+                    out.println(e.getMessage());
+                }
+            }
             //case "--executeAt" -> scheduler.changeExecuteAt(UUID.fromString(args[2]), args[3]); to do
         }
     }
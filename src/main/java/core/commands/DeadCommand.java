@@ -0,0 +1,72 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import core.Task;
+import core.runnable.RunnableRegistry;
+import storage.Data;
+import storage.DeadLetterQueue;
+
+import java.io.PrintStream;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class DeadCommand implements Command {
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        DeadLetterQueue letters = scheduler.getDeadLetters();
+        if (letters == null) {
+            out.println("Dead letter queue is disabled");
+            return;
+        }
+        if (args.length < 2) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        switch (args[1]) {
+            case "--list" -> {
+                if (letters.size() == 0) out.println("No dead letters");
+                for (DeadLetterQueue.DeadLetter letter : letters.list()) {
+                    Task task = letter.task();
+                    out.println(
+                            "ID : " + task.getId() +
+                                    "\nName : " + task.getName() +
+                                    "\nAction " + RunnableRegistry.nameOf(task.getAction()) +
+                                    "\nFailed: " + letter.failedAt().atZone(ZoneId.systemDefault()) +
+                                    " after " + letter.attempts() + " attempt(s)" +
+                                    "\nReason " + letter.reason()
+                    );
+                }
+            }
+            case "--replay", "--drop" -> {
+                if (args.length < 3) {
+                    out.println("Look up manual \"help\"");
+                    return;
+                }
+                UUID id;
+                try {
+                    id = UUID.fromString(args[2]);
+                } catch (IllegalArgumentException e) {
+                    out.println("Invalid UUID: " + args[2]);
+                    return;
+                }
+                if (args[1].equals("--drop")) {
+                    out.println(letters.remove(id) == null ? "Not in dead letters: " + id : "Dropped " + id);
+                    return;
+                }
+                Task task = scheduler.replay(id);
+                if (task == null) {
+                    out.println("Not in dead letters: " + id);
+                    return;
+                }
+                out.println("Replaying " + task.getName() + " as " + task.getId());
+                Data.requestSave(scheduler);
+            }
+            default -> out.println("Look up manual \"help\"");
+        }
+    }
+}
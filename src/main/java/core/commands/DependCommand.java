@@ -0,0 +1,38 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import storage.Data;
+
+import java.io.PrintStream;
+import java.util.UUID;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class DependCommand implements Command {
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        if (args.length < 4) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        try {
+            UUID dependent = UUID.fromString(args[2]);
+            UUID prerequisite = UUID.fromString(args[3]);
+            switch (args[1]) {
+                case "--add" -> scheduler.addDependency(prerequisite, dependent);
+                case "--remove" -> scheduler.removeDependency(prerequisite, dependent);
+                default -> {
+                    out.println("Look up manual \"help\"");
+                    return;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            return;
+        }
+        Data.requestSave(scheduler);
+    }
+}
@@ -0,0 +1,40 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import storage.TaskTransfer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ExportCommand implements Command {
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        if (args.length < 2) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        try {
+            int keep = TaskTransfer.DEFAULT_KEEP;
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--keep") && i + 1 < args.length) {
+                    keep = Integer.parseInt(args[++i]);
+                } else {
+                    out.println("Look up manual \"help\"");
+                    return;
+                }
+            }
+            TaskTransfer.export(scheduler, Path.of(args[1]), keep);
+            out.println("Exported " + scheduler.snapshot().size() + " tasks to " + args[1]);
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+        } catch (IOException e) {
+            out.println("Export failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import core.Task;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class FindCommand implements Command {
+
+    public static final int LIMIT = 50;
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        if (args.length < 2) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        String text = String.join(" ", List.of(args).subList(1, args.length));
+        // einer mehr, um zu erkennen, ob abgeschnitten wurde
+        List<Task> found = scheduler.search(text, LIMIT + 1);
+        if (found.isEmpty()) out.println("No tasks found");
+        for (Task task : found.subList(0, Math.min(LIMIT, found.size()))) {
+            out.println(task.getId() + "  " + task.getName());
+        }
+        if (found.size() > LIMIT) out.println("... more than " + LIMIT + " matches, refine the search");
+    }
+}
@@ -3,11 +3,13 @@ package core.commands;
 import cli.Command;
 import core.Scheduler;
 
+import java.io.PrintStream;
+
 public class HelpCommand implements Command {
 
-    public void execute(String[] args, Scheduler scheduler) {
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
 
-        System.out.println("""
+        out.println("""
     ==================================================
                     TASK SCHEDULER HELP
     ==================================================
@@ -25,6 +27,33 @@ public class HelpCommand implements Command {
     add --name Do homework --priority 2 --in 30min --action wallpaper --repeat 1d
     add --name Clean room --priority 1 --in 2h --action space fact --repeat 1d
     
+    Cron schedules replace --in and --repeat (minute hour day month weekday):
+    add --name <task name> --priority <number> --action <action name> --cron <expr> [--zone <zone>]
+    
+    Example:
+    add --name Standup --priority 1 --action random fact --cron 0 9 * * MON-FRI --zone Europe/Berlin
+    add --name Month end --priority 2 --action coding --cron 0 18 L * *
+    
+    Run after other tasks (comma separated UUIDs):
+    add --name Report --priority 3 --in 1h --action coding --after <uuid>
+    
+    Retry failed runs (attempts, optional first and longest wait):
+    add --name Facts --priority 2 --in 1h --action space fact --retry 3
+    add --name Facts --priority 2 --in 1h --action space fact --retry 5 30s 1h
+    
+    Incremental backup of a directory (paths without spaces, "verify" rehashes every file):
+    add --name Backup --priority 1 --action backup /home/me/docs /mnt/backup/docs --cron 0 3 * * *
+    add --name Backup --priority 1 --in 1d --action backup /home/me/docs /mnt/backup/docs verify --repeat 7d
+    
+    Log retention (glob, then any of gzip=<age> age=<age> size=<bytes> count=<files>):
+    add --name Logs --priority 1 --action logs /var/log/myapp *.log gzip=1d age=30d size=2g --cron 0 4 * * *
+    
+    Shell command (run by /bin/sh, words must not start with "--", output in history/output):
+    add --name Sync --priority 3 --action shell rsync -a /home/me/notes /mnt/notes --cron */15 * * * *
+    
+    Tag the owner or source (letters, digits, . _ -; default "default"):
+    add --name Import 17 --priority 3 --in 10s --action coding --tag bulk
+    
     
     EDIT TASK
     ---------
@@ -33,23 +62,97 @@ public class HelpCommand implements Command {
     Usage:
     edit --name <UUID> <new name>
     edit --nriority <UUID> <new priority>
+    edit --tag <UUID> <new tag>
     
     Example:
     edit --name 123e4567-e89b-12d3-a456-426614174000 Buy milk
     edit --priority 123e4567-e89b-12d3-a456-426614174000 5
     
     
+    TAGS
+    ----
+    Due tasks waiting for a pool or an action are started fairly across tags, so a tag
+    with thousands of due tasks cannot hold back the others. Weights and rate quotas are
+    set when the scheduler starts (weight, optional starts per period):
+    -Dtasks.tags=bulk=1:100/1min,ops=4
+    
+    
+    DEPENDENCIES
+    ------------
+    A task waits until its prerequisites due before it have finished.
+    
+    Usage:
+    depend --add <task UUID> <prerequisite UUID>
+    depend --remove <task UUID> <prerequisite UUID>
+    
+    
+    HISTORY
+    -------
+    Shows recorded runs of a task or the failure rate of each action.
+    
+    Usage:
+    history --task <UUID> [count]
+    history --actions [hours]
+    
+    
+    RECORDING
+    ---------
+    Records the scheduler with Java Flight Recorder (JDK "default" settings plus task
+    events: scheduled, dispatched, action runs, rescheduled, saves). The report shows
+    dispatch lateness, the actions with the most run time and, for tasks at least
+    <ms> late (default 100), GC pauses, saves and slow file I/O while they waited.
+    With --connect the report is built by the client; the daemon only starts and stops.
+    
+    Usage:
+    record --start [file]
+    record --stop
+    record --report <file> [ms]
+    
+    Example:
+    record --start history/tasks.jfr
+    record --report history/tasks.jfr 50
+    
+    
+    DEAD LETTERS
+    ------------
+    Runs that failed all attempts are kept for inspection.
+    
+    Usage:
+    dead --list
+    dead --replay <UUID>
+    dead --drop <UUID>
+    
+    
+    EXPORT / IMPORT
+    ---------------
+    Moves schedules between machines. Files ending in .gz are compressed; the previous
+    exports are kept as <file>.1 ... <file>.n (default 5).
+    Import merges by UUID: new tasks are added, differing ones follow --on-conflict
+    (keep, replace or fail, default keep). --diff makes the scheduler match the file,
+    applying only the tasks that changed.
+    
+    Usage:
+    export <file> [--keep <n>]
+    import <file> [--on-conflict keep|replace|fail] [--diff]
+    
+    Example:
+    export backups/tasks.json.gz --keep 10
+    import backups/tasks.json.gz --on-conflict replace
+    
+    
     REMOVE TASK
     -----------
     Removes a task from the scheduler.
     
     Usage:
     remove --byName <task name>
+    remove --byPrefix <start of task name>
     remove --byPriority <priority>
     remove --byUUID <uuid>
     
     Example:
     remove --byName Buy milk
+    remove --byPrefix Backup
     remove --byPriority 3
     remove --byUUID 123e4567-e89b-12d3-a456-426614174000
     
@@ -62,6 +165,18 @@ public class HelpCommand implements Command {
     list
     
     
+    FIND TASKS
+    ----------
+    Lists tasks whose name contains the text, ignoring case (shorter than 3 characters:
+    names starting with it). Shows at most 50 matches.
+    
+    Usage:
+    find <text>
+    
+    Example:
+    find backup
+    
+    
     SORT TASKS
     ----------
     Sorts tasks by a chosen parameter.
@@ -0,0 +1,61 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import storage.ExecutionLog;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class HistoryCommand implements Command {
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        ExecutionLog log = scheduler.getExecutionLog();
+        if (log == null) {
+            out.println("Execution history is disabled");
+            return;
+        }
+        if (args.length < 2) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        try {
+            switch (args[1]) {
+                case "--task" -> {
+                    if (args.length < 3) {
+                        out.println("Look up manual \"help\"");
+                        return;
+                    }
+                    int count = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+                    log.flush();
+                    for (ExecutionLog.Run run : log.lastRuns(UUID.fromString(args[2]), count)) {
+                        out.println(run.startedAt().atZone(ZoneId.systemDefault())
+                                + "  " + run.status()
+                                + "  " + run.duration().toMillis() + " ms"
+                                + "  late " + Duration.between(run.scheduledAt(), run.startedAt()).toMillis() + " ms"
+                                + "  " + run.action());
+                    }
+                }
+                case "--actions" -> {
+                    int hours = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+                    log.flush();
+                    Instant since = Instant.now().minus(Duration.ofHours(hours));
+                    for (ExecutionLog.ActionStats stats : log.failureRates(since).values()) {
+                        out.printf("%-15s %6d runs %6d failed %6.1f%%%n", stats.action(), stats.runs(),
+                                stats.failures(), stats.failureRate() * 100);
+                    }
+                }
+                default -> out.println("Look up manual \"help\"");
+            }
+        } catch (IllegalArgumentException e) {
+            out.println("Invalid argument: " + e.getMessage());
+        }
+    }
+}
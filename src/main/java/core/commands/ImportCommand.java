@@ -0,0 +1,44 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import storage.TaskTransfer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ImportCommand implements Command {
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        if (args.length < 2) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        try {
+            TaskTransfer.Conflict conflict = TaskTransfer.Conflict.KEEP;
+            boolean diff = false;
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--on-conflict") && i + 1 < args.length) {
+                    conflict = TaskTransfer.Conflict.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                } else if (args[i].equals("--diff")) {
+                    diff = true;
+                } else {
+                    out.println("Look up manual \"help\"");
+                    return;
+                }
+            }
+            TaskTransfer.Result result = TaskTransfer.importTasks(scheduler, Path.of(args[1]), conflict, diff);
+            out.println("Imported " + args[1] + ": " + result);
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+        } catch (IOException e) {
+            out.println("Import failed: " + e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,8 @@ package core.commands;
 import cli.Command;
 import core.Scheduler;
 
+import java.io.PrintStream;
+
 /**
  * @author Monke Vladyslav
  * @version 1.1
@@ -10,7 +12,7 @@ import core.Scheduler;
 
 public class ListCommand implements Command {
 
-    public void execute(String[] args, Scheduler scheduler) {
-        scheduler.list();
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        scheduler.list(out);
     }
 }
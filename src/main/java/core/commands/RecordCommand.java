@@ -0,0 +1,99 @@
+package core.commands;
+
+import cli.Command;
+import core.Scheduler;
+import core.jfr.RecordingReport;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import storage.Data;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Startet und stoppt eine Flight-Recorder-Aufnahme im Prozess des Schedulers (bei
+ * {@code --connect} also im Daemon) und wertet .jfr-Dateien aus; die Auswertung laeuft im
+ * Client, siehe {@link #runsInClient}. Aufgenommen wird das Profil "default" des JDK; die
+ * {@code tasks.*}-Ereignisse sind ohne Eintrag dort immer an.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class RecordCommand implements Command {
+
+    private static final long LATE_MILLIS = 100;
+
+    // aeltere Teile der Aufnahme fallen weg, damit ein vergessenes "record --stop" die Platte nicht fuellt
+    private static final long MAX_SIZE = 512L * 1024 * 1024;
+
+    // hoechstens eine Aufnahme; Befehle koennen von mehreren Clients gleichzeitig kommen
+    private Recording recording;
+
+    private Path file;
+
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
+        if (args.length < 2) {
+            out.println("Look up manual \"help\"");
+            return;
+        }
+        try {
+            switch (args[1]) {
+                case "--start" -> start(Path.of(args.length > 2 ? args[2] : Data.RECORDING_FILE), out);
+                case "--stop" -> stop(out);
+                case "--report" -> {
+                    if (args.length < 3) {
+                        out.println("Look up manual \"help\"");
+                        return;
+                    }
+                    long lateMillis = args.length > 3 ? Long.parseLong(args[3]) : LATE_MILLIS;
+                    RecordingReport.print(Path.of(args[2]), lateMillis, out);
+                }
+                default -> out.println("Look up manual \"help\"");
+            }
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            out.println("Recording failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Eine Aufnahme bis 512 MB zu lesen dauert Sekunden; nur Start und Stopp gehoeren in den Daemon.
+     */
+    @Override
+    public boolean runsInClient(String[] args) {
+        return args.length > 1 && args[1].equals("--report");
+    }
+
+    private synchronized void start(Path target, PrintStream out) throws IOException, ParseException {
+        if (recording != null) {
+            out.println("Already recording to " + file);
+            return;
+        }
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null) Files.createDirectories(directory);
+        Recording started = new Recording(Configuration.getConfiguration("default"));
+        started.setName("tasks");
+        started.setMaxSize(MAX_SIZE);
+        started.setDestination(target);
+        // beendet sich der Prozess (exit, Daemon gestoppt) vor "record --stop", landet die Aufnahme trotzdem im Ziel
+        started.setDumpOnExit(true);
+        started.start();
+        recording = started;
+        file = target;
+        out.println("Recording to " + target);
+    }
+
+    private synchronized void stop(PrintStream out) {
+        if (recording == null) {
+            out.println("No recording running");
+            return;
+        }
+        // mit Ziel gesetzt schreibt stop() die Datei
+        recording.stop();
+        recording.close();
+        recording = null;
+        out.println("Recording written to " + file);
+    }
+}
@@ -4,6 +4,7 @@ import cli.Command;
 import core.Scheduler;
 import storage.Data;
 
+import java.io.PrintStream;
 import java.util.UUID;
 
 /**
@@ -12,10 +13,10 @@ import java.util.UUID;
  */
 public class RemoveCommand implements Command {
 
-    public void execute(String[] args, Scheduler scheduler) {
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
         StringBuilder name = new StringBuilder();
         if (args.length < 3) {
-            System.out.println("Look up manual \"help\"");
+            out.println("Look up manual \"help\"");
             return;
         }
         for(int i = 2; i < args.length; i++) {
@@ -27,9 +28,10 @@ public class RemoveCommand implements Command {
         }
         switch(args[1]) {
             case "--byName" -> scheduler.remove(name.toString());
+            case "--byPrefix" -> out.println("Removed " + scheduler.removeByPrefix(name.toString()) + " tasks");
             case "--byPriority" -> scheduler.remove(Integer.parseInt(name.toString()));
             case "--byUUID" -> scheduler.remove(UUID.fromString(name.toString()));
         }
-        Data.saveTasks(scheduler);
+        Data.requestSave(scheduler);
     }
 }
\ No newline at end of file
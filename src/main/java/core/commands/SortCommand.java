@@ -4,6 +4,8 @@ import cli.Command;
 import core.Scheduler;
 import storage.Data;
 
+import java.io.PrintStream;
+
 /**
  * @author Monke Vladyslav
  * @version 1.1
@@ -11,15 +13,16 @@ import storage.Data;
 
 public class SortCommand implements Command {
 
-    public void execute(String[] args, Scheduler scheduler) {
+    public void execute(String[] args, Scheduler scheduler, PrintStream out) {
         if (args.length < 2) {
-            System.out.println("Look up manual \"help\"");
+            out.println("Look up manual \"help\"");
+            return;
         }
         switch(args[1]) {
             case "--byName" -> scheduler.sortByName();
             case "--byPriority" -> scheduler.sortByPriority();
             case "--byTime" -> scheduler.sortByTime();
         }
-        Data.saveTasks(scheduler);
+        Data.requestSave(scheduler);
     }
 }
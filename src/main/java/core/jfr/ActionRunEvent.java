@@ -0,0 +1,26 @@
+package core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Dauer des Ereignisses = Laufzeit der Aktion auf dem Worker-Thread.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@Name("tasks.ActionRun")
+@Label("Action Run")
+@Description("An action ran for a task, from start to end")
+public class ActionRunEvent extends TaskEvent {
+
+    @Label("Lateness")
+    @Description("Start time minus due time, by the scheduler clock")
+    @Timespan(Timespan.MILLISECONDS)
+    long lateness;
+
+    @Label("Status")
+    String status;
+}
@@ -0,0 +1,251 @@
+package core.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Auswertung einer .jfr-Datei: Verspaetung beim Uebergeben an den Pool (gesamt und je
+ * Prioritaet), die Aktionen mit der meisten Laufzeit und die verspaeteten Aufgaben mit
+ * dem, was in ihrer Wartezeit sonst passiert ist: GC-Pausen, Speichern des Zeitplans und
+ * langsame Dateizugriffe (so weit die Aufnahme sie enthaelt, z.B. Profil "default").
+ * Liest die Datei einmal der Reihe nach.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class RecordingReport {
+
+    private static final int TOP = 10;
+
+    private final long lateMillis;
+
+    private final Map<Integer, Values> lateness = new HashMap<>();
+
+    private final Values allLateness = new Values();
+
+    private final Map<String, ActionStats> actions = new HashMap<>();
+
+    private final List<Late> late = new ArrayList<>();
+
+    private final Intervals gc = new Intervals();
+
+    private final Intervals saves = new Intervals();
+
+    private final Intervals io = new Intervals();
+
+    private Instant first;
+
+    private Instant last;
+
+    private RecordingReport(long lateMillis) {
+        this.lateMillis = lateMillis;
+    }
+
+    /**
+     * @param lateMillis ab dieser Verspaetung wird eine Aufgabe einzeln untersucht
+     */
+    public static void print(Path file, long lateMillis, PrintStream out) throws IOException {
+        RecordingReport report = new RecordingReport(lateMillis);
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) report.add(recording.readEvent());
+        }
+        report.print(file, out);
+    }
+
+    private void add(RecordedEvent event) {
+        Instant start = event.getStartTime();
+        if (first == null || start.isBefore(first)) first = start;
+        if (last == null || event.getEndTime().isAfter(last)) last = event.getEndTime();
+        switch (event.getEventType().getName()) {
+            case "tasks.TaskDispatched" -> {
+                long value = event.getDuration("lateness").toMillis();
+                allLateness.add(value);
+                lateness.computeIfAbsent((int) event.getByte("priority"), k -> new Values()).add(value);
+                if (value >= lateMillis) {
+                    late.add(new Late(start, value, event.getString("name"), event.getString("action"),
+                            event.getString("tag")));
+                }
+            }
+            case "tasks.ActionRun" -> actions.computeIfAbsent(event.getString("action"), k -> new ActionStats())
+                    .add(event.getDuration().toNanos(), !"SUCCESS".equals(event.getString("status")));
+            case "tasks.TasksSaved" -> saves.add(start, event.getDuration());
+            case "jdk.GarbageCollection" -> gc.add(start, event.getDuration("sumOfPauses"));
+            case "jdk.FileRead", "jdk.FileWrite", "jdk.FileForce" -> io.add(start, event.getDuration());
+            default -> {
+            }
+        }
+    }
+
+    private void print(Path file, PrintStream out) {
+        if (first == null) {
+            out.println("No events in " + file);
+            return;
+        }
+        out.println("Recording " + file + ": " + first.atZone(ZoneId.systemDefault()) + ", "
+                + Duration.between(first, last).toSeconds() + " s");
+        out.println();
+        out.println("Dispatch lateness (" + allLateness.size + " dispatches)");
+        if (allLateness.size > 0) {
+            out.println("  all         " + allLateness.summary());
+            lateness.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry ->
+                    out.println("  priority " + entry.getKey() + "  " + entry.getValue().summary()));
+        }
+        out.println();
+        out.println("Hot actions (by total run time)");
+        actions.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, ActionStats> entry) -> entry.getValue().total).reversed())
+                .limit(TOP)
+                .forEach(entry -> out.println("  " + entry.getValue().summary() + "  " + entry.getKey()));
+        out.println();
+        out.println("GC pauses: " + gc.summary() + "; saves: " + saves.summary() + "; slow file I/O: " + io.summary());
+        out.println();
+        out.println("Dispatches " + lateMillis + " ms or more late: " + late.size());
+        if (late.isEmpty()) return;
+        gc.sort();
+        saves.sort();
+        io.sort();
+        int withGc = 0;
+        int withSave = 0;
+        int withIo = 0;
+        for (Late task : late) {
+            Instant from = task.dispatched.minusMillis(task.lateness);
+            if (gc.overlap(from, task.dispatched) > 0) withGc++;
+            if (saves.overlap(from, task.dispatched) > 0) withSave++;
+            if (io.overlap(from, task.dispatched) > 0) withIo++;
+        }
+        out.println("  while a GC pause ran: " + withGc + ", a save: " + withSave + ", slow file I/O: " + withIo);
+        late.sort(Comparator.comparingLong((Late task) -> task.lateness).reversed());
+        for (Late task : late.subList(0, Math.min(TOP, late.size()))) {
+            Instant from = task.dispatched.minusMillis(task.lateness);
+            out.println("  " + task.dispatched.atZone(ZoneId.systemDefault()).toLocalTime() + "  "
+                    + task.lateness + " ms  " + task.name + " (" + task.action + ", " + task.tag + ")"
+                    + "  gc " + gc.overlap(from, task.dispatched) + " ms, save "
+                    + saves.overlap(from, task.dispatched) + " ms, file I/O " + io.overlap(from, task.dispatched) + " ms");
+        }
+    }
+
+    private record Late(Instant dispatched, long lateness, String name, String action, String tag) {
+    }
+
+    private static final class Values {
+
+        private long[] values = new long[64];
+
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size << 1);
+            values[size++] = value;
+        }
+
+        private String summary() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return String.format("n %7d  p50 %6d ms  p90 %6d ms  p99 %6d ms  max %6d ms", size,
+                    sorted[size / 2], sorted[(int) (size * 0.9)], sorted[(int) (size * 0.99)], sorted[size - 1]);
+        }
+    }
+
+    private static final class ActionStats {
+
+        private long runs;
+
+        private long failed;
+
+        private long total;
+
+        private long max;
+
+        private void add(long nanos, boolean failure) {
+            runs++;
+            if (failure) failed++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        private String summary() {
+            return String.format("%8d runs  total %8d ms  mean %7.1f ms  max %7d ms  failed %5d", runs,
+                    total / 1_000_000, total / 1e6 / runs, max / 1_000_000, failed);
+        }
+    }
+
+    /**
+     * Zeitraeume in Nanosekunden seit der Epoche, zum Ueberschneiden mit Wartezeiten.
+     */
+    private static final class Intervals {
+
+        private long[] starts = new long[64];
+
+        private long[] ends = new long[64];
+
+        private int size;
+
+        private long total;
+
+        private long longest;
+
+        private void add(Instant start, Duration duration) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size << 1);
+                ends = Arrays.copyOf(ends, size << 1);
+            }
+            long from = nanos(start);
+            starts[size] = from;
+            ends[size] = from + duration.toNanos();
+            size++;
+            total += duration.toNanos();
+            longest = Math.max(longest, duration.toNanos());
+        }
+
+        private void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+            long[] sortedStarts = new long[size];
+            long[] sortedEnds = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedStarts[i] = starts[order[i]];
+                sortedEnds[i] = ends[order[i]];
+            }
+            starts = sortedStarts;
+            ends = sortedEnds;
+        }
+
+        /**
+         * @return wie viele ms der Zeitraeume in [from, to] fallen; nach {@link #sort()}
+         */
+        private long overlap(Instant from, Instant to) {
+            long lo = nanos(from);
+            long hi = nanos(to);
+            // nur Zeitraeume, die nach lo - longest beginnen, koennen hineinreichen
+            int i = Arrays.binarySearch(starts, 0, size, lo - longest);
+            if (i < 0) i = -i - 1;
+            long sum = 0;
+            for (; i < size && starts[i] <= hi; i++) {
+                sum += Math.max(0, Math.min(hi, ends[i]) - Math.max(lo, starts[i]));
+            }
+            return sum / 1_000_000;
+        }
+
+        private String summary() {
+            return size + " (total " + total / 1_000_000 + " ms, longest " + longest / 1_000_000 + " ms)";
+        }
+
+        private static long nanos(Instant instant) {
+            return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+        }
+    }
+}
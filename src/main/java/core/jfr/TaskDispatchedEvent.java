@@ -0,0 +1,24 @@
+package core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@Name("tasks.TaskDispatched")
+@Label("Task Dispatched")
+@Description("The task was handed to the pool of its resource class")
+class TaskDispatchedEvent extends TaskEvent {
+
+    @Label("Resource")
+    String resource;
+
+    @Label("Lateness")
+    @Description("Dispatch time minus due time, by the scheduler clock")
+    @Timespan(Timespan.MILLISECONDS)
+    long lateness;
+}
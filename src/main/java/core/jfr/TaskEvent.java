@@ -0,0 +1,54 @@
+package core.jfr;
+
+import core.Task;
+import core.runnable.RunnableRegistry;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * Gemeinsame Felder der Ereignisse zu einer Aufgabe. Ohne Stacktrace, damit ein Ereignis
+ * auch bei laufender Aufnahme billig bleibt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@Category({"Tasks Manager", "Scheduler"})
+@StackTrace(false)
+abstract class TaskEvent extends Event {
+
+    @Label("Task Id")
+    String taskId;
+
+    @Label("Task Name")
+    String name;
+
+    @Label("Action")
+    String action;
+
+    @Label("Priority")
+    byte priority;
+
+    @Label("Tag")
+    String tag;
+
+    @Label("Due")
+    @Description("Execute time of the task; for a retry or after an open circuit breaker the wakeup time")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long due;
+
+    /**
+     * @param action Name der Aktion, null: aus der Registry
+     */
+    void set(Task task, String action) {
+        taskId = task.getId().toString();
+        name = task.getName();
+        this.action = action != null ? action : RunnableRegistry.nameOf(task.getAction());
+        priority = task.getPriority();
+        tag = task.getTag();
+        due = task.getExecuteAT().toEpochMilli();
+    }
+}
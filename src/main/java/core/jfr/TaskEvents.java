@@ -0,0 +1,88 @@
+package core.jfr;
+
+import core.Task;
+
+/**
+ * JFR-Ereignisse des Schedulers ({@code tasks.*}): Timer gesetzt, an den Pool uebergeben,
+ * Lauf der Aktion, neuer Zeitpunkt und Speichern des Zeitplans.
+ * <p>
+ * Ohne laufende Aufnahme mit diesen Ereignissen kostet ein Aufruf nur die Pruefung
+ * {@code isEnabled()}; das Ereignisobjekt wird dann vom JIT wegoptimiert, Namen und Felder
+ * werden erst bei aktivem Ereignis ermittelt.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public final class TaskEvents {
+
+    private TaskEvents() {
+    }
+
+    public static void scheduled(Task task, long delay) {
+        TaskScheduledEvent event = new TaskScheduledEvent();
+        if (!event.isEnabled()) return;
+        event.set(task, null);
+        event.delay = delay;
+        event.commit();
+    }
+
+    /**
+     * @param due Faelligkeit dieses Laufs: Ausfuehrungszeitpunkt oder Weckzeit von Wiederholung bzw. Breaker
+     */
+    public static void dispatched(Task task, String action, String resource, long due, long now) {
+        TaskDispatchedEvent event = new TaskDispatchedEvent();
+        if (!event.isEnabled()) return;
+        event.set(task, action);
+        event.due = due;
+        event.resource = resource;
+        event.lateness = now - due;
+        event.commit();
+    }
+
+    /**
+     * @param reason "next", "retry", "breaker" oder "skipped"
+     */
+    public static void rescheduled(Task task, long next, String reason) {
+        TaskRescheduledEvent event = new TaskRescheduledEvent();
+        if (!event.isEnabled()) return;
+        event.set(task, null);
+        event.next = next;
+        event.reason = reason;
+        event.commit();
+    }
+
+    /**
+     * Direkt vor der Aktion aufrufen; {@link #runEnded} schliesst das Ereignis ab.
+     */
+    public static ActionRunEvent runStarted() {
+        ActionRunEvent event = new ActionRunEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void runEnded(ActionRunEvent event, Task task, String action, long due, long startedAt,
+                                String status) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.set(task, action);
+        event.due = due;
+        event.lateness = startedAt - due;
+        event.status = status;
+        event.commit();
+    }
+
+    public static TasksSavedEvent saveStarted() {
+        TasksSavedEvent event = new TasksSavedEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void saveEnded(TasksSavedEvent event, int tasks, String file, boolean cluster) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.tasks = tasks;
+        event.file = file;
+        event.cluster = cluster;
+        event.commit();
+    }
+}
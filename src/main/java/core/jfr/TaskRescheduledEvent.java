@@ -0,0 +1,23 @@
+package core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timestamp;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@Name("tasks.TaskRescheduled")
+@Label("Task Rescheduled")
+@Description("The task got a new due time: next run, retry, open circuit breaker or skipped run")
+class TaskRescheduledEvent extends TaskEvent {
+
+    @Label("Next")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long next;
+
+    @Label("Reason")
+    String reason;
+}
@@ -0,0 +1,20 @@
+package core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@Name("tasks.TaskScheduled")
+@Label("Task Scheduled")
+@Description("A timer was armed for the task")
+class TaskScheduledEvent extends TaskEvent {
+
+    @Label("Delay")
+    @Timespan(Timespan.MILLISECONDS)
+    long delay;
+}
@@ -0,0 +1,31 @@
+package core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dauer des Ereignisses = Schreiben des Zeitplans bzw. Abgleich im Cluster.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+@Name("tasks.TasksSaved")
+@Label("Tasks Saved")
+@Description("The schedule was written to disk or synchronized with the cluster")
+@Category({"Tasks Manager", "Storage"})
+@StackTrace(false)
+public class TasksSavedEvent extends Event {
+
+    @Label("Tasks")
+    int tasks;
+
+    @Label("File")
+    String file;
+
+    @Label("Cluster")
+    boolean cluster;
+}
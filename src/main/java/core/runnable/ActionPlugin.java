@@ -0,0 +1,34 @@
+package core.runnable;
+
+import core.ActionPolicy;
+import core.ResourceClass;
+
+/**
+ * Aktion aus einem Plugin-Jar.
+ * <p>
+ * Ein Jar im Plugin-Verzeichnis meldet seine Aktionen ueber
+ * {@code META-INF/services/core.runnable.ActionPlugin} an; jede Klasse braucht
+ * einen oeffentlichen Konstruktor ohne Argumente. {@link #name()} ist der Name,
+ * unter dem Aufgaben die Aktion ansprechen, z.B. {@code add <name> backup ...}.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public interface ActionPlugin extends Runnable {
+
+    String name();
+
+    /**
+     * @return Laufzeitgrenzen der Aktion, {@code null} fuer {@link ActionPolicy#DEFAULT}
+     */
+    default ActionPolicy policy() {
+        return null;
+    }
+
+    /**
+     * @return Pool, in dem die Aktion laeuft, {@code null} fuer {@link ResourceClass#IO}
+     */
+    default ResourceClass resource() {
+        return null;
+    }
+}
@@ -0,0 +1,422 @@
+package core.runnable.BackupRunner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inkrementelle Sicherung eines Verzeichnisbaums: {@code backup <quelle> <ziel> [verify]}.
+ * <p>
+ * Im Ziel liegen die Inhalte unter {@code objects/} nach ihrem SHA-256 abgelegt, gleiche
+ * Dateien also nur einmal. {@code current/} bildet den Quellbaum als Hardlinks auf diese
+ * Objekte ab, {@code manifest} merkt sich pro Datei Groesse, Aenderungszeit und Hash.
+ * Ein erneuter Lauf liest nur Dateien, deren Groesse oder Aenderungszeit abweicht; mit
+ * {@code verify} wird jede Datei neu gehasht. Verzeichnisse werden parallel ueber einen
+ * {@link ForkJoinPool} durchlaufen, kopiert wird mit {@link FileChannel#transferTo}.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class BackupRunner implements Runnable {
+
+    private static final int BUFFER = 1 << 18;
+
+    private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER));
+
+    private final Path source;
+
+    private final Path target;
+
+    private final boolean verify;
+
+    private final int parallelism;
+
+    public BackupRunner(Path source, Path target, boolean verify) {
+        this(source, target, verify, Math.max(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public BackupRunner(Path source, Path target, boolean verify, int parallelism) {
+        if (source == null || target == null || parallelism < 1) throw new IllegalArgumentException("Invalid backup");
+        this.source = source.toAbsolutePath().normalize();
+        this.target = target.toAbsolutePath().normalize();
+        if (this.source.equals(this.target) || this.source.startsWith(this.target)) {
+            throw new IllegalArgumentException("Invalid backup target: " + target);
+        }
+        this.verify = verify;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param arguments {@code <quelle> <ziel> [verify]}, Pfade ohne Leerzeichen
+     */
+    public static BackupRunner parse(String arguments) {
+        String[] values = arguments.trim().split("\\s+");
+        if (values.length < 2 || values.length > 3 || (values.length == 3 && !values[2].equals("verify"))) {
+            throw new IllegalArgumentException("Invalid backup: " + arguments);
+        }
+        return new BackupRunner(Path.of(values[0]), Path.of(values[1]), values.length == 3);
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    @Override
+    public void run() {
+        Result result = backup();
+        System.out.println("Backup " + source + " -> " + target + ": " + result);
+        if (result.errors() > 0) {
+            throw new IllegalStateException("Backup of " + source + " finished with " + result.errors() + " errors");
+        }
+    }
+
+    /**
+     * Ein vollstaendiger Lauf. Fehler einzelner Dateien werden gezaehlt, der Rest wird trotzdem gesichert.
+     */
+    public Result backup() {
+        if (!Files.isDirectory(source)) throw new IllegalStateException("Backup source missing: " + source);
+        long begin = System.nanoTime();
+        try {
+            Files.createDirectories(target.resolve("objects"));
+            Files.createDirectories(target.resolve("current"));
+            Run run = new Run(readManifest());
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new DirectoryTask(run, source));
+            } finally {
+                pool.shutdown();
+            }
+            int removed = 0;
+            for (String path : run.previous.keySet()) {
+                if (!run.next.containsKey(path)) {
+                    removeLink(target.resolve("current").resolve(path));
+                    removed++;
+                }
+            }
+            writeManifest(run.next);
+            int pruned = prune(run.next);
+            return new Result(run.files.get(), run.copied.get(), run.deduplicated.get(), run.bytes.get(),
+                    removed, pruned, run.errors.get(), (System.nanoTime() - begin) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void visit(Run run, Path file, BasicFileAttributes attributes) {
+        String path = source.relativize(file).toString();
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Entry known = run.previous.get(path);
+        Path link = target.resolve("current").resolve(path);
+        try {
+            run.files.incrementAndGet();
+            if (!verify && known != null && known.size() == size && known.modified() == modified) {
+                run.next.put(path, known);
+                if (!Files.exists(link)) link(object(known.hash()), link);
+                return;
+            }
+            String hash = hash(file);
+            Path object = object(hash);
+            if (Files.exists(object)) {
+                run.deduplicated.incrementAndGet();
+            } else {
+                copy(file, object, attributes);
+                run.copied.incrementAndGet();
+                run.bytes.addAndGet(size);
+            }
+            if (known == null || !known.hash().equals(hash) || !Files.exists(link)) link(object, link);
+            run.next.put(path, new Entry(hash, size, modified));
+        } catch (IOException e) {
+            run.errors.incrementAndGet();
+            System.out.println("Backup skipped " + file + ": " + e.getMessage());
+            // alter Stand bleibt, sonst verschwindet die Datei aus der Sicherung
+            if (known != null) run.next.put(path, known);
+        }
+    }
+
+    /**
+     * Uebernimmt den alten Stand von {@code path} und allem darunter, wenn es nicht gelesen werden konnte;
+     * sonst loeschen die Aufraeumschritte Verweise und Objekte des ganzen Teilbaums.
+     */
+    private void keep(Run run, Path path) {
+        String relative = source.relativize(path).toString();
+        String prefix = relative + path.getFileSystem().getSeparator();
+        for (Map.Entry<String, Entry> entry : run.previous.entrySet()) {
+            String key = entry.getKey();
+            if (relative.isEmpty() || key.equals(relative) || key.startsWith(prefix)) {
+                // was Kinder schon neu gesichert haben, gilt
+                run.next.putIfAbsent(key, entry.getValue());
+            }
+        }
+    }
+
+    private Path object(String hash) {
+        return target.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = buffers.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Kopiert ohne Umweg ueber den Java-Heap in eine temporaere Datei und benennt sie atomar um.
+     */
+    private static void copy(Path file, Path object, BasicFileAttributes before) throws IOException {
+        Files.createDirectories(object.getParent());
+        Path tmp = object.resolveSibling(object.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long sent = in.transferTo(position, size - position, out);
+                if (sent <= 0) break;
+                position += sent;
+            }
+        }
+        // waehrend des Lesens geaendert: der Inhalt passt nicht mehr zum Hash
+        BasicFileAttributes after = Files.readAttributes(file, BasicFileAttributes.class);
+        if (after.size() != before.size() || !after.lastModifiedTime().equals(before.lastModifiedTime())) {
+            Files.deleteIfExists(tmp);
+            throw new IOException("File changed during backup");
+        }
+        try {
+            Files.move(tmp, object, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // derselbe Inhalt kam parallel ueber eine andere Datei
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Hardlink auf das Objekt; wo das Dateisystem keine kennt, eine Kopie.
+     */
+    private static void link(Path object, Path link) throws IOException {
+        Files.createDirectories(link.getParent());
+        Files.deleteIfExists(link);
+        try {
+            Files.createLink(link, object);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(object, link, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void removeLink(Path link) throws IOException {
+        Files.deleteIfExists(link);
+        // leer gewordene Verzeichnisse mitnehmen
+        Path parent = link.getParent();
+        try {
+            while (parent != null && !parent.getFileName().toString().equals("current")) {
+                Files.delete(parent);
+                parent = parent.getParent();
+            }
+        } catch (IOException ignored) {
+            // nicht leer
+        }
+    }
+
+    /**
+     * Loescht Objekte, auf die das Manifest nicht mehr verweist.
+     */
+    private int prune(Map<String, Entry> manifest) throws IOException {
+        Set<String> live = new HashSet<>();
+        for (Entry entry : manifest.values()) live.add(entry.hash());
+        int pruned = 0;
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(target.resolve("objects"))) {
+            for (Path prefix : prefixes) {
+                if (!Files.isDirectory(prefix)) continue;
+                try (DirectoryStream<Path> objects = Files.newDirectoryStream(prefix)) {
+                    for (Path object : objects) {
+                        if (!live.contains(object.getFileName().toString())) {
+                            Files.delete(object);
+                            pruned++;
+                        }
+                    }
+                }
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Zeilen {@code <hash> <groesse> <aenderung> <pfad>}; der Pfad steht zuletzt und darf Leerzeichen enthalten.
+     */
+    private Map<String, Entry> readManifest() throws IOException {
+        Map<String, Entry> manifest = new ConcurrentHashMap<>();
+        Path file = target.resolve("manifest");
+        if (!Files.exists(file)) return manifest;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ", 4);
+                if (parts.length < 4) continue;
+                manifest.put(parts[3], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+            }
+        }
+        return manifest;
+    }
+
+    private void writeManifest(Map<String, Entry> manifest) throws IOException {
+        Path file = target.resolve("manifest");
+        Path tmp = target.resolve("manifest.tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : manifest.entrySet()) {
+                Entry value = entry.getValue();
+                writer.write(value.hash() + " " + value.size() + " " + value.modified() + " " + entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String toString() {
+        return "backup " + source + " " + target + (verify ? " verify" : "");
+    }
+
+    private record Entry(String hash, long size, long modified) {
+    }
+
+    /**
+     * Zaehler eines Laufs.
+     */
+    public record Result(int files, int copied, int deduplicated, long bytes, int removed, int pruned, int errors,
+                         long millis) {
+
+        @Override
+        public String toString() {
+            return files + " files, " + copied + " copied (" + bytes / (1024 * 1024) + " MB), " + deduplicated
+                    + " deduplicated, " + removed + " removed, " + pruned + " pruned, " + errors + " errors in "
+                    + millis + " ms";
+        }
+    }
+
+    private static final class Run {
+
+        private final Map<String, Entry> previous;
+
+        private final Map<String, Entry> next = new ConcurrentHashMap<>();
+
+        private final AtomicInteger files = new AtomicInteger();
+
+        private final AtomicInteger copied = new AtomicInteger();
+
+        private final AtomicInteger deduplicated = new AtomicInteger();
+
+        private final AtomicInteger errors = new AtomicInteger();
+
+        private final AtomicLong bytes = new AtomicLong();
+
+        private Run(Map<String, Entry> previous) {
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * Ein Verzeichnis: Dateien direkt bearbeiten, Unterverzeichnisse als eigene Aufgaben abzweigen.
+     */
+    private final class DirectoryTask extends RecursiveAction {
+
+        private final Run run;
+
+        private final Path directory;
+
+        private DirectoryTask(Run run, Path directory) {
+            this.run = run;
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> children = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+            List<BasicFileAttributes> attributes = new ArrayList<>();
+            FileVisitor<Path> visitor = new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // bei Tiefe 1 kommen Unterverzeichnisse als Dateien an
+                    if (attrs.isDirectory()) {
+                        if (!file.equals(target)) children.add(new DirectoryTask(run, file));
+                    } else if (attrs.isRegularFile()) {
+                        files.add(file);
+                        attributes.add(attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    run.errors.incrementAndGet();
+                    System.out.println("Backup skipped " + file + ": " + e.getMessage());
+                    keep(run, file);
+                    return FileVisitResult.CONTINUE;
+                }
+            };
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, visitor);
+            } catch (IOException e) {
+                run.errors.incrementAndGet();
+                System.out.println("Backup skipped " + directory + ": " + e.getMessage());
+                keep(run, directory);
+            }
+            // Unterverzeichnisse zuerst abzweigen, damit andere Threads sofort Arbeit haben
+            for (DirectoryTask child : children) child.fork();
+            for (int i = 0; i < files.size(); i++) visit(run, files.get(i), attributes.get(i));
+            for (DirectoryTask child : children) child.join();
+        }
+    }
+}
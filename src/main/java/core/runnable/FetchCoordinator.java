@@ -0,0 +1,125 @@
+package core.runnable;
+
+import core.TokenBucket;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Gemeinsamer Zugang der Aktionen zu externen APIs.
+ * <p>
+ * Gleiche Anfragen (Methode und URI) laufen nur einmal gleichzeitig: wer waehrend
+ * einer laufenden Anfrage kommt, wartet auf deren Antwort (single-flight). Eine
+ * erfolgreiche Antwort bedient ausserdem noch fuer das Fenster der API alle weiteren
+ * gleichen Anfragen, sodass zusammen faellige Aufgaben eine Antwort teilen.
+ * Jede API hat einen {@link TokenBucket}; ist er leer, wartet die Anfrage
+ * hoechstens {@link #MAX_WAIT} und schlaegt sonst fehl, damit Timeout und
+ * RetryPolicy des Schedulers greifen.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class FetchCoordinator {
+
+    public static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static final Map<String, Api> apis = new HashMap<>();
+
+    private static final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    static {
+        // Grenzen der Anbieter: NASA 1000/h pro Key, Pexels 200/h, uselessfacts ohne Angabe
+        apis.put("nasa", new Api(new TokenBucket(10, Duration.ofMillis(3600)), Duration.ofMinutes(10)));
+        apis.put("pexels", new Api(new TokenBucket(5, Duration.ofSeconds(18)), Duration.ofMinutes(5)));
+        apis.put("uselessfacts", new Api(new TokenBucket(5, Duration.ofSeconds(2)), Duration.ofSeconds(5)));
+        apis.put("images", new Api(new TokenBucket(20, Duration.ofMillis(500)), Duration.ofMinutes(1)));
+    }
+
+    private FetchCoordinator() {
+    }
+
+    public static String fetchString(String api, HttpRequest request) throws IOException, InterruptedException {
+        return new String(fetch(api, request), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param api Name der API fuer Ratenbegrenzung und Wiederverwendungsfenster, z.B. "nasa"
+     * @return der Rumpf einer 2xx-Antwort
+     * @throws IOException bei Netzwerkfehlern, anderen Statuscodes oder erschoepftem Kontingent
+     */
+    public static byte[] fetch(String api, HttpRequest request) throws IOException, InterruptedException {
+        Api limits = apis.get(api);
+        if (limits == null) throw new IllegalArgumentException("Unknown api " + api);
+        String key = request.method() + " " + request.uri();
+        long now = System.nanoTime();
+        Flight mine = new Flight();
+        Flight flight = flights.compute(key, (k, current) ->
+                current != null && (!current.result.isDone() || now < current.freshUntil) ? current : mine);
+        if (flight != mine) return await(flight);
+
+        try {
+            if (!limits.bucket.acquire(MAX_WAIT)) {
+                throw new IOException("Rate limit for " + api + " exhausted");
+            }
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("HTTP " + response.statusCode() + " from " + api);
+            }
+            mine.freshUntil = System.nanoTime() + limits.window.toNanos();
+            mine.result.complete(response.body());
+            return response.body();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            // Fehler nicht zwischenspeichern: der naechste Versuch fragt neu
+            flights.remove(key, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (flights.size() > 64) flights.values().removeIf(f -> f.result.isDone() && System.nanoTime() >= f.freshUntil);
+        }
+    }
+
+    public static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .timeout(Duration.ofSeconds(20))
+                .GET()
+                .build();
+    }
+
+    private static byte[] await(Flight flight) throws IOException, InterruptedException {
+        try {
+            return flight.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw new IOException(io.getMessage(), io);
+            if (cause instanceof InterruptedException) throw new IOException("Shared request was interrupted", cause);
+            throw new IOException("Shared request failed: " + cause, cause);
+        }
+    }
+
+    private record Api(TokenBucket bucket, Duration window) {
+    }
+
+    private static class Flight {
+
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        // System.nanoTime(), gesetzt bevor result abgeschlossen wird
+        private volatile long freshUntil;
+    }
+}
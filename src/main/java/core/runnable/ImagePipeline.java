@@ -0,0 +1,206 @@
+package core.runnable;
+
+import storage.Data;
+import storage.ImageCache;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bereitet Bilder fuer Hintergrund und Popups vor: laden, verkleinert dekodieren, auf
+ * Zielgroesse skalieren und als kleines JPEG im {@link ImageCache} ablegen.
+ * <p>
+ * Grosse JPEGs werden schon beim Dekodieren per Subsampling nur in etwa der benoetigten
+ * Aufloesung gelesen, der Rest wird stufenweise halbiert. Mehrere Bilder laufen parallel;
+ * dieselbe Anfrage wird nur einmal gleichzeitig berechnet. Aufgaben rufen {@link #prefetch}
+ * vor ihrem Termin auf und lesen beim Feuern nur noch die fertige Datei.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ImagePipeline {
+
+    public static final long CACHE_BYTES = 200L * 1024 * 1024;
+
+    private static final float QUALITY = 0.9f;
+
+    private static final ImageCache cache = new ImageCache(Path.of(Data.IMAGE_CACHE_DIR), CACHE_BYTES);
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                Thread thread = new Thread(r, "image-pipeline");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final Map<String, CompletableFuture<Path>> pending = new ConcurrentHashMap<>();
+
+    private ImagePipeline() {
+    }
+
+    /**
+     * Bildschirmgroesse fuer Hintergruende; {@code -Dtasks.screen=2560x1440} ueberschreibt sie,
+     * ohne Bildschirm gilt 1920x1080.
+     */
+    public static int[] screenSize() {
+        String configured = System.getProperty("tasks.screen");
+        if (configured != null) {
+            String[] parts = configured.split("x");
+            return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+        }
+        if (!GraphicsEnvironment.isHeadless()) {
+            var mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+            return new int[]{mode.getWidth(), mode.getHeight()};
+        }
+        return new int[]{1920, 1080};
+    }
+
+    /**
+     * Startet die Vorbereitung im Hintergrund. {@code width} bzw. {@code height} 0 heisst: nur die andere Seite zaehlt.
+     */
+    public static CompletableFuture<Path> prefetch(String url, int width, int height) {
+        if (width < 0 || height < 0 || width + height == 0) throw new IllegalArgumentException("Invalid image size");
+        String key = key(url, width, height);
+        Path cached = cache.get(key);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        CompletableFuture<Path> future = pending.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return render(url, width, height, k);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, workers));
+        future.whenComplete((path, error) -> pending.remove(key, future));
+        return future;
+    }
+
+    public static void prefetch(List<String> urls, int width, int height) {
+        for (String url : urls) {
+            prefetch(url, width, height).exceptionally(error -> {
+                System.out.println("Image not prefetched " + url + ": " + error.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Fertige Datei; wurde nicht vorgeladen, wird jetzt auf dem aufrufenden Thread gewartet.
+     */
+    public static Path get(String url, int width, int height) throws IOException {
+        try {
+            return prefetch(url, width, height).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Image not prepared: " + url, e.getCause());
+        }
+    }
+
+    private static Path render(String url, int width, int height, String key) throws IOException, InterruptedException {
+        byte[] data = FetchCoordinator.fetch("images", FetchCoordinator.get(url));
+        BufferedImage image = decode(data, width, height);
+        BufferedImage scaled = scale(image, width, height);
+        Path file = cache.newFile();
+        write(scaled, file);
+        return cache.put(key, file);
+    }
+
+    /**
+     * Liest nur jede n-te Zeile und Spalte, solange das Ergebnis die Zielgroesse noch abdeckt.
+     */
+    private static BufferedImage decode(byte[] data, int width, int height) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) throw new IOException("Unsupported image format");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                double scale = scaleFor(reader.getWidth(0), reader.getHeight(0), width, height);
+                int step = Math.max(1, (int) Math.floor(1 / scale));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Deckt die Zielflaeche ab, ohne zu vergroessern; halbiert stufenweise, damit beim Verkleinern nichts flimmert.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        double scale = scaleFor(image.getWidth(), image.getHeight(), width, height);
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage current = image;
+        do {
+            int w = Math.max(targetWidth, current.getWidth() / 2);
+            int h = Math.max(targetHeight, current.getHeight() / 2);
+            // JPEG kennt keinen Alphakanal, daher immer nach RGB
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, w, h, null);
+            graphics.dispose();
+            current = next;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private static double scaleFor(int sourceWidth, int sourceHeight, int width, int height) {
+        double scale = Math.max(width == 0 ? 0 : (double) width / sourceWidth,
+                height == 0 ? 0 : (double) height / sourceHeight);
+        return Math.min(1, scale);
+    }
+
+    private static void write(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String key(String url, int width, int height) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((url + " " + width + "x" + height).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16) + ".jpg";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package core.runnable.LogCleaner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Aufbewahrungsregeln fuer ein Log-Verzeichnis:
+ * {@code logs <verzeichnis> [glob] [gzip=<alter>] [age=<alter>] [size=<groesse>] [count=<anzahl>]}.
+ * <p>
+ * Dateien, die auf das Glob passen (Standard {@code *.log}), werden ab {@code gzip} komprimiert,
+ * ab {@code age} geloescht; danach werden die aeltesten geloescht, bis hoechstens {@code size}
+ * Bytes und {@code count} Dateien uebrig sind. Komprimierte Dateien zaehlen mit. Das Verzeichnis
+ * wird nur per {@link DirectoryStream} gelesen, nie als Liste; fuer Groesse und Anzahl haelt ein
+ * Durchlauf nur die {@link #BATCH} aeltesten Dateien, sodass der Speicher auch bei Millionen
+ * Dateien gleich bleibt. Komprimiert wird parallel, mit begrenzter Warteschlange.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class LogCleaner implements Runnable {
+
+    public static final int BATCH = 10_000;
+
+    private static final String GZ = ".gz";
+
+    private final Path directory;
+
+    private final String glob;
+
+    private final Duration compressAfter;
+
+    private final Duration deleteAfter;
+
+    private final long maxBytes;
+
+    private final long maxFiles;
+
+    private final int threads;
+
+    public LogCleaner(Path directory, String glob, Duration compressAfter, Duration deleteAfter, long maxBytes,
+                      long maxFiles, int threads) {
+        if (directory == null || glob == null || glob.isBlank() || maxBytes < 0 || maxFiles < 0 || threads < 1) {
+            throw new IllegalArgumentException("Invalid log retention");
+        }
+        this.directory = directory.toAbsolutePath().normalize();
+        this.glob = glob;
+        this.compressAfter = compressAfter;
+        this.deleteAfter = deleteAfter;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.threads = threads;
+    }
+
+    /**
+     * @param arguments {@code <verzeichnis> [glob] [gzip=7d] [age=30d] [size=500m] [count=1000]}
+     */
+    public static LogCleaner parse(String arguments) {
+        String[] values = arguments.trim().split("\\s+");
+        if (values[0].isEmpty()) throw new IllegalArgumentException("Invalid log retention: " + arguments);
+        String glob = "*.log";
+        Duration compress = null;
+        Duration age = null;
+        long size = Long.MAX_VALUE;
+        long count = Long.MAX_VALUE;
+        for (int i = 1; i < values.length; i++) {
+            String value = values[i];
+            int split = value.indexOf('=');
+            String key = split < 0 ? "" : value.substring(0, split);
+            String option = value.substring(split + 1);
+            switch (key) {
+                case "gzip" -> compress = parseAge(option);
+                case "age" -> age = parseAge(option);
+                case "size" -> size = parseSize(option);
+                case "count" -> count = parseCount(option);
+                default -> {
+                    if (i != 1) throw new IllegalArgumentException("Invalid log retention: " + value);
+                    glob = value;
+                }
+            }
+        }
+        return new LogCleaner(Path.of(values[0]), glob, compress, age, size, count,
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void run() {
+        Result result = clean();
+        System.out.println("Logs " + directory + ": " + result);
+        if (result.errors() > 0) {
+            throw new IllegalStateException("Log retention in " + directory + " finished with " + result.errors() + " errors");
+        }
+    }
+
+    public Result clean() {
+        if (!Files.isDirectory(directory)) throw new IllegalStateException("Log directory missing: " + directory);
+        long begin = System.nanoTime();
+        Counters counters = new Counters();
+        try {
+            expireAndCompress(counters);
+            enforceLimits(counters);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Result(counters.scanned.get(), counters.compressed.get(), counters.deleted.get(),
+                counters.freed.get(), counters.errors.get(), (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    /**
+     * Erster Durchlauf: zu alte Dateien loeschen, alte komprimieren.
+     */
+    private void expireAndCompress(Counters counters) throws IOException {
+        long now = System.currentTimeMillis();
+        long deleteBefore = deleteAfter == null ? Long.MIN_VALUE : now - deleteAfter.toMillis();
+        long compressBefore = compressAfter == null ? Long.MIN_VALUE : now - compressAfter.toMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // begrenzt die Warteschlange, sonst staut sich bei Millionen Dateien alles im Speicher
+        Semaphore slots = new Semaphore(threads * 2);
+        try (DirectoryStream<Path> stream = open()) {
+            for (Path file : stream) {
+                BasicFileAttributes attributes = attributes(file);
+                if (attributes == null) continue;
+                counters.scanned.incrementAndGet();
+                long modified = attributes.lastModifiedTime().toMillis();
+                if (modified < deleteBefore) {
+                    delete(file, attributes.size(), counters);
+                } else if (modified < compressBefore && !file.getFileName().toString().endsWith(GZ)) {
+                    slots.acquireUninterruptibly();
+                    pool.execute(() -> {
+                        try {
+                            compress(file, attributes, counters);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                }
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Loescht die aeltesten Dateien, bis Groesse und Anzahl passen. Jeder Durchlauf kennt nur die
+     * {@link #BATCH} aeltesten; reicht das nicht, folgt ein weiterer.
+     */
+    private void enforceLimits(Counters counters) throws IOException {
+        if (maxBytes == Long.MAX_VALUE && maxFiles == Long.MAX_VALUE) return;
+        long files = 0;
+        long bytes = 0;
+        try (DirectoryStream<Path> stream = open()) {
+            for (Path file : stream) {
+                BasicFileAttributes attributes = attributes(file);
+                if (attributes == null) continue;
+                files++;
+                bytes += attributes.size();
+            }
+        }
+        while (files > maxFiles || bytes > maxBytes) {
+            // Max-Heap nach Alter: oben liegt die juengste der gemerkten, die als erste weichen muss
+            PriorityQueue<Candidate> oldest = new PriorityQueue<>(Comparator.comparingLong(Candidate::modified).reversed());
+            try (DirectoryStream<Path> stream = open()) {
+                for (Path file : stream) {
+                    BasicFileAttributes attributes = attributes(file);
+                    if (attributes == null) continue;
+                    long modified = attributes.lastModifiedTime().toMillis();
+                    if (oldest.size() < BATCH) {
+                        oldest.add(new Candidate(file, modified, attributes.size()));
+                    } else if (modified < oldest.peek().modified()) {
+                        oldest.poll();
+                        oldest.add(new Candidate(file, modified, attributes.size()));
+                    }
+                }
+            }
+            if (oldest.isEmpty()) break;
+            List<Candidate> batch = new ArrayList<>(oldest);
+            batch.sort(Comparator.comparingLong(Candidate::modified));
+            boolean progress = false;
+            for (Candidate candidate : batch) {
+                if (files <= maxFiles && bytes <= maxBytes) break;
+                if (delete(candidate.file(), candidate.size(), counters)) {
+                    files--;
+                    bytes -= candidate.size();
+                    progress = true;
+                }
+            }
+            if (!progress) break;
+        }
+    }
+
+    private DirectoryStream<Path> open() throws IOException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return Files.newDirectoryStream(directory, entry -> {
+            Path name = entry.getFileName();
+            String text = name.toString();
+            return matcher.matches(name)
+                    || (text.endsWith(GZ) && matcher.matches(Path.of(text.substring(0, text.length() - GZ.length()))));
+        });
+    }
+
+    private static BasicFileAttributes attributes(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes : null;
+        } catch (IOException e) {
+            // zwischendurch geloescht oder umbenannt
+            return null;
+        }
+    }
+
+    private static boolean delete(Path file, long size, Counters counters) {
+        try {
+            if (!Files.deleteIfExists(file)) return false;
+            counters.deleted.incrementAndGet();
+            counters.freed.addAndGet(size);
+            return true;
+        } catch (IOException e) {
+            counters.errors.incrementAndGet();
+            System.out.println("Log not deleted " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Schreibt {@code name.gz} ueber eine temporaere Datei, uebernimmt die Aenderungszeit und loescht das Original.
+     */
+    private static void compress(Path file, BasicFileAttributes attributes, Counters counters) {
+        Path target = file.resolveSibling(file.getFileName() + GZ);
+        Path tmp = file.resolveSibling(file.getFileName() + GZ + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+                in.transferTo(out);
+            }
+            Files.setLastModifiedTime(tmp, attributes.lastModifiedTime());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(file);
+            counters.compressed.incrementAndGet();
+            counters.freed.addAndGet(attributes.size() - Files.size(target));
+        } catch (IOException e) {
+            counters.errors.incrementAndGet();
+            System.out.println("Log not compressed " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static Duration parseAge(String input) {
+        try {
+            long value = Long.parseLong(input.replaceAll("\\D", ""));
+            return switch (input.replaceAll("\\d", "")) {
+                case "min" -> Duration.ofMinutes(value);
+                case "h" -> Duration.ofHours(value);
+                case "d" -> Duration.ofDays(value);
+                default -> throw new IllegalArgumentException("Invalid age: " + input);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid age: " + input);
+        }
+    }
+
+    private static long parseSize(String input) {
+        try {
+            long value = Long.parseLong(input.replaceAll("\\D", ""));
+            return switch (input.replaceAll("\\d", "").toLowerCase()) {
+                case "", "b" -> value;
+                case "k" -> value << 10;
+                case "m" -> value << 20;
+                case "g" -> value << 30;
+                default -> throw new IllegalArgumentException("Invalid size: " + input);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size: " + input);
+        }
+    }
+
+    private static long parseCount(String input) {
+        try {
+            return Long.parseLong(input);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid count: " + input);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "logs " + directory + " " + glob;
+    }
+
+    private record Candidate(Path file, long modified, long size) {
+    }
+
+    /**
+     * Zaehler eines Laufs; {@code freed} enthaelt auch die Ersparnis durch Komprimieren.
+     */
+    public record Result(long scanned, int compressed, long deleted, long freed, int errors, long millis) {
+
+        @Override
+        public String toString() {
+            return scanned + " scanned, " + compressed + " compressed, " + deleted + " deleted, "
+                    + freed / (1024 * 1024) + " MB freed, " + errors + " errors in " + millis + " ms";
+        }
+    }
+
+    private static final class Counters {
+
+        private final AtomicLong scanned = new AtomicLong();
+
+        private final AtomicInteger compressed = new AtomicInteger();
+
+        private final AtomicLong deleted = new AtomicLong();
+
+        private final AtomicLong freed = new AtomicLong();
+
+        private final AtomicInteger errors = new AtomicInteger();
+    }
+}
@@ -0,0 +1,315 @@
+package core.runnable;
+
+import core.ActionPolicy;
+import core.ResourceClass;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Laedt {@link ActionPlugin}s aus den Jars eines Verzeichnisses in den {@link RunnableRegistry}.
+ * <p>
+ * Jedes Jar bekommt einen eigenen Classloader ueber einer Kopie der Datei, damit das
+ * Original waehrend des Betriebs ersetzt werden kann. Ein {@link WatchService} bemerkt
+ * neue, geaenderte und geloeschte Jars und laedt sie nach, sobald {@link #QUIET} lang
+ * nichts mehr geschrieben wurde. Aufgaben halten nur einen Stellvertreter pro Name und
+ * muessen dafuer nicht neu eingeplant werden. Der alte Classloader wird geschlossen,
+ * sobald keine Aktion aus ihm mehr laeuft.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class PluginLoader {
+
+    public static final Duration QUIET = Duration.ofMillis(500);
+
+    private final Path directory;
+
+    private final Path shadow;
+
+    private final Map<Path, Generation> loaded = new HashMap<>();
+
+    private final AtomicInteger copies = new AtomicInteger();
+
+    private Thread watcher;
+
+    private boolean closed;
+
+    public PluginLoader(Path directory) {
+        this.directory = directory.toAbsolutePath();
+        try {
+            Files.createDirectories(this.directory);
+            this.shadow = Files.createTempDirectory("tasks-plugins");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid plugin directory: " + directory, e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Laedt alle vorhandenen Jars und beobachtet danach das Verzeichnis.
+     */
+    public void start() {
+        for (Path jar : jars()) reload(jar);
+        watcher = new Thread(this::watch, "plugin-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Beendet die Beobachtung, traegt alle Plugin-Aktionen aus, schliesst die Classloader
+     * (laufende Aktionen duerfen noch zu Ende laufen) und loescht die Kopien.
+     */
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (watcher != null) watcher.interrupt();
+        Set<String> names = new HashSet<>();
+        for (Generation generation : loaded.values()) names.addAll(generation.names);
+        RunnableRegistry.replacePlugins(names, Map.of(), Map.of(), Map.of());
+        for (Generation generation : loaded.values()) generation.retire();
+        loaded.clear();
+        // unter Linux darf eine noch offene Kopie geloescht werden, sonst bleibt sie im Temp-Verzeichnis liegen
+        try {
+            try (DirectoryStream<Path> copies = Files.newDirectoryStream(shadow)) {
+                for (Path copy : copies) Files.deleteIfExists(copy);
+            }
+            Files.deleteIfExists(shadow);
+        } catch (IOException e) {
+            System.out.println("Plugin copies not deleted: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Jar-Name -> geladene Aktionen
+     */
+    public synchronized Map<String, Set<String>> plugins() {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (Map.Entry<Path, Generation> entry : loaded.entrySet()) {
+            result.put(entry.getKey().getFileName().toString(), new TreeSet<>(entry.getValue().names));
+        }
+        return result;
+    }
+
+    /**
+     * Laedt ein Jar neu oder entfernt seine Aktionen, wenn es nicht mehr existiert.
+     * Schlaegt das Laden fehl, bleibt der bisherige Stand aktiv.
+     */
+    public synchronized void reload(Path jar) {
+        if (closed) return;
+        jar = jar.toAbsolutePath();
+        Generation old = loaded.get(jar);
+        Generation next = null;
+        Map<String, Runnable> actions = new HashMap<>();
+        Map<String, ActionPolicy> policies = new HashMap<>();
+        Map<String, ResourceClass> resources = new HashMap<>();
+        if (Files.isRegularFile(jar)) {
+            try {
+                next = open(jar);
+                ClassLoader own = next.loader;
+                // der Elternloader liefert seine eigenen Provider mit, nur die aus dem Jar zaehlen
+                for (ServiceLoader.Provider<ActionPlugin> provider : ServiceLoader.load(ActionPlugin.class, own)
+                        .stream().filter(p -> p.type().getClassLoader() == own).toList()) {
+                    ActionPlugin plugin = provider.get();
+                    String name = plugin.name();
+                    if (!accepts(name, jar)) {
+                        System.out.println("Ignoring plugin action \"" + name + "\" from " + jar.getFileName());
+                        continue;
+                    }
+                    actions.put(name, new Binding(name, plugin, next));
+                    if (plugin.policy() != null) policies.put(name, plugin.policy());
+                    if (plugin.resource() != null) resources.put(name, plugin.resource());
+                }
+            } catch (IOException | ServiceConfigurationError | LinkageError | RuntimeException e) {
+                System.out.println("Plugin " + jar.getFileName() + " not loaded: " + e);
+                if (next != null) next.retire();
+                return;
+            }
+            next.names.addAll(actions.keySet());
+        }
+        RunnableRegistry.replacePlugins(old == null ? Set.of() : old.names, actions, policies, resources);
+        if (next != null) {
+            loaded.put(jar, next);
+            System.out.println("Loaded plugin " + jar.getFileName() + ": " + new TreeSet<>(actions.keySet()));
+        } else if (old != null) {
+            loaded.remove(jar);
+            System.out.println("Unloaded plugin " + jar.getFileName());
+        }
+        if (old != null) old.retire();
+    }
+
+    private boolean accepts(String name, Path jar) {
+        if (name == null || name.isBlank() || name.contains("\"") || RunnableRegistry.isBuiltIn(name)) return false;
+        for (Map.Entry<Path, Generation> entry : loaded.entrySet()) {
+            if (!entry.getKey().equals(jar) && entry.getValue().names.contains(name)) return false;
+        }
+        return true;
+    }
+
+    private Generation open(Path jar) throws IOException {
+        Path copy = shadow.resolve(copies.incrementAndGet() + "-" + jar.getFileName());
+        Files.copy(jar, copy, StandardCopyOption.REPLACE_EXISTING);
+        URL[] urls = {copy.toUri().toURL()};
+        return new Generation(new URLClassLoader("plugin-" + jar.getFileName(), urls,
+                RunnableRegistry.class.getClassLoader()), copy);
+    }
+
+    private List<Path> jars() {
+        List<Path> jars = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.jar")) {
+            for (Path jar : stream) jars.add(jar);
+        } catch (IOException e) {
+            System.out.println("Plugin directory not readable: " + e.getMessage());
+        }
+        return jars;
+    }
+
+    private void watch() {
+        try (WatchService service = directory.getFileSystem().newWatchService()) {
+            directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            Set<Path> changed = new LinkedHashSet<>();
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = changed.isEmpty() ? service.take() : service.poll(QUIET.toMillis(), TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // eine Weile still: Kopiervorgaenge sind abgeschlossen
+                    for (Path jar : changed) reload(jar);
+                    changed.clear();
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        changed.addAll(jars());
+                        synchronized (this) {
+                            changed.addAll(loaded.keySet());
+                        }
+                    } else {
+                        Path jar = directory.resolve((Path) event.context());
+                        if (jar.getFileName().toString().endsWith(".jar")) changed.add(jar);
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // beendet
+        } catch (IOException e) {
+            System.out.println("Plugin directory not watched: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ein geladener Stand eines Jars. Zaehlt laufende Aktionen, damit der Classloader
+     * erst nach dem letzten Lauf geschlossen wird.
+     */
+    private static final class Generation {
+
+        private final URLClassLoader loader;
+
+        private final Path copy;
+
+        private final Set<String> names = new HashSet<>();
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private volatile boolean retired;
+
+        private boolean closed;
+
+        private Generation(URLClassLoader loader, Path copy) {
+            this.loader = loader;
+            this.copy = copy;
+        }
+
+        private boolean enter() {
+            active.incrementAndGet();
+            if (!retired) return true;
+            exit();
+            return false;
+        }
+
+        private void exit() {
+            if (active.decrementAndGet() == 0 && retired) close();
+        }
+
+        private void retire() {
+            retired = true;
+            if (active.get() == 0) close();
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            try {
+                loader.close();
+                Files.deleteIfExists(copy);
+            } catch (IOException e) {
+                System.out.println("Plugin classloader not closed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Eintrag im {@link RunnableRegistry} fuer eine Aktion eines bestimmten Stands.
+     */
+    private static final class Binding implements Runnable {
+
+        private final String name;
+
+        private final ActionPlugin plugin;
+
+        private final Generation generation;
+
+        private Binding(String name, ActionPlugin plugin, Generation generation) {
+            this.name = name;
+            this.plugin = plugin;
+            this.generation = generation;
+        }
+
+        @Override
+        public void run() {
+            if (!generation.enter()) {
+                // gerade ersetzt: die neue Version ist schon eingetragen
+                Runnable current = RunnableRegistry.get(name);
+                if (current == null) throw new IllegalStateException("Plugin action not loaded: " + name);
+                current.run();
+                return;
+            }
+            try {
+                plugin.run();
+            } finally {
+                generation.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package core.runnable;
+
+import storage.Data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Startet einen Kindprozess per {@link ProcessBuilder}, z.B. {@code shell <befehl>}.
+ * <p>
+ * Der Prozess schreibt stdout und stderr direkt in seine Ausgabedatei unter
+ * {@value Data#PROCESS_OUTPUT_DIR} (oder ins Leere), stdin wird sofort geschlossen: die JVM
+ * haelt pro Prozess keine Pipe und keinen Lese-Thread. Das Ende meldet {@link Process#onExit()}.
+ * Hoechstens {@link #MAX_PROCESSES} Kindprozesse laufen gleichzeitig
+ * ({@code -Dtasks.processes}); der Scheduler haelt weitere faellige Aufgaben schon vorher
+ * zurueck. Nach dem Timeout oder bei Abbruch wird der Prozess samt Nachkommen beendet, nach
+ * {@link #GRACE} notfalls hart.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ProcessAction implements Runnable {
+
+    public static final int MAX_PROCESSES = Integer.getInteger("tasks.processes", 32);
+
+    public static final Duration GRACE = Duration.ofSeconds(5);
+
+    private static final Semaphore permits = new Semaphore(MAX_PROCESSES, true);
+
+    private final List<String> command;
+
+    private final Duration timeout;
+
+    private final Path output;
+
+    /**
+     * @param timeout {@code null}: warten, bis der Prozess endet oder der Thread unterbrochen wird
+     * @param output  Datei fuer stdout und stderr (angehaengt), {@code null} verwirft die Ausgabe
+     */
+    public ProcessAction(List<String> command, Duration timeout, Path output) {
+        if (command == null || command.isEmpty() || (timeout != null && (timeout.isNegative() || timeout.isZero()))) {
+            throw new IllegalArgumentException("Invalid command");
+        }
+        this.command = List.copyOf(command);
+        this.timeout = timeout;
+        this.output = output;
+    }
+
+    /**
+     * @param arguments Befehlszeile fuer {@code /bin/sh -c}; die Ausgabe landet in einer Datei je Befehl
+     */
+    public static ProcessAction shell(String arguments) {
+        String line = arguments.trim();
+        if (line.isEmpty()) throw new IllegalArgumentException("Invalid command: empty");
+        // SHA-256 statt hashCode: zwei Befehle teilen sich praktisch nie eine Datei
+        String file = "shell-" + HexFormat.of().formatHex(sha256(line), 0, 8) + ".log";
+        return new ProcessAction(List.of("/bin/sh", "-c", line), null, Path.of(Data.PROCESS_OUTPUT_DIR, file));
+    }
+
+    private static byte[] sha256(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Wartet auf einen freien Platz und startet den Prozess. Der Platz wird frei, sobald
+     * {@link Process#onExit()} abschliesst; der Aufrufer muss nicht darauf warten.
+     */
+    public Process start() throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (output == null) {
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        } else {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            append("# " + Instant.now() + " " + String.join(" ", command));
+            builder.redirectOutput(ProcessBuilder.Redirect.appendTo(output.toFile()));
+        }
+        builder.redirectErrorStream(true);
+        permits.acquire();
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        process.getOutputStream().close();
+        process.onExit().whenComplete((exited, error) -> {
+            permits.release();
+            if (output != null) {
+                try {
+                    append("# exit " + exited.exitValue());
+                } catch (IOException e) {
+                    // nur die Fusszeile fehlt
+                }
+            }
+        });
+        return process;
+    }
+
+    /**
+     * @throws IllegalStateException bei Exit-Code ungleich 0, Timeout oder Abbruch
+     */
+    @Override
+    public void run() {
+        Process process;
+        try {
+            process = start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted before start: " + this);
+        }
+        int code;
+        try {
+            code = (timeout == null ? process.onExit().get()
+                    : process.onExit().get(timeout.toMillis(), TimeUnit.MILLISECONDS)).exitValue();
+        } catch (TimeoutException e) {
+            kill(process);
+            throw new IllegalStateException("Command timed out after " + timeout + ": " + this);
+        } catch (InterruptedException e) {
+            kill(process);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Command interrupted: " + this);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Command failed: " + this, e.getCause());
+        }
+        if (code != 0) throw new IllegalStateException("Command exited with " + code + ": " + this);
+    }
+
+    /**
+     * @return wie viele Kindprozesse gerade laufen
+     */
+    public static int running() {
+        return MAX_PROCESSES - permits.availablePermits();
+    }
+
+    /**
+     * Beendet Prozess und Nachkommen, ohne auf sie zu warten; wer nach {@link #GRACE} noch lebt, wird hart beendet.
+     */
+    private static void kill(Process process) {
+        List<ProcessHandle> descendants = process.descendants().toList();
+        descendants.forEach(ProcessHandle::destroy);
+        process.destroy();
+        process.onExit().completeOnTimeout(process, GRACE.toMillis(), TimeUnit.MILLISECONDS).thenRun(() -> {
+            descendants.forEach(ProcessHandle::destroyForcibly);
+            if (process.isAlive()) process.destroyForcibly();
+        });
+    }
+
+    private void append(String line) throws IOException {
+        Files.writeString(output, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", command);
+    }
+}
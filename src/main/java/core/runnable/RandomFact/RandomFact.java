@@ -2,35 +2,28 @@ package core.runnable.RandomFact;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import core.runnable.FetchCoordinator;
 import gui.popups.RandomFactGui;
-import javafx.application.Platform;
 import storage.DOT.RandomFactData;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 
 public class RandomFact implements Runnable {
     public void run() {
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https:uselessfacts.jsph.pl/api/v2/facts/random"))
-                    .GET()
-                    .build();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            String body = FetchCoordinator.fetchString("uselessfacts",
+                    FetchCoordinator.get("https://uselessfacts.jsph.pl/api/v2/facts/random"));
 
             ObjectMapper mapper = new ObjectMapper();
-            JsonNode json = mapper.readTree(response.body());
+            JsonNode json = mapper.readTree(body);
             String fact = json.get("text").asText();
             RandomFactData randomFactData = new RandomFactData(fact);
 
-            Platform.startup(()-> {});
-            Platform.runLater(() -> {
-                RandomFactGui.show(randomFactData);
-            });
-        } catch(Exception e) {
-
+            RandomFactGui.show(randomFactData);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Fact request interrupted", e);
+        } catch (Exception e) {
+            // Fehler an den Scheduler melden, damit Historie und Circuit Breaker sie sehen
+            throw new RuntimeException("Fact request failed: " + e.getMessage(), e);
         }
 //        return fact.replaceAll("\\.", "\n");
     }
@@ -1,24 +1,237 @@
 package core.runnable;
 
+import core.ActionPolicy;
+import core.ResourceClass;
+import core.runnable.BackupRunner.BackupRunner;
+import core.runnable.LogCleaner.LogCleaner;
 import core.runnable.CodingChallange.CodingChallange;
 import core.runnable.RandomFact.RandomFact;
 import core.runnable.SpaceFact.SpaceFact;
 import core.runnable.WallpapersChanger.*;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class RunnableRegistry {
     private static final Map<String, Runnable> runnableMap = new HashMap<>();
 
+    // Umkehrung von runnableMap fuer nameOf; nach dem Start unveraendert
+    private static final Map<Runnable, String> builtInNames = new IdentityHashMap<>();
+
+    private static final Map<String, ActionPolicy> policies = new HashMap<>();
+
+    // Pool je Aktion; fehlt sie, gilt IO
+    private static final Map<String, ResourceClass> resources = new HashMap<>();
+
+    // Aktionen mit Argumenten, z.B. "backup /home/me /mnt/backup": erstes Wort -> Fabrik fuer den Rest
+    private static final Map<String, Function<String, Runnable>> factories = new HashMap<>();
+
+    // nur solange eine Aufgabe die Konfiguration nutzt, siehe release
+    private static final Map<String, Runnable> configured = new ConcurrentHashMap<>();
+
+    // Plugin-Aktionen: unveraenderliche Maps, die beim Nachladen als Ganzes ersetzt werden
+    private static volatile Map<String, Runnable> plugins = Map.of();
+
+    private static volatile Map<String, ActionPolicy> pluginPolicies = Map.of();
+
+    private static volatile Map<String, ResourceClass> pluginResources = Map.of();
+
+    // ein fester Stellvertreter pro Plugin-Name, damit Aufgaben ein Nachladen ueberstehen
+    private static final Map<String, PluginProxy> proxies = new ConcurrentHashMap<>();
+
     static {
         runnableMap.put("space fact", new SpaceFact());
         runnableMap.put("random fact",new RandomFact());
         runnableMap.put("coding", new CodingChallange());
         runnableMap.put("hello world", new HelloWorldTest());
         runnableMap.put("wallpaper", new WallpaperChanger());
+        // holt die URL-Liste; "add wallpaper" legt sie als Voraussetzung an
+        runnableMap.put("wallpaper helper", new WallpaperHelper());
+        runnableMap.forEach((name, action) -> builtInNames.put(action, name));
+
+        factories.put("backup", BackupRunner::parse);
+        factories.put("logs", LogCleaner::parse);
+        factories.put("shell", ProcessAction::shell);
+
+        policies.put("space fact", new ActionPolicy(Duration.ofSeconds(30), 2, 3, Duration.ofMinutes(15)));
+        policies.put("random fact", new ActionPolicy(Duration.ofSeconds(30), 2, 3, Duration.ofMinutes(15)));
+        policies.put("wallpaper", new ActionPolicy(Duration.ofMinutes(2), 1, 3, Duration.ofHours(1)));
+        policies.put("backup", new ActionPolicy(Duration.ofHours(6), 1, 3, Duration.ofHours(1)));
+        policies.put("logs", new ActionPolicy(Duration.ofHours(1), 1, 3, Duration.ofHours(1)));
+
+        resources.put("space fact", ResourceClass.NETWORK);
+        resources.put("random fact", ResourceClass.NETWORK);
+        resources.put("coding", ResourceClass.CPU);
+        resources.put("hello world", ResourceClass.CPU);
+        // Download, Datei schreiben und gsettings starten: blockiert wie Platte
+        resources.put("wallpaper", ResourceClass.IO);
+        resources.put("wallpaper helper", ResourceClass.IO);
+        resources.put("backup", ResourceClass.IO);
+        resources.put("logs", ResourceClass.IO);
+        resources.put("shell", ResourceClass.PROCESS);
     }
 
+    /**
+     * Fuer gespeicherte Aufgaben: ein unbekannter Name ohne Leerzeichen gilt als Plugin, das gerade
+     * fehlt (Jar nicht da oder nicht ladbar). Der Stellvertreter behaelt den Namen beim Speichern
+     * und scheitert mit "Plugin action not loaded", bis das Plugin wieder geladen ist.
+     *
+     * @return null nur fuer unbekannte Aktionen mit Argumenten
+     * @throws IllegalArgumentException wenn die Argumente einer parametrisierten Aktion ungueltig sind
+     */
     public static Runnable get(String name) {
-        return runnableMap.get(name);
+        Runnable action = find(name);
+        if (action != null || name.isEmpty() || name.indexOf(' ') >= 0) return action;
+        return proxies.computeIfAbsent(name, PluginProxy::new);
+    }
+
+    /**
+     * Wie {@link #get}, aber ohne Stellvertreter: null fuer alles, was jetzt nicht bekannt ist; fuer neue Aufgaben.
+     *
+     * @throws IllegalArgumentException wenn die Argumente einer parametrisierten Aktion ungueltig sind
+     */
+    public static Runnable find(String name) {
+        Runnable action = runnableMap.get(name);
+        if (action != null) return action;
+        if (plugins.containsKey(name)) return proxies.computeIfAbsent(name, PluginProxy::new);
+        int space = name.indexOf(' ');
+        Function<String, Runnable> factory = space < 0 ? null : factories.get(name.substring(0, space));
+        if (factory == null) return null;
+        // eine Instanz pro Konfiguration; sie traegt ihren Namen fuer nameOf und die Guards
+        return configured.computeIfAbsent(name, key -> new Configured(key, factory.apply(key.substring(space + 1))));
+    }
+
+    /**
+     * @return true fuer Aktionen mit Argumenten, die {@link #release} wieder vergessen kann
+     */
+    public static boolean isConfigured(Runnable action) {
+        return action instanceof Configured;
+    }
+
+    /**
+     * Vom {@link core.Scheduler}, wenn die letzte Aufgabe mit dieser Aktion entfernt wurde. Sie faellt
+     * aus {@link #names()}; ein spaeteres {@link #get} legt sie neu an. Noch laufende Aufgaben behalten
+     * die alte Instanz samt Namen.
+     */
+    public static void release(Runnable action) {
+        if (action instanceof Configured configuredAction) configured.remove(configuredAction.name, configuredAction);
+    }
+
+    public static Set<String> names() {
+        Set<String> names = new TreeSet<>(runnableMap.keySet());
+        names.addAll(plugins.keySet());
+        names.addAll(configured.keySet());
+        return names;
+    }
+
+    public static boolean isBuiltIn(String name) {
+        return runnableMap.containsKey(name);
+    }
+
+    public static ActionPolicy policyOf(String name) {
+        ActionPolicy policy = policies.get(name);
+        if (policy != null) return policy;
+        int space = name.indexOf(' ');
+        if (space > 0 && factories.containsKey(name.substring(0, space))) {
+            return policies.getOrDefault(name.substring(0, space), ActionPolicy.DEFAULT);
+        }
+        return pluginPolicies.getOrDefault(name, ActionPolicy.DEFAULT);
+    }
+
+    /**
+     * @return Pool, in dem die Aktion laeuft; unbekannte Aktionen blockieren im Zweifel wie IO
+     */
+    public static ResourceClass resourceOf(String name) {
+        ResourceClass resource = resources.get(name);
+        if (resource != null) return resource;
+        int space = name.indexOf(' ');
+        if (space > 0 && factories.containsKey(name.substring(0, space))) {
+            return resources.getOrDefault(name.substring(0, space), ResourceClass.IO);
+        }
+        return pluginResources.getOrDefault(name, ResourceClass.IO);
+    }
+
+    /**
+     * @return der Registrierungsname der Aktion, sonst {@code toString()} bzw. "null"
+     */
+    public static String nameOf(Runnable action) {
+        if (action instanceof PluginProxy proxy) return proxy.name;
+        if (action instanceof Configured configuredAction) return configuredAction.name;
+        String name = builtInNames.get(action);
+        return name != null ? name : String.valueOf(action);
+    }
+
+    /**
+     * Ersetzt Plugin-Aktionen copy-on-write: Leser sehen entweder den alten oder den neuen Stand, nie einen halben.
+     */
+    static synchronized void replacePlugins(Set<String> removed, Map<String, Runnable> added,
+                                            Map<String, ActionPolicy> addedPolicies,
+                                            Map<String, ResourceClass> addedResources) {
+        Map<String, Runnable> nextPlugins = new HashMap<>(plugins);
+        Map<String, ActionPolicy> nextPolicies = new HashMap<>(pluginPolicies);
+        Map<String, ResourceClass> nextResources = new HashMap<>(pluginResources);
+        nextPlugins.keySet().removeAll(removed);
+        nextPolicies.keySet().removeAll(removed);
+        nextResources.keySet().removeAll(removed);
+        nextPlugins.putAll(added);
+        nextPolicies.putAll(addedPolicies);
+        nextResources.putAll(addedResources);
+        pluginPolicies = Map.copyOf(nextPolicies);
+        pluginResources = Map.copyOf(nextResources);
+        plugins = Map.copyOf(nextPlugins);
+    }
+
+    /**
+     * Loest den Namen bei jedem Lauf neu auf und fuehrt so immer die zuletzt geladene Version aus.
+     */
+    private static final class PluginProxy implements Runnable {
+
+        private final String name;
+
+        private PluginProxy(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            Runnable action = plugins.get(name);
+            if (action == null) throw new IllegalStateException("Plugin action not loaded: " + name);
+            action.run();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Aktion mit Argumenten samt ihrem Namen, damit nameOf nicht suchen muss.
+     */
+    private static final class Configured implements Runnable {
+
+        private final String name;
+
+        private final Runnable action;
+
+        private Configured(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            action.run();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
     }
 }
@@ -2,49 +2,86 @@ package core.runnable.SpaceFact;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import core.Prefetching;
+import core.runnable.FetchCoordinator;
+import core.runnable.ImagePipeline;
 import gui.popups.SpaceFactGui;
-import javafx.application.Platform;
 import storage.DOT.SpaceFactData;
 import java.io.BufferedReader;
 import java.io.FileReader;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
-public class SpaceFact implements Runnable {
+public class SpaceFact implements Runnable, Prefetching {
 
-    public void run() {
-        try {
-            HttpClient client = HttpClient.newHttpClient();
-            BufferedReader bufferedReader = new BufferedReader(new FileReader("/home/stormrize/secure/nasaAPI"));
-            String apiKey = bufferedReader.readLine();
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI("https://api.nasa.gov/planetary/apod?api_key=" + apiKey))
-                    .GET()
-                    .build();
+    private static final Duration LEAD = Duration.ofMinutes(10);
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    // vorbereitetes Popup; aelter als zweimal LEAD gilt es als veraltet
+    private volatile Prepared prepared;
 
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response.body());
-
-            String title = jsonNode.get("title").asText();
-            String explanation = jsonNode.get("explanation").asText();
-            String description = explanation.replaceAll("([.!?])\\s*", "$1\n");
-            String url = jsonNode.get("url").asText();
+    private record Prepared(SpaceFactData data, Instant fetchedAt) {
+    }
 
-            SpaceFactData data = new SpaceFactData(title, description, url);
+    public Duration lead() {
+        return LEAD;
+    }
 
-            Platform.startup(() -> {});
-            Platform.runLater(() -> {
-                SpaceFactGui.show(data);
-            });
+    /**
+     * Holt Text und Bild schon vor dem Termin; das Bild liegt dann skaliert im Cache.
+     */
+    public void prefetch() throws IOException, InterruptedException {
+        prepared = new Prepared(fetch(true), Instant.now());
+    }
 
+    public void run() {
+        try {
+            Prepared ready = prepared;
+            prepared = null;
+            SpaceFactData data = ready != null && ready.fetchedAt().isAfter(Instant.now().minus(LEAD.multipliedBy(2)))
+                    ? ready.data() : fetch(false);
+            SpaceFactGui.show(data);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Fact request interrupted", e);
         } catch (Exception e) {
-            e.printStackTrace();
+            // Fehler an den Scheduler melden, damit Historie und Circuit Breaker sie sehen
+            throw new RuntimeException("Fact request failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param waitForImage true: auf das skalierte Bild warten; sonst zeigt das Popup die entfernte
+     *                     URL (laedt im Hintergrund) und das Bild wird nur fuer spaeter vorbereitet
+     */
+    private SpaceFactData fetch(boolean waitForImage) throws IOException, InterruptedException {
+        String apiKey;
+        try (BufferedReader bufferedReader = new BufferedReader(new FileReader("/home/stormrize/secure/nasaAPI"))) {
+            apiKey = bufferedReader.readLine();
         }
+        String body = FetchCoordinator.fetchString("nasa",
+                FetchCoordinator.get("https://api.nasa.gov/planetary/apod?api_key=" + apiKey));
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode jsonNode = mapper.readTree(body);
 
-//        return jsonNode;
+        String title = jsonNode.get("title").asText();
+        String explanation = jsonNode.get("explanation").asText();
+        String description = explanation.replaceAll("([.!?])\\s*", "$1\n");
+        String url = jsonNode.get("url").asText();
+        if ("image".equals(jsonNode.path("media_type").asText("image"))) {
+            if (waitForImage) {
+                // das Popup liest dann nur eine kleine lokale Datei
+                try {
+                    url = ImagePipeline.get(url, SpaceFactGui.IMAGE_WIDTH, 0).toUri().toString();
+                } catch (IOException e) {
+                    System.out.println("Space image not cached: " + e.getMessage());
+                }
+            } else {
+                ImagePipeline.prefetch(List.of(url), SpaceFactGui.IMAGE_WIDTH, 0);
+            }
+        }
+        return new SpaceFactData(title, description, url);
     }
 }
@@ -1,40 +1,69 @@
 package core.runnable.WallpapersChanger;
 
 
+import core.runnable.ImagePipeline;
+import core.runnable.ProcessAction;
+import storage.Data;
+
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WallpaperChanger implements Runnable{
+
+    // so viele folgende Bilder liegen nach jedem Wechsel schon fertig skaliert im Cache
+    private static final int AHEAD = 2;
+
+    private static final Duration GSETTINGS_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final AtomicInteger next = new AtomicInteger();
+
     public void run() {
-        int targetLine = 0;
+        List<String> urls = urls();
+        if (urls.isEmpty()) throw new IllegalStateException("No wallpaper URLs in " + Data.WALLPAPER_URLS);
+        int turn = next.getAndIncrement();
+        int[] screen = ImagePipeline.screenSize();
+        // abwechselnd zwei Dateien, sonst laedt GNOME bei gleicher URI nicht neu
+        Path target = Path.of("/home/stormrize/Pictures/wallpapersTaskManager/wallpaper" + turn % 2 + ".jpg");
         try {
-            String imageUrl = Files.lines(Paths.get("/home/stormrize/Pictures/wallpapers/UrlOfImages"))
-                    .skip(targetLine)
-                    .findFirst()
-                    .orElse(null);
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(imageUrl)).build();
-            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
-            java.nio.file.Files.write(
-                    java.nio.file.Paths.get("/home/stormrize/Pictures/wallpapersTaskManager/wallpaper0" + targetLine +".jpg"),
-                    response.body()
-            );
-        } catch (IOException | InterruptedException e) {
+            Path image = ImagePipeline.get(urls.get(turn % urls.size()), screen[0], screen[1]);
+            Files.createDirectories(target.getParent());
+            Files.copy(image, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        String command = "gsettings set org.gnome.desktop.background picture-uri-dark " +
-                "\"file:///home/stormrize/Pictures/wallpapersTaskManager/wallpaper" + targetLine + "\"";
+        prefetch(urls);
+
+        new ProcessAction(List.of("gsettings", "set", "org.gnome.desktop.background", "picture-uri-dark",
+                target.toUri().toString()), GSETTINGS_TIMEOUT, null).run();
+        System.out.println("Wallpaper changed!");
+    }
+
+    /**
+     * Bereitet die naechsten Bilder im Hintergrund vor.
+     */
+    static void prefetch(List<String> urls) {
+        if (urls.isEmpty()) return;
+        int[] screen = ImagePipeline.screenSize();
+        List<String> ahead = new ArrayList<>();
+        for (int i = 0; i < Math.min(AHEAD, urls.size()); i++) {
+            ahead.add(urls.get((next.get() + i) % urls.size()));
+        }
+        ImagePipeline.prefetch(ahead, screen[0], screen[1]);
+    }
 
+    static List<String> urls() {
         try {
-            Runtime.getRuntime().exec(command);
-            System.out.println("Wallpaper changed!");
+            List<String> urls = new ArrayList<>(Files.readAllLines(Path.of(Data.WALLPAPER_URLS)));
+            urls.removeIf(String::isBlank);
+            return urls;
         } catch (IOException e) {
-            e.printStackTrace();
+            return List.of();
         }
     }
 }
@@ -6,5 +6,6 @@ public class WallpaperHelper implements Runnable {
     public  void run() {
         Data.deleteWallpapersURL();
         Data.saveWallpapersURL("space", 2);
+        WallpaperChanger.prefetch(WallpaperChanger.urls());
     }
 }
\ No newline at end of file
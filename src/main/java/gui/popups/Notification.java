@@ -0,0 +1,31 @@
+package gui.popups;
+
+import javafx.scene.Node;
+
+/**
+ * Eine Seite eines Popups. Seiten derselben {@link #kind()} teilen sich ein Fenster und
+ * werden dort durchgeblaettert; {@link #render()} laeuft erst, wenn die Seite angezeigt wird.
+ */
+public interface Notification {
+
+    String kind();
+
+    String title();
+
+    Node render();
+
+    default double width() {
+        return 400;
+    }
+
+    default double height() {
+        return 200;
+    }
+
+    /**
+     * @return {@code true} fuer die rechte untere Bildschirmecke, sonst mittig
+     */
+    default boolean corner() {
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package gui.popups;
+
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Zeigt Popups aus beliebigen Threads an.
+ * <p>
+ * Alles, was innerhalb von {@link #WINDOW} nach der ersten Meldung eintrifft, geht als ein
+ * einziger Auftrag an den FX-Thread und landet als weitere Seiten im Fenster seiner Art
+ * ({@link PopupStage}). So erzeugt eine Welle faelliger Aufgaben weder eine Welle von Fenstern
+ * noch eine Welle von {@code runLater}-Aufrufen. Das JavaFX-Toolkit wird einmalig gestartet,
+ * falls nicht schon die GUI laeuft.
+ */
+public class Notifications {
+
+    public static final Duration WINDOW = Duration.ofMillis(500);
+
+    private static final ConcurrentLinkedQueue<Notification> queue = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicBoolean flushPending = new AtomicBoolean();
+
+    private static final AtomicBoolean toolkit = new AtomicBoolean();
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "notifications");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // nur auf dem FX-Thread
+    private static final Map<String, PopupStage> stages = new HashMap<>();
+
+    private Notifications() {
+    }
+
+    public static void post(Notification notification) {
+        queue.add(notification);
+        // nur die erste Meldung eines Fensters plant die Auslieferung
+        if (flushPending.compareAndSet(false, true)) {
+            timer.schedule(Notifications::flush, WINDOW.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void flush() {
+        flushPending.set(false);
+        Map<String, List<Notification>> batch = new LinkedHashMap<>();
+        Notification notification;
+        while ((notification = queue.poll()) != null) {
+            batch.computeIfAbsent(notification.kind(), kind -> new ArrayList<>()).add(notification);
+        }
+        if (batch.isEmpty()) return;
+        startToolkit();
+        Platform.runLater(() -> {
+            for (List<Notification> pages : batch.values()) {
+                stages.computeIfAbsent(pages.getFirst().kind(), kind -> new PopupStage(pages.getFirst())).add(pages);
+            }
+        });
+    }
+
+    private static void startToolkit() {
+        if (!toolkit.compareAndSet(false, true)) return;
+        try {
+            Platform.startup(() -> {});
+            // eigenes Toolkit: das Schliessen des letzten Popups darf es nicht beenden
+            Platform.setImplicitExit(false);
+        } catch (IllegalStateException ignored) {
+            // Toolkit laeuft schon, z.B. in der GUI
+        }
+    }
+}
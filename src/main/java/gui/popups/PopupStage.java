@@ -0,0 +1,102 @@
+package gui.popups;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wiederverwendetes Fenster fuer alle Popups einer Art. Neue Seiten werden angehaengt statt
+ * ein weiteres Fenster zu oeffnen; Schliessen versteckt es nur. Alles nur auf dem FX-Thread.
+ */
+class PopupStage {
+
+    // aeltere Seiten fallen heraus, damit ein Dauerfeuer den Speicher nicht fuellt
+    static final int MAX_PAGES = 100;
+
+    private final Stage stage = new Stage();
+
+    private final BorderPane root = new BorderPane();
+
+    private final Label position = new Label();
+
+    private final Button previous = new Button("<");
+
+    private final Button next = new Button(">");
+
+    private final List<Notification> pages = new ArrayList<>();
+
+    private int index;
+
+    PopupStage(Notification first) {
+        previous.setOnAction(event -> show(index - 1));
+        next.setOnAction(event -> show(index + 1));
+        Button close = new Button("Close");
+        close.setOnAction(event -> hide());
+        HBox navigation = new HBox(10, previous, position, next, close);
+        navigation.setAlignment(Pos.CENTER);
+        navigation.setPadding(new Insets(5));
+        root.setBottom(navigation);
+
+        Scene scene = new Scene(root, first.width(), first.height());
+        stage.setScene(scene);
+        stage.setOnCloseRequest(event -> {
+            event.consume();
+            hide();
+        });
+        if (first.corner()) {
+            Rectangle2D bounds = Screen.getPrimary().getVisualBounds();
+            stage.setX(bounds.getMaxX() - first.width());
+            stage.setY(bounds.getMaxY() - first.height());
+        }
+    }
+
+    void add(List<Notification> batch) {
+        boolean wasEmpty = pages.isEmpty();
+        pages.addAll(batch);
+        int overflow = pages.size() - MAX_PAGES;
+        if (overflow > 0) {
+            pages.subList(0, overflow).clear();
+            index = Math.max(0, index - overflow);
+        }
+        if (wasEmpty || !stage.isShowing()) {
+            // erste neue Seite
+            show(Math.max(0, pages.size() - batch.size()));
+            stage.show();
+        } else {
+            // die gerade gelesene Seite bleibt, nur der Zaehler waechst
+            updateNavigation();
+        }
+    }
+
+    private void show(int page) {
+        if (page < 0 || page >= pages.size()) return;
+        index = page;
+        Notification notification = pages.get(page);
+        root.setCenter(notification.render());
+        stage.setTitle(notification.title());
+        updateNavigation();
+    }
+
+    private void updateNavigation() {
+        position.setText((index + 1) + " / " + pages.size());
+        previous.setDisable(index == 0);
+        next.setDisable(index >= pages.size() - 1);
+    }
+
+    private void hide() {
+        stage.hide();
+        pages.clear();
+        root.setCenter(null);
+        index = 0;
+    }
+}
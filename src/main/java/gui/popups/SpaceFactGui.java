@@ -1,40 +1,59 @@
 package gui.popups;
 
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
-import javafx.stage.Stage;
 import storage.DOT.SpaceFactData;
 
 public class SpaceFactGui {
 
+    public static final int IMAGE_WIDTH = 600;
+
     public static void show(SpaceFactData data) {
-        Stage stage = new Stage();
+        Notifications.post(new Notification() {
+            public String kind() {
+                return "space fact";
+            }
+
+            public String title() {
+                return "Space Fact";
+            }
+
+            public Node render() {
+                VBox vbox = new VBox(10);
 
-        VBox vbox = new VBox(10);
+                Text title = new Text(data.getTitle());
+                title.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
 
-        Text title = new Text(data.getTitle());
-        title.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
+                Text description = new Text(data.getDescription());
+                description.setWrappingWidth(600);
+                description.setStyle("-fx-font-size: 18px;");
 
-        Text description = new Text(data.getDescription());
-        description.setWrappingWidth(600);
-        description.setStyle("-fx-font-size: 18px;");
+                // im Hintergrund laden, das Fenster erscheint sofort
+                ImageView imageView = new ImageView(new Image(data.getUri(), IMAGE_WIDTH, 0, true, true, true));
+                imageView.setFitWidth(IMAGE_WIDTH);
+                imageView.setPreserveRatio(true);
 
-        ImageView imageView = new ImageView(new Image(data.getUri()));
-        imageView.setFitWidth(600);
-        imageView.setPreserveRatio(true);
+                vbox.getChildren().addAll(title, imageView, description);
 
-        vbox.getChildren().addAll(title, imageView, description);
+                vbox.setAlignment(Pos.CENTER);
+                return vbox;
+            }
 
-        vbox.setAlignment(Pos.CENTER);
+            public double width() {
+                return 800;
+            }
 
-        Scene scene = new Scene(vbox, 800, 1080);
+            public double height() {
+                return 1080;
+            }
 
-        stage.setScene(scene);
-        stage.setTitle("Space Fact");
-        stage.show();
+            public boolean corner() {
+                return false;
+            }
+        });
     }
 }
\ No newline at end of file
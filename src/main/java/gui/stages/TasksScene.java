@@ -1,6 +1,7 @@
 package gui.stages;
 
 import gui.stages.commands.AddCommand;
+import gui.stages.commands.FindCommand;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -18,7 +19,7 @@ public class TasksScene {
         });
         Button info = new Button("Task list");
         info.setOnMouseClicked(mouseEvent -> {
-
+            stage.setScene(FindCommand.findCommandScene(stage));
         });
         Button remove = new Button("Remove Task");
         remove.setOnMouseClicked(mouseEvent -> {
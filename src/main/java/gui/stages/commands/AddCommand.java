@@ -1,13 +1,18 @@
 package gui.stages.commands;
 
-import cli.CommandRegistry;
+import cli.DaemonClient;
+import core.runnable.RunnableRegistry;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 
+import java.io.IOException;
+
 public class AddCommand {
 
     public static Scene addCommandScene() {
@@ -21,20 +26,47 @@ public class AddCommand {
         TextField executeAt = new TextField();
         executeAt.setPromptText("When should it be executed <s;min,h,days>");
 
+        ChoiceBox<String> action = new ChoiceBox<>();
+        action.getItems().addAll(RunnableRegistry.names());
+
+        TextField tag = new TextField();
+        tag.setPromptText("Tag (optional)");
+
         Button add = new Button("Add Task");
 
+        Label result = new Label();
+
         add.setOnAction(e -> {
 
             String command =
-                    "add --n " + taskName.getText()
-                            + " --pr " + priority.getValue()
-                            + " --in " + executeAt.getText();
+                    "add --name " + taskName.getText()
+                            + " --priority " + priority.getValue()
+                            + " --in " + executeAt.getText()
+                            + " --action " + action.getValue()
+                            + (tag.getText().isBlank() ? "" : " --tag " + tag.getText().trim());
 
-            CommandRegistry.get(command);
+            // nicht auf dem FX-Thread auf den Daemon warten
+            add.setDisable(true);
+            Thread send = new Thread(() -> {
+                String text;
+                try (DaemonClient client = new DaemonClient()) {
+                    String output = client.send(command).output();
+                    text = output.isBlank() ? "Task added" : output;
+                } catch (IOException ex) {
+                    text = "Scheduler daemon is not running: " + ex.getMessage();
+                }
+                String shown = text;
+                Platform.runLater(() -> {
+                    result.setText(shown);
+                    add.setDisable(false);
+                });
+            });
+            send.setDaemon(true);
+            send.start();
         });
 
         VBox root = new VBox(20);
-        root.getChildren().addAll(taskName, priority, executeAt, add);
+        root.getChildren().addAll(taskName, priority, executeAt, action, tag, add, result);
         root.setAlignment(Pos.CENTER);
 
         Scene scene = new Scene(root, 1500, 1000);
@@ -44,4 +76,4 @@ public class AddCommand {
 
         return scene;
     }
-}
\ No newline at end of file
+}
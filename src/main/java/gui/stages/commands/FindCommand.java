@@ -0,0 +1,74 @@
+package gui.stages.commands;
+
+import cli.DaemonClient;
+import gui.stages.TasksScene;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FindCommand {
+
+    public static Scene findCommandScene(Stage stage) {
+
+        TextField query = new TextField();
+        query.setPromptText("Search task names");
+
+        ListView<String> results = new ListView<>();
+
+        // erst suchen, wenn 150 ms nicht mehr getippt wurde
+        PauseTransition pause = new PauseTransition(Duration.millis(150));
+        // nur die Antwort auf die letzte Eingabe anzeigen
+        AtomicLong latest = new AtomicLong();
+
+        pause.setOnFinished(e -> {
+            String text = query.getText().trim();
+            long request = latest.incrementAndGet();
+            if (text.isEmpty()) {
+                results.getItems().clear();
+                return;
+            }
+            Thread search = new Thread(() -> {
+                List<String> lines;
+                try (DaemonClient client = new DaemonClient()) {
+                    lines = client.send("find " + text).output().lines().toList();
+                } catch (IOException ex) {
+                    lines = List.of("Scheduler daemon is not running: " + ex.getMessage());
+                }
+                List<String> found = lines;
+                Platform.runLater(() -> {
+                    if (latest.get() == request) results.getItems().setAll(found);
+                });
+            });
+            search.setDaemon(true);
+            search.start();
+        });
+        query.textProperty().addListener((observable, old, text) -> pause.playFromStart());
+
+        Button back = new Button("back");
+        back.setOnMouseClicked(mouseEvent -> {
+            stage.setScene(TasksScene.tasks(stage));
+        });
+
+        VBox root = new VBox(20);
+        root.getChildren().addAll(query, results, back);
+        root.setAlignment(Pos.CENTER);
+
+        Scene scene = new Scene(root, 1500, 1000);
+        scene.getStylesheets().add(
+                FindCommand.class.getResource("/gui/style.css").toExternalForm()
+        );
+
+        return scene;
+    }
+}
@@ -0,0 +1,270 @@
+package storage;
+
+import core.RecurrenceRule;
+import core.RetryPolicy;
+import core.Scheduler;
+import core.Task;
+import core.TaskIndex;
+import core.runnable.RunnableRegistry;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binaerer Schnappschuss des Schedulers fuer einen schnellen Start: Aufgaben, Abhaengigkeiten
+ * und die Trigrammlisten des Suchindex, neben dem Zeitplan als {@code <tasks.json>.ckpt}.
+ * <p>
+ * Wird beim Beenden nach dem Speichern geschrieben und beim Start mit einem einzigen Lesen der
+ * ganzen Datei geladen; Aktionen, Cron-Regeln, Retry-Policies und Tags stehen einmal in einer
+ * Stringtabelle und werden nur einmal je Wert aufgeloest. Der Zeitplan bleibt massgeblich: der
+ * Checkpoint merkt sich Groesse und Aenderungszeit von {@code tasks.json} und gilt nur, solange
+ * beide passen und die Pruefsumme stimmt. Sonst wird {@code tasks.json} wie bisher geparst.
+ * Timer werden nicht gespeichert, sie entstehen beim Start neu.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class Checkpoint {
+
+    private static final int MAGIC = 0x54434B50;
+
+    private static final int VERSION = 2;
+
+    private static final int BUFFER = 64 * 1024;
+
+    private Checkpoint() {
+    }
+
+    public static Path file() {
+        return Path.of(Data.tasksFile() + ".ckpt");
+    }
+
+    /**
+     * Laedt den Zeitplan, bevorzugt aus dem Checkpoint, und meldet die Dauer.
+     *
+     * @return true, wenn der Checkpoint benutzt wurde
+     */
+    public static boolean load(Scheduler scheduler) {
+        long begin = System.nanoTime();
+        boolean restored = restore(scheduler, file(), Path.of(Data.tasksFile()));
+        if (!restored) Data.loadTasks(scheduler);
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        long sinceStart = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis()).orElse(-1L);
+        System.out.println("Loaded " + scheduler.snapshot().size() + " tasks from "
+                + (restored ? "checkpoint" : Data.tasksFile()) + " in " + millis + " ms ("
+                + sinceStart + " ms after JVM start)");
+        return restored;
+    }
+
+    /**
+     * Schreibt den Checkpoint zum gerade gespeicherten Zeitplan; ein Fehler kostet nur den schnellen Start.
+     */
+    public static void save(Scheduler scheduler) {
+        try {
+            write(scheduler, file(), Path.of(Data.tasksFile()));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Checkpoint not written: " + e);
+        }
+    }
+
+    /**
+     * Schreibt den aktuellen Stand atomar nach {@code file}, gueltig fuer den jetzigen Inhalt von {@code source}.
+     */
+    public static void write(Scheduler scheduler, Path file, Path source) throws IOException {
+        long[] stamp = stamp(source);
+        Path directory = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Files.newOutputStream(tmp), crc), BUFFER))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(stamp[0]);
+                out.writeLong(stamp[1]);
+                // Sperre des Schedulers: Liste, Kanten und Index aus demselben Stand
+                synchronized (scheduler) {
+                    writeState(out, scheduler);
+                }
+                out.flush();
+                out.writeLong(crc.getValue());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeState(DataOutputStream out, Scheduler scheduler) throws IOException {
+        List<Task> tasks = scheduler.snapshot();
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            if (task.getAction() != null) strings.putIfAbsent(RunnableRegistry.nameOf(task.getAction()), strings.size());
+            if (task.getRecurrence() != null) {
+                strings.putIfAbsent(task.getRecurrence().getExpression(), strings.size());
+                strings.putIfAbsent(task.getRecurrence().getZone().getId(), strings.size());
+            }
+            if (task.getRetry() != null) strings.putIfAbsent(task.getRetry().toString(), strings.size());
+            strings.putIfAbsent(task.getTag(), strings.size());
+        }
+        out.writeInt(strings.size());
+        for (String value : strings.keySet()) writeString(out, value);
+
+        Map<UUID, Integer> positions = new HashMap<>();
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            positions.put(task.getId(), positions.size());
+            out.writeLong(task.getId().getMostSignificantBits());
+            out.writeLong(task.getId().getLeastSignificantBits());
+            writeString(out, task.getName());
+            out.writeByte(task.getPriority());
+            out.writeLong(task.getExecuteAT().getEpochSecond());
+            out.writeInt(task.getExecuteAT().getNano());
+            out.writeInt(task.getAction() == null ? -1 : strings.get(RunnableRegistry.nameOf(task.getAction())));
+            Duration repeat = task.getRepeatInterval();
+            out.writeLong(repeat == null ? Long.MIN_VALUE : repeat.getSeconds());
+            out.writeInt(repeat == null ? 0 : repeat.getNano());
+            RecurrenceRule recurrence = task.getRecurrence();
+            out.writeInt(recurrence == null ? -1 : strings.get(recurrence.getExpression()));
+            out.writeInt(recurrence == null ? -1 : strings.get(recurrence.getZone().getId()));
+            out.writeInt(task.getRetry() == null ? -1 : strings.get(task.getRetry().toString()));
+            out.writeInt(strings.get(task.getTag()));
+        }
+
+        List<UUID[]> edges = scheduler.dependencies();
+        out.writeInt(edges.size());
+        for (UUID[] edge : edges) {
+            out.writeInt(positions.get(edge[0]));
+            out.writeInt(positions.get(edge[1]));
+        }
+        scheduler.getIndex().write(out, tasks);
+    }
+
+    /**
+     * Fuellt einen leeren Scheduler aus {@code file}, wenn der Checkpoint zu {@code source} passt.
+     *
+     * @return false, wenn es keinen passenden oder lesbaren Checkpoint gibt; der Scheduler bleibt dann leer
+     */
+    public static boolean restore(Scheduler scheduler, Path file, Path source) {
+        byte[] bytes;
+        long[] stamp;
+        try {
+            stamp = stamp(source);
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            System.out.println("Ignoring checkpoint: " + e);
+            return false;
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length < 32 || in.getInt() != MAGIC || in.getInt() != VERSION
+                || in.getLong() != stamp[0] || in.getLong() != stamp[1]) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Long.BYTES);
+        if (crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong()) {
+            System.out.println("Ignoring checkpoint: checksum mismatch");
+            return false;
+        }
+        try {
+            readState(in, scheduler);
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println("Ignoring checkpoint: " + e);
+            return false;
+        }
+    }
+
+    private static void readState(ByteBuffer in, Scheduler scheduler) {
+        String[] strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) strings[i] = readString(in);
+        // jede Aktion, Regel und Policy nur einmal aufloesen; alle sind unveraenderlich
+        Map<Integer, Runnable> actions = new HashMap<>();
+        Map<Long, RecurrenceRule> rules = new HashMap<>();
+        Map<Integer, RetryPolicy> retries = new HashMap<>();
+
+        int count = in.getInt();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID id = new UUID(in.getLong(), in.getLong());
+            String name = readString(in);
+            byte priority = in.get();
+            Instant executeAt = Instant.ofEpochSecond(in.getLong(), in.getInt());
+            int action = in.getInt();
+            long repeatSeconds = in.getLong();
+            int repeatNanos = in.getInt();
+            int cron = in.getInt();
+            int zone = in.getInt();
+            int retry = in.getInt();
+            String tag = strings[in.getInt()];
+            tasks.add(new Task(id, name, priority, executeAt,
+                    action < 0 ? null : actions.computeIfAbsent(action, k -> action(strings[k])),
+                    repeatSeconds == Long.MIN_VALUE ? null : Duration.ofSeconds(repeatSeconds, repeatNanos),
+                    cron < 0 ? null : rules.computeIfAbsent((long) cron << 32 | zone,
+                            k -> RecurrenceRule.cron(strings[cron], ZoneId.of(strings[zone]))),
+                    retry < 0 ? null : retries.computeIfAbsent(retry, k -> RetryPolicy.parse(strings[k])), tag));
+        }
+
+        Map<UUID, Set<UUID>> after = new LinkedHashMap<>();
+        int edges = in.getInt();
+        for (int i = 0; i < edges; i++) {
+            UUID prerequisite = tasks.get(in.getInt()).getId();
+            after.computeIfAbsent(tasks.get(in.getInt()).getId(), k -> new LinkedHashSet<>()).add(prerequisite);
+        }
+        for (String message : scheduler.restore(tasks, after, TaskIndex.read(in, tasks))) System.out.println(message);
+    }
+
+    private static Runnable action(String name) {
+        try {
+            return RunnableRegistry.get(name);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ignoring action: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Groesse und Aenderungszeit (ns) des Zeitplans; fehlt er, passt nur ein Checkpoint eines leeren Plans.
+     */
+    private static long[] stamp(Path source) throws IOException {
+        if (!Files.exists(source)) return new long[]{-1, -1};
+        return new long[]{Files.size(source), Files.getLastModifiedTime(source).to(TimeUnit.NANOSECONDS)};
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -2,19 +2,40 @@ package storage;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import core.RecurrenceRule;
+import core.RetryPolicy;
 import core.Scheduler;
 import core.Task;
+import core.jfr.TaskEvents;
+import core.jfr.TasksSavedEvent;
+import core.runnable.FetchCoordinator;
 import core.runnable.RunnableRegistry;
 
 import java.io.*;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 /**
  * @author Monke Vladyslav
@@ -22,80 +43,342 @@ import java.util.UUID;
  */
 public class Data {
 
+    public static final String TASKS_FILE = "tasks.json";
+
+    public static final String DEAD_LETTER_FILE = "dead-letters.json";
+
+    public static final String HISTORY_DIR = "history";
+
+    // Ausgabe von Befehlen ({@code shell ...}), eine Datei je Befehl
+    public static final String PROCESS_OUTPUT_DIR = "history/output";
+
+    // Standardziel von "record --start"
+    public static final String RECORDING_FILE = "history/tasks.jfr";
+
+    public static final String PLUGIN_DIR = "plugins";
+
+    public static final String IMAGE_CACHE_DIR = "cache/images";
+
+    public static final String WALLPAPER_URLS = "/home/stormrize/Pictures/wallpapers/UrlOfImages";
+
+    public static final Duration HISTORY_RETENTION = Duration.ofDays(30);
+
+    // schreibt angeforderte Speicherungen, damit Befehle nicht auf die Datei warten
+    private static final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "tasks-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicBoolean savePending = new AtomicBoolean();
+
+    /**
+     * Datei des Zeitplans; {@code -Dtasks.file=/pfad/tasks.json} legt sie woanders ab.
+     */
+    public static String tasksFile() {
+        return System.getProperty("tasks.file", TASKS_FILE);
+    }
+
     public static void loadTasks(Scheduler scheduler) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("tasks.json"))) {
-            String line;
-            UUID id = null;
-            String name = null;
-            byte priority = 0;
-            Instant executeAt = null;
-            Runnable action = null;
-            Duration repeatInterval = null;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                // ID-Zeile: "123e4567-e89b-12d3-a456-426614174000": {
-                if (line.startsWith("\"") && line.contains("\": {")) {
-                    String key = line.substring(1, line.indexOf("\":"));
-                    id = UUID.fromString(key);
+        Map<UUID, Set<UUID>> after = new LinkedHashMap<>();
+        // Aufgaben und Kanten in einem Schritt, Voraussetzungen koennen weiter unten stehen;
+        // geplant wird danach mit scheduler.start()
+        for (String message : scheduler.addTasks(readTasks(tasksFile(), after), after, false)) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Liest alle Aufgaben einer Datei. Die Voraussetzungen jeder Aufgabe landen in {@code after}.
+     */
+    public static List<Task> readTasks(String file, Map<UUID, Set<UUID>> after) {
+        return readTasks(file, after, null);
+    }
+
+    /**
+     * Wie {@link #readTasks(String, Map)}; unbekannte Felder einer Aufgabe landen in {@code extras}.
+     */
+    public static List<Task> readTasks(String file, Map<UUID, Set<UUID>> after, Map<UUID, Map<String, String>> extras) {
+        if (!new File(file).exists()) return new ArrayList<>();
+        try (BufferedReader reader = open(Path.of(file))) {
+            return readTasks(reader, after, extras);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Oeffnet eine Aufgabendatei zum Lesen; gzip wird am Dateianfang erkannt, nicht an der Endung.
+     */
+    public static BufferedReader open(Path file) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(file));
+        input.mark(2);
+        boolean gzip = input.read() == 0x1f && input.read() == 0x8b;
+        input.reset();
+        if (gzip) input = new GZIPInputStream(input, 64 * 1024);
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    public static List<Task> readTasks(BufferedReader reader, Map<UUID, Set<UUID>> after,
+                                       Map<UUID, Map<String, String>> extras) throws IOException {
+        return readTasks(reader, after, extras, null);
+    }
+
+    /**
+     * Wie {@link #readTasks(BufferedReader, Map, Map)}, parst aber nur Bloecke, fuer die {@code unchanged}
+     * mit id und Rohtext (wie von {@link #format}) {@code false} liefert; die anderen fehlen im Ergebnis.
+     */
+    public static List<Task> readTasks(BufferedReader reader, Map<UUID, Set<UUID>> after,
+                                       Map<UUID, Map<String, String>> extras,
+                                       BiPredicate<UUID, String> unchanged) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        // bereits gelesene Zeilen eines Blocks, der doch geparst wird
+        ArrayDeque<String> pending = new ArrayDeque<>();
+        String line;
+        UUID id = null;
+        String name = null;
+        byte priority = 0;
+        Instant executeAt = null;
+        Runnable action = null;
+        Duration repeatInterval = null;
+        String cron = null;
+        // zone und retry roh, erst beim Anlegen der Aufgabe geparst, damit ein Fehler nur sie betrifft
+        String zone = null;
+        String prerequisites = null;
+        String retry = null;
+        String tag = Task.DEFAULT_TAG;
+        Map<String, String> extra = new LinkedHashMap<>();
+        while ((line = pending.isEmpty() ? reader.readLine() : pending.poll()) != null) {
+            String raw = line;
+            line = line.trim();
+            // ID-Zeile: "123e4567-e89b-12d3-a456-426614174000": {
+            if (line.startsWith("\"") && line.endsWith("\": {")) {
+                String key = line.substring(1, line.indexOf("\":"));
+                id = UUID.fromString(key);
+                if (unchanged != null && pending.isEmpty()) {
+                    List<String> block = new ArrayList<>();
+                    block.add(raw);
+                    String next;
+                    while ((next = reader.readLine()) != null) {
+                        block.add(next);
+                        if (next.trim().startsWith("}")) break;
+                    }
+                    String last = block.get(block.size() - 1);
+                    if (last.endsWith(",")) block.set(block.size() - 1, last.substring(0, last.length() - 1));
+                    if (!unchanged.test(id, String.join("\n", block))) pending.addAll(block.subList(1, block.size()));
                 }
-                // Name-Zeile
-                else if (line.startsWith("\"name\"")) {
-                    name = line.split(":")[1].trim()
-                            .replace("\"", "")
-                            .replace(",", "");
+            }
+            // Name-Zeile
+            else if (line.startsWith("\"name\"")) {
+                name = line.split(":")[1].trim()
+                        .replace("\"", "")
+                        .replace(",", "");
+            }
+            // Priority-Zeile
+            else if (line.startsWith("\"priority\"")) {
+                priority = Byte.parseByte(
+                        line.split(":")[1].trim().replace(",", "")
+                );
+            }
+            // executeAt-Zeile
+            else if (line.startsWith("\"executeAt\"")) {
+                executeAt = Instant.parse(
+                        line.split(":", 2)[1].trim().replace("\"", "").replace(",", "")
+                );
+            } else if (line.startsWith("\"action\"")) {
+                try {
+                    action = RunnableRegistry.get(string(line));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Ignoring action: " + e.getMessage());
+                    action = null;
                 }
-                // Priority-Zeile
-                else if (line.startsWith("\"priority\"")) {
-                    priority = Byte.parseByte(
-                            line.split(":")[1].trim().replace(",", "")
-                    );
+
+            } else if (line.startsWith("\"cron\"")) {
+                cron = value(line);
+            } else if (line.startsWith("\"zone\"")) {
+                zone = value(line);
+            } else if (line.startsWith("\"after\"")) {
+                prerequisites = value(line);
+            } else if (line.startsWith("\"retry\"")) {
+                retry = value(line);
+            } else if (line.startsWith("\"tag\"")) {
+                tag = value(line);
+            } else if (line.startsWith("\"repeatInterval\"")) {
+                String intervalStr = line.split(":")[1].trim().replace("\"", "").replace(",", "");
+                repeatInterval = intervalStr.equals("null") ? null : Duration.parse(intervalStr);
+                try {
+                    RecurrenceRule recurrence = cron == null ? null
+                            : RecurrenceRule.cron(cron, zone == null ? ZoneId.systemDefault() : ZoneId.of(zone));
+                    tasks.add(new Task(id, name, priority, executeAt, action, repeatInterval, recurrence,
+                            retry == null ? null : RetryPolicy.parse(retry), tag));
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    // nur diese Aufgabe auslassen, z.B. bei ungueltigem Tag
+                    System.out.println("Ignoring task " + id + ": " + e.getMessage());
+                    prerequisites = null;
                 }
-                // executeAt-Zeile
-                else if (line.startsWith("\"executeAt\"")) {
-                    executeAt = Instant.parse(
-                            line.split(":", 2)[1].trim().replace("\"", "").replace(",", "")
-                    );
-                } else if (line.startsWith("\"action\"")) {
-                    action = RunnableRegistry.get(line.split(":")[1].trim()
-                            .replace("\"", "")
-                            .replace(",", ""));
-
-                } else if (line.startsWith("\"repeatInterval\"")) {
-                    String intervalStr = line.split(":")[1].trim().replace("\"", "").replace(",", "");
-                    repeatInterval = intervalStr.equals("null") ? null : Duration.parse(intervalStr);
-                    scheduler.addTask(id, name, priority, executeAt, action, repeatInterval);      
+                if (prerequisites != null) {
+                    Set<UUID> ids = new LinkedHashSet<>();
+                    for (String prerequisite : prerequisites.split(",")) {
+                        try {
+                            ids.add(UUID.fromString(prerequisite.trim()));
+                        } catch (IllegalArgumentException e) {
+                            System.out.println("Ignoring dependency of " + id + ": " + e.getMessage());
+                        }
+                    }
+                    after.put(id, ids);
                 }
+                cron = null;
+                zone = null;
+                if (extras != null && !extra.isEmpty()) extras.put(id, extra);
+                prerequisites = null;
+                retry = null;
+                tag = Task.DEFAULT_TAG;
+                extra = new LinkedHashMap<>();
+            } else if (line.startsWith("\"") && line.contains("\":")) {
+                extra.put(line.substring(1, line.indexOf("\":")), value(line));
             }
+        }
+        return tasks;
+    }
 
+    /**
+     * Speichert im Hintergrund; Anfragen, die waehrenddessen eintreffen, ergeben zusammen einen weiteren Schreibvorgang.
+     */
+    public static void requestSave(Scheduler scheduler) {
+        if (!savePending.compareAndSet(false, true)) return;
+        saver.execute(() -> {
+            // ein direktes saveTasks kann die Anfrage schon erledigt haben
+            synchronized (Data.class) {
+                if (savePending.getAndSet(false)) saveTasks(scheduler);
+            }
+        });
+    }
+
+    public static synchronized void saveTasks(Scheduler scheduler) {
+        savePending.set(false);
+        TasksSavedEvent event = TaskEvents.saveStarted();
+        List<Task> tasks = scheduler.snapshot();
+        if (scheduler.getCoordinator() != null) {
+            // im Cluster wird nicht ueberschrieben, sondern gesammelt mit den anderen Knoten zusammengefuehrt
+            scheduler.getCoordinator().requestSync();
+            TaskEvents.saveEnded(event, tasks.size(), tasksFile(), true);
+            return;
+        }
+        writeTasks(tasksFile(), tasks, scheduler::prerequisitesOf);
+        TaskEvents.saveEnded(event, tasks.size(), tasksFile(), false);
+    }
+
+    public static void writeTasks(String file, List<Task> tasks, Function<UUID, Set<UUID>> prerequisitesOf) {
+        writeTasks(file, tasks, prerequisitesOf, id -> null);
+    }
+
+    /**
+     * Wie {@link #writeTasks(String, List, Function)} mit zusaetzlichen Feldern pro Aufgabe.
+     * Werte duerfen keine Anfuehrungszeichen oder Zeilenumbrueche enthalten.
+     */
+    public static void writeTasks(String file, List<Task> tasks, Function<UUID, Set<UUID>> prerequisitesOf,
+                                  Function<UUID, Map<String, String>> extrasOf) {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            writeTasks(writer, tasks, prerequisitesOf, extrasOf);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-     public static void saveTasks(Scheduler scheduler) {
-        List<Task> tasks = scheduler.snapshot();
-
-        try (FileWriter writer = new FileWriter("tasks.json")) {
-            writer.write("{\n");
-            int index = 0;
-            for (Task task : tasks) {
-                writer.write("  \"" + task.getId() + "\": {\n");
-                writer.write("    \"name\": \"" + task.getName() + "\",\n");
-                writer.write("    \"priority\": " + task.getPriority() + ",\n");
-                writer.write("    \"executeAt\": \"" + task.getExecuteAT() + "\",\n");
-                writer.write("    \"action\": \"" + task.getAction() + "\", \n");
-                writer.write("    \"repeatInterval\": \"" + task.getRepeatInterval() + "\"\n");
-                writer.write("  }");
-                if (index < tasks.size() - 1) {
-                    writer.write(",");
-                }
-                writer.write("\n");
-                index++;
+    /**
+     * Schreibt Aufgabe fuer Aufgabe in {@code writer}, ohne den ganzen Text im Speicher aufzubauen.
+     */
+    public static void writeTasks(Writer writer, List<Task> tasks, Function<UUID, Set<UUID>> prerequisitesOf,
+                                  Function<UUID, Map<String, String>> extrasOf) throws IOException {
+        writer.write("{\n");
+        int index = 0;
+        for (Task task : tasks) {
+            writeTask(writer, task, prerequisitesOf.apply(task.getId()), extrasOf.apply(task.getId()));
+            if (index < tasks.size() - 1) {
+                writer.write(",");
             }
-            writer.write("}");
+            writer.write("\n");
+            index++;
+        }
+        writer.write("}");
+    }
+
+    /**
+     * Block einer Aufgabe genau so, wie er in der Datei steht, ohne Komma und Zeilenumbruch danach.
+     */
+    public static String format(Task task, Set<UUID> after) {
+        StringWriter writer = new StringWriter(256);
+        try {
+            writeTask(writer, task, after, null);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static void writeTask(Writer writer, Task task, Set<UUID> after, Map<String, String> extra)
+            throws IOException {
+        writer.write("  \"" + task.getId() + "\": {\n");
+        writer.write("    \"name\": \"" + task.getName() + "\",\n");
+        writer.write("    \"priority\": " + task.getPriority() + ",\n");
+        writer.write("    \"executeAt\": \"" + task.getExecuteAT() + "\",\n");
+        writer.write("    \"action\": \"" + escape(RunnableRegistry.nameOf(task.getAction())) + "\", \n");
+        if (task.getRecurrence() != null) {
+            writer.write("    \"cron\": \"" + task.getRecurrence().getExpression() + "\",\n");
+            writer.write("    \"zone\": \"" + task.getRecurrence().getZone() + "\",\n");
+        }
+        if (task.getRetry() != null) {
+            writer.write("    \"retry\": \"" + task.getRetry() + "\",\n");
         }
+        if (!task.getTag().equals(Task.DEFAULT_TAG)) {
+            writer.write("    \"tag\": \"" + task.getTag() + "\",\n");
+        }
+        if (after != null && !after.isEmpty()) {
+            StringJoiner ids = new StringJoiner(",");
+            for (UUID prerequisite : after) ids.add(prerequisite.toString());
+            writer.write("    \"after\": \"" + ids + "\",\n");
+        }
+        if (extra != null) {
+            for (Map.Entry<String, String> field : extra.entrySet()) {
+                writer.write("    \"" + field.getKey() + "\": \"" + field.getValue() + "\",\n");
+            }
+        }
+        writer.write("    \"repeatInterval\": \"" + task.getRepeatInterval() + "\"\n");
+        writer.write("  }");
+    }
+
+    /**
+     * Fuer Werte mit beliebigem Text wie {@code shell}-Befehlen; {@link #string} liest sie zurueck.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Wert in Anfuehrungszeichen; Anfuehrungszeichen und Backslashes darin sind wie von {@link #escape} maskiert.
+     */
+    private static String string(String line) {
+        String value = line.split(":", 2)[1].trim();
+        if (value.endsWith(",")) value = value.substring(0, value.length() - 1).trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length() && (value.charAt(i + 1) == '\\' || value.charAt(i + 1) == '"')) {
+                c = value.charAt(++i);
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static String value(String line) {
+        String value = line.split(":", 2)[1].trim();
+        if (value.endsWith(",")) value = value.substring(0, value.length() - 1);
+        return value.replace("\"", "");
     }
 
     public static void saveWallpapersURL(String query, int page) {
@@ -103,23 +386,23 @@ public class Data {
                 new FileReader("/home/stormrize/secure/pexelsAPI"))) {
 
             String apiKey = apiReader.readLine();
-            HttpClient client = HttpClient.newHttpClient();
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create("https://api.pexels.com/v1/search?query=" + query))
                     .header("Authorization", apiKey)
+                    .timeout(Duration.ofSeconds(20))
                     .build();
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            String body = FetchCoordinator.fetchString("pexels", request);
 
             ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response.body());
+            JsonNode jsonNode = mapper.readTree(body);
             JsonNode photos = jsonNode.get("photos");
             int totalResults = jsonNode.get("total_results").asInt();
 
             if (photos != null) {
                 try (BufferedWriter bufferedWriter = new BufferedWriter(
-                        new FileWriter("/home/stormrize/Pictures/wallpapers/UrlOfImages"))) {
+                        new FileWriter(WALLPAPER_URLS))) {
 
                     for (JsonNode photo : photos) {
                         String imgUrl = photo.get("src").get("original").asText();
@@ -134,17 +417,14 @@ public class Data {
         }
     }
 
+    /**
+     * Loescht die URL-Liste der Hintergrundbilder; sie ist eine Datei, kein Verzeichnis.
+     */
     public static void deleteWallpapersURL() {
-        File folder = new File("/home/stormrize/Pictures/wallpapers/UrlOfImages");
-        if (folder.exists() && folder.isDirectory()) {
-            File[] files = folder.listFiles();
-            if (files != null) {
-                for (File file: files) {
-                    if (file.isFile()) {
-                        file.delete();
-                    }
-                }
-            }
+        try {
+            Files.deleteIfExists(Path.of(WALLPAPER_URLS));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 }
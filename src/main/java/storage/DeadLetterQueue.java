@@ -0,0 +1,79 @@
+package storage;
+
+import core.Task;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Aufgaben, deren Ausfuehrung auch nach allen Wiederholungen fehlschlug. Pro Aufgabe
+ * wird nur der letzte Fehlschlag gehalten. Jede Aenderung wird sofort im Format von
+ * {@code tasks.json} gespeichert, ergaenzt um Versuche, Zeitpunkt und Grund.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class DeadLetterQueue {
+
+    public record DeadLetter(Task task, int attempts, Instant failedAt, String reason) {
+    }
+
+    private final Path file;
+
+    private final Map<UUID, DeadLetter> letters = new LinkedHashMap<>();
+
+    public DeadLetterQueue(Path file) {
+        this.file = file;
+        Map<UUID, Map<String, String>> extras = new HashMap<>();
+        for (Task task : Data.readTasks(file.toString(), new HashMap<>(), extras)) {
+            Map<String, String> extra = extras.getOrDefault(task.getId(), Map.of());
+            letters.put(task.getId(), new DeadLetter(task,
+                    Integer.parseInt(extra.getOrDefault("attempts", "1")),
+                    Instant.parse(extra.getOrDefault("failedAt", task.getExecuteAT().toString())),
+                    extra.getOrDefault("reason", "")));
+        }
+    }
+
+    public synchronized void add(Task task, int attempts, String reason) {
+        letters.remove(task.getId());
+        letters.put(task.getId(), new DeadLetter(task, attempts, Instant.now(), reason));
+        save();
+    }
+
+    public synchronized List<DeadLetter> list() {
+        return new ArrayList<>(letters.values());
+    }
+
+    /**
+     * @return der entfernte Eintrag oder null
+     */
+    public synchronized DeadLetter remove(UUID id) {
+        DeadLetter letter = letters.remove(id);
+        if (letter != null) save();
+        return letter;
+    }
+
+    public synchronized int size() {
+        return letters.size();
+    }
+
+    private void save() {
+        List<Task> tasks = new ArrayList<>();
+        for (DeadLetter letter : letters.values()) tasks.add(letter.task());
+        Data.writeTasks(file.toString(), tasks, id -> Set.of(), id -> {
+            DeadLetter letter = letters.get(id);
+            Map<String, String> extra = new LinkedHashMap<>();
+            extra.put("attempts", String.valueOf(letter.attempts()));
+            extra.put("failedAt", letter.failedAt().toString());
+            extra.put("reason", letter.reason().replaceAll("[\"\\r\\n]", "'"));
+            return extra;
+        });
+    }
+}
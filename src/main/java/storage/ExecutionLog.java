@@ -0,0 +1,412 @@
+package storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ausfuehrungshistorie als kompakte Zeitreihe.
+ * <p>
+ * Jeder Lauf ist ein Datensatz fester Groesse ({@value #RECORD} Byte): Aufgaben-id,
+ * Aktions-id, geplanter Zeitpunkt, Start, Dauer und Status. Die Datensaetze landen in
+ * Segmentdateien {@code exec-<start>.log}, die per Memory-Mapping beschrieben werden.
+ * Aktionsnamen stehen einmalig in {@code actions}, die Zeilennummer ist die Aktions-id;
+ * neue Namen traegt der Writer dort ein, bevor er den ersten Datensatz mit ihnen schreibt.
+ * <p>
+ * {@link #append} kopiert nur primitive Werte in einen vorab angelegten Ringpuffer und
+ * kehrt sofort zurueck; ein eigener Thread schreibt in die Segmente. Ist der Puffer voll,
+ * wird der Datensatz verworfen und gezaehlt, statt den Aufrufer zu blockieren.
+ * Segmente, die vollstaendig aelter als die Aufbewahrungsdauer sind, werden geloescht.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ExecutionLog implements AutoCloseable {
+
+    public enum Status {
+        SUCCESS, FAILED, TIMEOUT, CANCELLED, SKIPPED
+    }
+
+    public record Run(UUID taskId, String action, Instant scheduledAt, Instant startedAt, Duration duration,
+                      Status status) {
+    }
+
+    public record ActionStats(String action, long runs, long failures) {
+
+        public double failureRate() {
+            return runs == 0 ? 0 : (double) failures / runs;
+        }
+    }
+
+    static final int RECORD = 48;
+
+    private static final int RECORDS_PER_SEGMENT = 1 << 16;
+
+    private static final long SEGMENT_MILLIS = Duration.ofDays(1).toMillis();
+
+    private static final Status[] STATUSES = Status.values();
+
+    // Ringpuffer: pro Slot sechs longs, published[slot] = Sequenznummer, sobald vollstaendig
+    private static final int FIELDS = 6;
+
+    private final int capacity;
+
+    private final long[] ring;
+
+    private final AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong();
+
+    private volatile long consumed;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Path directory;
+
+    private final long retentionMillis;
+
+    private final Map<String, Integer> actionIds = new ConcurrentHashMap<>();
+
+    private final List<String> actionNames = new ArrayList<>();
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    // Writer schlaeft; nur dann lohnt sich ein unpark
+    private volatile boolean idle;
+
+    // nur vom Writer-Thread veraendert; written ist fuer Abfragen veroeffentlicht
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    private volatile Path current;
+
+    private volatile int written;
+
+    private long segmentStart;
+
+    // so viele Namen stehen schon in "actions"
+    private int namesWritten;
+
+    private long lastRetention;
+
+    public ExecutionLog(Path directory, Duration retention) {
+        this(directory, retention, 1 << 14);
+    }
+
+    public ExecutionLog(Path directory, Duration retention, int bufferSize) {
+        if (Integer.bitCount(bufferSize) != 1) throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        this.directory = directory;
+        this.retentionMillis = retention.toMillis();
+        this.capacity = bufferSize;
+        this.ring = new long[bufferSize * FIELDS];
+        this.published = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) published.set(i, -1);
+        try {
+            Files.createDirectories(directory);
+            Path names = directory.resolve("actions");
+            if (Files.exists(names)) {
+                for (String name : Files.readAllLines(names, StandardCharsets.UTF_8)) {
+                    actionIds.put(name, actionNames.size());
+                    actionNames.add(name);
+                }
+            }
+            namesWritten = actionNames.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writer = new Thread(this::drain, "execution-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Haelt einen Lauf fest. Allokationsfrei, solange die Aktion schon einmal protokolliert wurde.
+     *
+     * @return false, wenn der Puffer voll war und der Datensatz verworfen wurde
+     */
+    public boolean append(UUID taskId, String action, long scheduledAtMillis, long startedAtMillis,
+                          long durationNanos, Status status) {
+        int actionId = actionId(action);
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= capacity || closed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) (sequence & (capacity - 1));
+        int base = slot * FIELDS;
+        ring[base] = taskId.getMostSignificantBits();
+        ring[base + 1] = taskId.getLeastSignificantBits();
+        ring[base + 2] = ((long) actionId << 8) | status.ordinal();
+        ring[base + 3] = scheduledAtMillis;
+        ring[base + 4] = startedAtMillis;
+        ring[base + 5] = durationNanos;
+        published.set(slot, sequence);
+        if (idle) LockSupport.unpark(writer);
+        return true;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return die letzten {@code count} Laeufe einer Aufgabe, neueste zuerst
+     */
+    public List<Run> lastRuns(UUID taskId, int count) {
+        long hi = taskId.getMostSignificantBits();
+        long lo = taskId.getLeastSignificantBits();
+        List<Run> runs = new ArrayList<>();
+        List<Path> segments = segments();
+        for (int s = segments.size() - 1; s >= 0 && runs.size() < count; s--) {
+            MappedByteBuffer buffer = map(segments.get(s));
+            if (buffer == null) continue;
+            for (int i = records(segments.get(s), buffer) - 1; i >= 0 && runs.size() < count; i--) {
+                int at = i * RECORD;
+                if (buffer.getLong(at) == hi && buffer.getLong(at + 8) == lo) runs.add(read(buffer, at));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * @return Laeufe und Fehlschlaege pro Aktion seit {@code since}; Timeouts zaehlen als Fehlschlag
+     */
+    public Map<String, ActionStats> failureRates(Instant since) {
+        long from = since.toEpochMilli();
+        Map<Integer, long[]> counts = new TreeMap<>();
+        for (Path path : segments()) {
+            MappedByteBuffer buffer = map(path);
+            if (buffer == null) continue;
+            int records = records(path, buffer);
+            for (int i = 0; i < records; i++) {
+                int at = i * RECORD;
+                if (buffer.getLong(at + 32) < from) continue;
+                Status status = STATUSES[buffer.get(at + 20) - 1];
+                if (status == Status.SKIPPED || status == Status.CANCELLED) continue;
+                long[] c = counts.computeIfAbsent(buffer.getInt(at + 16), id -> new long[2]);
+                c[0]++;
+                if (status != Status.SUCCESS) c[1]++;
+            }
+        }
+        Map<String, ActionStats> stats = new TreeMap<>();
+        for (Map.Entry<Integer, long[]> entry : counts.entrySet()) {
+            String action = actionName(entry.getKey());
+            stats.put(action, new ActionStats(action, entry.getValue()[0], entry.getValue()[1]));
+        }
+        return stats;
+    }
+
+    /**
+     * Schreibt alles bis jetzt Angehaengte und beendet den Writer.
+     */
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wartet, bis alle bisher angehaengten Datensaetze in den Segmenten stehen.
+     */
+    public void flush() {
+        long target = claimed.get();
+        while (consumed < target && writer.isAlive()) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            long next = consumed;
+            int slot = (int) (next & (capacity - 1));
+            if (published.get(slot) != next) {
+                if (closed && claimed.get() == next) break;
+                if (System.currentTimeMillis() - lastRetention > 60_000) retain();
+                idle = true;
+                if (published.get(slot) != next && !closed) LockSupport.parkNanos(100_000_000);
+                idle = false;
+                continue;
+            }
+            try {
+                write(slot);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Execution log write failed: " + e);
+            }
+            consumed = next + 1;
+        }
+        try {
+            if (channel != null) {
+                segment.force();
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Execution log close failed: " + e);
+        }
+    }
+
+    private void write(int slot) throws IOException {
+        int base = slot * FIELDS;
+        long startedAt = ring[base + 4];
+        if ((int) (ring[base + 2] >>> 8) >= namesWritten) writeNames();
+        if (segment == null || written == RECORDS_PER_SEGMENT || startedAt - segmentStart >= SEGMENT_MILLIS) {
+            roll(startedAt);
+        }
+        int at = written * RECORD;
+        segment.putLong(at, ring[base]);
+        segment.putLong(at + 8, ring[base + 1]);
+        segment.putInt(at + 16, (int) (ring[base + 2] >>> 8));
+        segment.putLong(at + 24, ring[base + 3]);
+        segment.putLong(at + 32, startedAt);
+        segment.putLong(at + 40, ring[base + 5]);
+        // Status zuletzt: 0 heisst "leer", so bleibt ein halb geschriebener Datensatz unsichtbar
+        segment.put(at + 20, (byte) ((ring[base + 2] & 0xFF) + 1));
+        written++;
+    }
+
+    private void roll(long startedAt) throws IOException {
+        // kein force(): das Zurueckschreiben der Seiten uebernimmt das Betriebssystem
+        if (channel != null) channel.close();
+        segmentStart = startedAt;
+        Path path = directory.resolve("exec-" + startedAt + ".log");
+        for (int n = 1; Files.exists(path); n++) path = directory.resolve("exec-" + startedAt + "-" + n + ".log");
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) RECORDS_PER_SEGMENT * RECORD);
+        written = 0;
+        current = path;
+        retain();
+    }
+
+    /**
+     * Loescht Segmente, deren Nachfolger schon vor Ablauf der Aufbewahrungsdauer begann.
+     */
+    private void retain() {
+        lastRetention = System.currentTimeMillis();
+        long cutoff = lastRetention - retentionMillis;
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (startOf(segments.get(i + 1)) >= cutoff) break;
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                System.out.println("Could not delete " + segments.get(i) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vergibt nur die Id; die Datei schreibt der Writer, der Aufrufer wartet nie auf die Platte.
+     */
+    private int actionId(String action) {
+        Integer id = actionIds.get(action);
+        if (id != null) return id;
+        synchronized (actionNames) {
+            id = actionIds.get(action);
+            if (id != null) return id;
+            id = actionNames.size();
+            actionNames.add(action);
+            actionIds.put(action, id);
+            return id;
+        }
+    }
+
+    /**
+     * Haengt alle neuen Namen in einem Schreibvorgang an; scheitert er, wird es beim naechsten Datensatz wiederholt.
+     */
+    private void writeNames() {
+        StringBuilder names = new StringBuilder();
+        int count;
+        synchronized (actionNames) {
+            count = actionNames.size();
+            for (int i = namesWritten; i < count; i++) names.append(actionNames.get(i)).append(System.lineSeparator());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve("actions"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(names.toString());
+        } catch (IOException e) {
+            System.out.println("Execution log names not written: " + e);
+            return;
+        }
+        namesWritten = count;
+    }
+
+    private String actionName(int id) {
+        synchronized (actionNames) {
+            return id < actionNames.size() ? actionNames.get(id) : "#" + id;
+        }
+    }
+
+    private Run read(MappedByteBuffer buffer, int at) {
+        return new Run(new UUID(buffer.getLong(at), buffer.getLong(at + 8)), actionName(buffer.getInt(at + 16)),
+                Instant.ofEpochMilli(buffer.getLong(at + 24)), Instant.ofEpochMilli(buffer.getLong(at + 32)),
+                Duration.ofNanos(buffer.getLong(at + 40)), STATUSES[buffer.get(at + 20) - 1]);
+    }
+
+    /**
+     * Im aktiven Segment zaehlt nur, was der Writer schon veroeffentlicht hat; aeltere
+     * Segmente enden am ersten leeren Datensatz.
+     */
+    private int records(Path path, MappedByteBuffer buffer) {
+        int limit = buffer.capacity() / RECORD;
+        if (path.equals(current)) limit = Math.min(limit, written);
+        int count = 0;
+        while (count < limit && buffer.get(count * RECORD + 20) != 0) count++;
+        return count;
+    }
+
+    private MappedByteBuffer map(Path path) {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            return in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        } catch (IOException e) {
+            return null; // zwischenzeitlich von der Aufbewahrung geloescht
+        }
+    }
+
+    private List<Path> segments() {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "exec-*.log")) {
+            for (Path path : stream) segments.add(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // gleicher Start: "exec-1.log" vor "exec-1-1.log"
+        segments.sort(Comparator.comparingLong(ExecutionLog::startOf)
+                .thenComparingInt(path -> path.getFileName().toString().length())
+                .thenComparing(path -> path.getFileName().toString()));
+        return segments;
+    }
+
+    private static long startOf(Path segment) {
+        String name = segment.getFileName().toString();
+        int end = name.indexOf('-', 5);
+        return Long.parseLong(name.substring(5, end < 0 ? name.length() - 4 : end));
+    }
+}
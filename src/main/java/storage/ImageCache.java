@@ -0,0 +1,152 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groessenbegrenzter Dateicache mit LRU-Verdraengung.
+ * <p>
+ * Jeder Eintrag ist eine Datei im Cache-Verzeichnis. Die Zugriffsreihenfolge steht im
+ * Speicher und wird beim Start aus den Aenderungszeiten wiederhergestellt, die bei jedem
+ * Treffer nachgezogen werden. Wird {@code maxBytes} ueberschritten, fliegen die am
+ * laengsten nicht benutzten Dateien.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class ImageCache {
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    // Schluessel -> Groesse, aelteste zuerst
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    private boolean loaded;
+
+    /**
+     * Legt nichts an; Verzeichnis und Bestand werden erst beim ersten Zugriff gelesen.
+     */
+    public ImageCache(Path directory, long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("Invalid cache size: " + maxBytes);
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long size() {
+        return bytes;
+    }
+
+    /**
+     * @return die Datei zum Schluessel oder {@code null}; ein Treffer zaehlt als Zugriff
+     */
+    public synchronized Path get(String key) {
+        try {
+            open();
+        } catch (IOException e) {
+            // ohne Verzeichnis eben kein Treffer; put meldet den Fehler
+            return null;
+        }
+        if (entries.get(key) == null) return null;
+        Path file = directory.resolve(key);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return file;
+        } catch (IOException e) {
+            // von aussen geloescht
+            bytes -= entries.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Uebernimmt eine fertig geschriebene Datei (sie wird verschoben) und verdraengt, bis die Grenze wieder passt.
+     */
+    public synchronized Path put(String key, Path file) throws IOException {
+        open();
+        Path target = directory.resolve(key);
+        long size = Files.size(file);
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Long previous = entries.put(key, size);
+        bytes += size - (previous == null ? 0 : previous);
+        evict(key);
+        return target;
+    }
+
+    /**
+     * Temporaere Datei im Cache-Verzeichnis, damit {@link #put} atomar verschieben kann.
+     */
+    public Path newFile() throws IOException {
+        synchronized (this) {
+            open();
+        }
+        return Files.createTempFile(directory, "pending-", ".tmp");
+    }
+
+    private void evict(String keep) throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> oldest = iterator.next();
+            if (oldest.getKey().equals(keep)) continue;
+            Files.deleteIfExists(directory.resolve(oldest.getKey()));
+            bytes -= oldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Beim ersten Erfolg einmal; scheitert es, wird beim naechsten Zugriff neu versucht.
+     */
+    private void open() throws IOException {
+        if (loaded) return;
+        Files.createDirectories(directory);
+        load();
+        loaded = true;
+    }
+
+    private void load() throws IOException {
+        record Found(String key, long size, long modified) {
+        }
+        List<Found> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("pending-")) {
+                    // Rest eines abgebrochenen Laufs
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    found.add(new Found(name, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(Found::modified));
+        entries.clear();
+        bytes = 0;
+        for (Found entry : found) {
+            entries.put(entry.key(), entry.size());
+            bytes += entry.size();
+        }
+        evict(null);
+    }
+}
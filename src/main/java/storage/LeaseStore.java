@@ -0,0 +1,166 @@
+package storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Gemeinsame Lease-Tabelle mehrerer Scheduler-Prozesse auf einem Rechner.
+ * <p>
+ * Die Datei {@code leases} im Cluster-Verzeichnis haelt pro Knoten seinen Heartbeat
+ * und pro Shard Besitzer, Fencing-Token und Ablaufzeit. Jede Aenderung laeuft unter
+ * einem exklusiven Dateilock; solange {@link #update(Function)} laeuft, darf der
+ * Aufrufer auch andere Dateien des Verzeichnisses konsistent lesen und schreiben.
+ * <pre>
+ * node &lt;id&gt; &lt;expiry&gt;
+ * shard &lt;index&gt; &lt;owner|-&gt; &lt;token&gt; &lt;expiry&gt;
+ * </pre>
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class LeaseStore {
+
+    private final Path directory;
+
+    private final Path file;
+
+    private final int shards;
+
+    public LeaseStore(Path directory, int shards) {
+        if (shards < 1) throw new IllegalArgumentException("Invalid shard count: " + shards);
+        this.directory = directory;
+        this.file = directory.resolve("leases");
+        this.shards = shards;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Liest die Tabelle, wendet {@code change} an und schreibt sie zurueck, alles unter dem Dateilock.
+     */
+    public synchronized <T> T update(Function<Leases, T> change) {
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // der Lock endet mit dem Schliessen des Kanals
+                channel.lock();
+                ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // weiterlesen
+                }
+                Leases leases = parse(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+                T result = change.apply(leases);
+                byte[] out = leases.format().getBytes(StandardCharsets.UTF_8);
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(out), 0);
+                channel.force(false);
+                return result;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Leases parse(String text) {
+        Leases leases = new Leases(shards);
+        for (String line : text.split("\n")) {
+            String[] parts = line.trim().split(" ");
+            if (parts[0].equals("node") && parts.length == 3) {
+                leases.nodes.put(parts[1], Long.parseLong(parts[2]));
+            } else if (parts[0].equals("shard") && parts.length == 5) {
+                int shard = Integer.parseInt(parts[1]);
+                if (shard >= shards) continue;
+                leases.owner[shard] = parts[2].equals("-") ? null : parts[2];
+                leases.token[shard] = Long.parseLong(parts[3]);
+                leases.expiry[shard] = Long.parseLong(parts[4]);
+            }
+        }
+        return leases;
+    }
+
+    /**
+     * Inhalt der Lease-Datei waehrend eines {@link #update(Function)}.
+     */
+    public static class Leases {
+
+        private final Map<String, Long> nodes = new TreeMap<>();
+
+        private final String[] owner;
+
+        private final long[] token;
+
+        private final long[] expiry;
+
+        private Leases(int shards) {
+            owner = new String[shards];
+            token = new long[shards];
+            expiry = new long[shards];
+        }
+
+        /**
+         * @return Knoten-id -> Ablauf des Heartbeats in Epoch-Millisekunden
+         */
+        public Map<String, Long> nodes() {
+            return nodes;
+        }
+
+        public String owner(int shard) {
+            return owner[shard];
+        }
+
+        public long token(int shard) {
+            return token[shard];
+        }
+
+        public long expiry(int shard) {
+            return expiry[shard];
+        }
+
+        /**
+         * Uebernimmt einen Shard. Jeder Besitzerwechsel erhoeht das Fencing-Token, damit
+         * Schreibzugriffe des alten Besitzers erkannt und verworfen werden koennen.
+         */
+        public long grant(int shard, String node, long until) {
+            if (!node.equals(owner[shard])) {
+                owner[shard] = node;
+                token[shard]++;
+            }
+            expiry[shard] = until;
+            return token[shard];
+        }
+
+        public void release(int shard) {
+            owner[shard] = null;
+            expiry[shard] = 0;
+        }
+
+        private String format() {
+            StringBuilder out = new StringBuilder();
+            for (Map.Entry<String, Long> node : nodes.entrySet()) {
+                out.append("node ").append(node.getKey()).append(' ').append(node.getValue()).append('\n');
+            }
+            for (int shard = 0; shard < owner.length; shard++) {
+                out.append("shard ").append(shard).append(' ')
+                        .append(owner[shard] == null ? "-" : owner[shard]).append(' ')
+                        .append(token[shard]).append(' ').append(expiry[shard]).append('\n');
+            }
+            return out.toString();
+        }
+    }
+}
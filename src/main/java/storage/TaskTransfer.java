@@ -0,0 +1,187 @@
+package storage;
+
+import core.Scheduler;
+import core.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export und Import von Zeitplaenen, etwa um sie auf einen anderen Rechner zu bringen.
+ * <p>
+ * Ein Export wird Aufgabe fuer Aufgabe geschrieben, bei Endung {@code .gz} gzip-komprimiert,
+ * und ersetzt die Zieldatei atomar; fruehere Staende rotieren nach {@code <datei>.1} bis
+ * {@code <datei>.n}. Ein Import gleicht per id mit dem laufenden Scheduler ab und uebergibt nur
+ * die Unterschiede in einem Schritt an {@link Scheduler#apply}.
+ *
+ * @author Monke Vladyslav
+ * @version 1.1
+ */
+public class TaskTransfer {
+
+    public static final int DEFAULT_KEEP = 5;
+
+    private static final int BUFFER = 64 * 1024;
+
+    /**
+     * Was mit Aufgaben passiert, die es lokal mit anderem Inhalt schon gibt.
+     */
+    public enum Conflict {
+        KEEP, REPLACE, FAIL
+    }
+
+    public record Result(int added, int changed, int removed, int unchanged, int kept, int busy) {
+
+        public int applied() {
+            return added + changed + removed;
+        }
+
+        @Override
+        public String toString() {
+            return "added " + added + ", changed " + changed + ", removed " + removed + ", unchanged " + unchanged
+                    + ", kept local " + kept + ", skipped running " + busy;
+        }
+    }
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Schreibt den aktuellen Stand nach {@code file} und behaelt {@code keep} fruehere Staende.
+     */
+    public static void export(Scheduler scheduler, Path file, int keep) throws IOException {
+        String name = file.getFileName().toString();
+        if (keep < 0) throw new IllegalArgumentException("Invalid number of exports to keep: " + keep);
+        if (name.endsWith(".zst") || name.endsWith(".zstd")) {
+            throw new IllegalArgumentException("Invalid export format: zstd is not supported, use .gz");
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, name, ".tmp");
+        try {
+            OutputStream output = Files.newOutputStream(tmp);
+            if (name.endsWith(".gz")) output = new GZIPOutputStream(output, BUFFER);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER)) {
+                Data.writeTasks(writer, scheduler.snapshot(), scheduler::prerequisitesOf, id -> null);
+            }
+            rotate(file, keep);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * {@code file.(n-1)} wird {@code file.n} usw.; der aktuelle Stand bleibt dabei bis zum Ersetzen lesbar.
+     */
+    private static void rotate(Path file, int keep) throws IOException {
+        if (keep == 0 || !Files.exists(file)) return;
+        for (int i = keep - 1; i >= 1; i--) {
+            Path older = file.resolveSibling(file.getFileName() + "." + i);
+            if (Files.exists(older)) {
+                Files.move(older, file.resolveSibling(file.getFileName() + "." + (i + 1)),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path first = file.resolveSibling(file.getFileName() + ".1");
+        Files.deleteIfExists(first);
+        try {
+            Files.createLink(first, file);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file, first, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fuehrt die Aufgaben aus {@code file} mit dem Scheduler zusammen. Ohne {@code diff} kommen
+     * neue Aufgaben hinzu und abweichende werden nach {@code conflict} behandelt; mit {@code diff}
+     * wird der Scheduler zum Stand der Datei, lokal fehlende Aufgaben eingeschlossen.
+     *
+     * @throws IllegalArgumentException bei {@link Conflict#FAIL} und abweichenden Aufgaben, auch mit {@code diff};
+     * dann aendert sich nichts
+     */
+    public static Result importTasks(Scheduler scheduler, Path file, Conflict conflict, boolean diff) throws IOException {
+        // nur die ids der Datei nachschlagen, der Rest des Zeitplans bleibt unberuehrt
+        Map<UUID, Task> local = new HashMap<>();
+        Set<UUID> seen = new HashSet<>();
+        int[] identical = {0};
+        Map<UUID, Set<UUID>> after = new HashMap<>();
+        List<Task> incoming;
+        try (BufferedReader reader = Data.open(file)) {
+            // Bloecke, die Zeichen fuer Zeichen dem lokalen Stand entsprechen, werden gar nicht erst geparst
+            incoming = Data.readTasks(reader, after, null, (id, block) -> {
+                seen.add(id);
+                Task current = scheduler.get(id);
+                if (current != null) local.put(id, current);
+                boolean same = current != null && block.equals(Data.format(current, scheduler.prerequisitesOf(id)));
+                if (same) identical[0]++;
+                return same;
+            });
+        }
+
+        List<Task> upserts = new ArrayList<>();
+        Map<UUID, Set<UUID>> edges = new HashMap<>();
+        List<UUID> conflicts = new ArrayList<>();
+        int added = 0;
+        int changed = 0;
+        int unchanged = identical[0];
+        int kept = 0;
+        for (Task task : incoming) {
+            UUID id = task.getId();
+            // unbekannte Aktion, schon beim Lesen gemeldet
+            if (task.getAction() == null) continue;
+            Set<UUID> prerequisites = after.getOrDefault(id, Set.of());
+            Task current = local.get(id);
+            if (current == null) {
+                added++;
+            } else if (current.sameAs(task) && scheduler.prerequisitesOf(id).equals(prerequisites)) {
+                unchanged++;
+                continue;
+            } else if (conflict == Conflict.FAIL) {
+                conflicts.add(id);
+                continue;
+            } else if (diff || conflict == Conflict.REPLACE) {
+                changed++;
+            } else {
+                kept++;
+                continue;
+            }
+            upserts.add(task);
+            edges.put(id, prerequisites);
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Invalid import: " + conflicts.size()
+                    + " task(s) differ from the local ones, first " + conflicts.get(0));
+        }
+        List<UUID> removals = new ArrayList<>();
+        if (diff) {
+            for (Task task : scheduler.snapshot()) {
+                if (!seen.contains(task.getId())) removals.add(task.getId());
+            }
+        }
+        Set<UUID> busy = scheduler.apply(upserts, removals, edges);
+        int removed = removals.size();
+        for (UUID id : removals) {
+            if (busy.contains(id)) removed--;
+        }
+        Result result = new Result(added, changed, removed, unchanged, kept, busy.size());
+        if (result.applied() > 0) Data.requestSave(scheduler);
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package bench;
+
+import core.runnable.BackupRunner.BackupRunner;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Durchsatz von {@link BackupRunner} auf einem erzeugten Baum: erster Lauf seriell und parallel,
+ * Wiederholung ohne Aenderung, nach Aenderung von 1 % der Dateien und mit {@code verify}.
+ * Jede zehnte Datei ist ein Duplikat einer anderen.
+ * <p>
+ * Aufruf: java bench.BackupBenchmark [dateien] [verzeichnis]
+ */
+public class BackupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path root = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("backup-bench");
+        Path source = root.resolve("source");
+        long bytes = generate(source, count, new Random(42));
+        System.out.printf("tree: %d files, %d MB%n", count, bytes >> 20);
+
+        report("first run, 1 thread", new BackupRunner(source, root.resolve("serial"), false, 1).backup(), bytes);
+        BackupRunner runner = new BackupRunner(source, root.resolve("target"), false);
+        report("first run, parallel", runner.backup(), bytes);
+        report("unchanged", runner.backup(), bytes);
+
+        Random random = new Random(7);
+        for (int i = 0; i < count / 100; i++) {
+            Path file = file(source, random.nextInt(count));
+            Files.write(file, new byte[]{(byte) i}, StandardOpenOption.APPEND);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        }
+        report("1% changed", runner.backup(), bytes);
+        report("verify", new BackupRunner(source, root.resolve("target"), true).backup(), bytes);
+
+        if (args.length < 2) delete(root);
+    }
+
+    private static void report(String label, BackupRunner.Result result, long bytes) {
+        double seconds = Math.max(1, result.millis()) / 1000.0;
+        System.out.printf("%-22s %s | %.0f files/s, %.0f MB/s of tree%n", label, result,
+                result.files() / seconds, (bytes >> 20) / seconds);
+    }
+
+    private static long generate(Path source, int count, Random random) throws IOException {
+        long total = 0;
+        byte[] data = new byte[256 * 1024];
+        for (int i = 0; i < count; i++) {
+            Path file = file(source, i);
+            Files.createDirectories(file.getParent());
+            int size = 1024 + random.nextInt(random.nextInt(10) == 0 ? data.length - 1024 : 32 * 1024);
+            // Duplikate haben denselben Seed wie ihr Original
+            new Random(i % 10 == 9 ? i - 9 : i).nextBytes(data);
+            if (i % 10 == 9) size = (int) Files.size(file(source, i - 9));
+            Files.write(file, Arrays.copyOf(data, size));
+            total += size;
+        }
+        return total;
+    }
+
+    private static Path file(Path source, int index) {
+        return source.resolve("d" + index / 1000).resolve("s" + index / 100 % 10).resolve("f" + index + ".bin");
+    }
+
+    private static void delete(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package bench;
+
+import core.Task;
+import core.runnable.RunnableRegistry;
+import storage.Data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mehrere Daemon-JVMs teilen sich ein Cluster-Verzeichnis. Einmal-Aufgaben mit der Aktion
+ * "hello world" sind ueber das Zeitfenster verteilt; waehrenddessen kommt ein Knoten dazu,
+ * einer meldet sich ab und einer stuerzt ab. Jede Aufgabe soll genau einmal laufen.
+ * <p>
+ * Aufruf: java -cp ... bench.ClusterSmoke [aufgaben]
+ */
+public class ClusterSmoke {
+
+    private static final Map<String, AtomicInteger> RUNS = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        Path dir = Files.createTempDirectory("cluster");
+        Runnable hello = RunnableRegistry.get("hello world");
+        Instant begin = Instant.now().plusSeconds(3);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("smoke " + i, (byte) 1, begin.plusMillis(i * 12_000L / count), hello, null));
+        }
+        Data.writeTasks(dir.resolve(Data.TASKS_FILE).toString(), tasks, id -> null);
+
+        Process a = node(dir, "a");
+        Process b = node(dir, "b");
+        Thread.sleep(5_000);
+        Process c = node(dir, "c");
+        Thread.sleep(3_000);
+        b.toHandle().destroy(); // SIGTERM: sauberes Abmelden, Ausgabe bleibt lesbar
+        Thread.sleep(2_000);
+        c.destroyForcibly();    // Absturz: Lease laeuft ab
+        Thread.sleep(9_000);
+        a.toHandle().destroy();
+        for (Process p : List.of(a, b, c)) p.waitFor();
+
+        int total = 0;
+        for (Map.Entry<String, AtomicInteger> entry : RUNS.entrySet()) {
+            System.out.println("node " + entry.getKey() + ": " + entry.getValue() + " runs");
+            total += entry.getValue().get();
+        }
+        List<Task> left = Data.readTasks(dir.resolve(Data.TASKS_FILE).toString(), new HashMap<>());
+        System.out.printf("expected %d, ran %d, duplicates %d, left over %d%n",
+                count, total, Math.max(0, total - count), left.size());
+    }
+
+    private static Process node(Path dir, String id) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Dtasks.lease=2", "-cp", System.getProperty("java.class.path"),
+                "cli.Main", "--daemon", dir.resolve(id + ".sock").toString(), "--cluster", dir.toString(), "--node", id)
+                .redirectErrorStream(true)
+                .directory(new File(dir.toString()))
+                .start();
+        AtomicInteger runs = RUNS.computeIfAbsent(id, key -> new AtomicInteger());
+        Thread.ofPlatform().daemon().start(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.equals("Hello World")) {
+                        runs.incrementAndGet();
+                    } else {
+                        System.out.println("[" + id + "] " + line);
+                    }
+                }
+            } catch (Exception ignored) {
+            }
+        });
+        return process;
+    }
+}
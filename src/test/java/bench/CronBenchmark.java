@@ -0,0 +1,43 @@
+package bench;
+
+import core.CronRule;
+import core.RecurrenceRule;
+
+import java.time.ZoneId;
+
+/**
+ * Naechste Ausfuehrung fuer viele Cron-Regeln berechnen, wie beim Start mit grossem tasks.json.
+ * <p>
+ * Aufruf: java bench.CronBenchmark [anzahl]
+ */
+public class CronBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] expressions = {"0 9 * * MON-FRI", "*/15 * * * *", "30 2 * * *", "0 0 L * *", "0 12 1,15 * *"};
+        ZoneId[] zones = {ZoneId.of("Europe/Berlin"), ZoneId.of("America/New_York"), ZoneId.of("UTC")};
+        RecurrenceRule[] rules = new RecurrenceRule[expressions.length * zones.length];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = new CronRule(expressions[i % expressions.length], zones[i / expressions.length]);
+        }
+
+        long now = System.currentTimeMillis();
+        long[] next = new long[10];
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long begin = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sink += rules[i % rules.length].nextFire(now + i);
+            }
+            long single = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < count / 10; i++) {
+                sink += rules[i % rules.length].nextFireTimes(now + i, next);
+            }
+            long bulk = System.nanoTime() - begin;
+            System.out.printf("nextFire: %,d tasks in %d ms (%.0f ns/task), next 10: %.0f ns/task  [%d]%n",
+                    count, single / 1_000_000, (double) single / count, bulk / (count / 10.0), sink & 1);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import cli.Daemon;
+import cli.DaemonClient;
+import core.Scheduler;
+import core.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Befehle pro Sekunde ueber den Unix-Socket, einzeln und gepipelined. Zuerst gegen einen
+ * leeren Scheduler, dann mit {@value #TASKS} Aufgaben: deren "list"-Antworten sind so gross,
+ * dass der Daemon die Verbindung drosselt, bis der Client abholt. tasks.json bleibt unberuehrt.
+ * <p>
+ * Aufruf: java bench.DaemonBenchmark [anzahl]
+ */
+public class DaemonBenchmark {
+
+    private static final int TASKS = 300;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path socket = Files.createTempDirectory("tasks").resolve("bench.sock");
+        Scheduler scheduler = new Scheduler();
+        scheduler.setAutoSave(false);
+        Daemon daemon = new Daemon(scheduler, socket);
+        Thread server = Thread.ofPlatform().start(() -> {
+            try {
+                daemon.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        try (DaemonClient client = connect(socket)) {
+            for (int round = 0; round < 3; round++) {
+                long begin = System.nanoTime();
+                for (int i = 0; i < count; i++) client.send("list");
+                report("sequential", count, System.nanoTime() - begin);
+
+                List<String> batch = Collections.nCopies(count, "list");
+                begin = System.nanoTime();
+                client.sendAll(batch);
+                report("pipelined", count, System.nanoTime() - begin);
+            }
+
+            Instant later = Instant.now().plus(Duration.ofDays(1));
+            for (int i = 0; i < TASKS; i++) scheduler.addTask(new Task("bench " + i, (byte) 3, later, () -> {}, null));
+            int large = Math.max(1, count / 4);
+            long begin = System.nanoTime();
+            List<DaemonClient.Response> responses = client.sendAll(Collections.nCopies(large, "list"));
+            long bytes = 0;
+            for (DaemonClient.Response response : responses) bytes += response.output().length();
+            report("pipelined, " + TASKS + " tasks", large, System.nanoTime() - begin);
+            System.out.printf("  %,d MB of replies%n", bytes >> 20);
+        }
+        daemon.stop();
+        server.join();
+        scheduler.shutdown();
+    }
+
+    private static DaemonClient connect(Path socket) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return new DaemonClient(socket);
+            } catch (IOException e) {
+                if (attempt == 100) throw e;
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static void report(String label, int count, long nanos) {
+        System.out.printf("%-22s %,8d ops in %5d ms  %,10.0f ops/s%n", label, count, nanos / 1_000_000, count / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import storage.ExecutionLog;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Kosten von {@link ExecutionLog#append} auf dem aufrufenden Thread (Zeit und allokierte
+ * Bytes pro Aufruf) sowie Dauer der beiden Abfragen ueber alle geschriebenen Segmente.
+ * <p>
+ * Aufruf: java bench.ExecutionLogBenchmark [laeufe]
+ */
+public class ExecutionLogBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Path dir = Files.createTempDirectory("history");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        UUID[] tasks = new UUID[100];
+        for (int i = 0; i < tasks.length; i++) tasks[i] = UUID.randomUUID();
+        String[] actions = {"space fact", "random fact", "wallpaper", "hello world"};
+        ExecutionLog.Status[] statuses = ExecutionLog.Status.values();
+
+        try (ExecutionLog log = new ExecutionLog(dir, Duration.ofDays(30), 1 << 16)) {
+            for (String action : actions) log.append(tasks[0], action, 0, 0, 0, ExecutionLog.Status.SUCCESS);
+            for (int round = 0; round < 3; round++) {
+                long now = System.currentTimeMillis();
+                long bytes = threads.getCurrentThreadAllocatedBytes();
+                long appendNanos = 0;
+                long begin = System.nanoTime();
+                // Schuebe von halber Puffergroesse, damit nichts verworfen wird
+                for (int i = 0; i < count; ) {
+                    long burst = System.nanoTime();
+                    for (int end = Math.min(count, i + (1 << 15)); i < end; i++) {
+                        log.append(tasks[i % tasks.length], actions[i & 3], now - 5, now + i, 1_000_000L + i,
+                                statuses[i % 7 == 0 ? 1 : 0]);
+                    }
+                    appendNanos += System.nanoTime() - burst;
+                    log.flush();
+                }
+                long total = System.nanoTime() - begin;
+                long allocated = threads.getCurrentThreadAllocatedBytes() - bytes;
+                System.out.printf("append %,9d ops %6.1f ns/op %5.2f B/op | writer %,10.0f records/s | dropped %d%n",
+                        count, (double) appendNanos / count, (double) allocated / count, count / (total / 1e9),
+                        log.dropped());
+            }
+
+            long begin = System.nanoTime();
+            int runs = log.lastRuns(tasks[42], 20).size();
+            System.out.printf("lastRuns     %d runs in %5.1f ms%n", runs, (System.nanoTime() - begin) / 1e6);
+            begin = System.nanoTime();
+            var rates = log.failureRates(Instant.EPOCH);
+            System.out.printf("failureRates %d actions in %5.1f ms%n", rates.size(), (System.nanoTime() - begin) / 1e6);
+            rates.values().forEach(stats -> System.out.printf("  %-12s %,9d runs %5.1f%% failed%n",
+                    stats.action(), stats.runs(), stats.failureRate() * 100));
+        }
+        try (var files = Files.list(dir)) {
+            System.out.println("segments: " + files.filter(p -> p.toString().endsWith(".log")).count());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import core.Scheduler;
+import core.SystemClock;
+import core.TagShare;
+import core.Task;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lauter Nachbar: ein Skript legt auf einen Schlag tausende sofort faellige Aufgaben an
+ * ({@code bulk}), waehrend ein anderer Besitzer ({@code ops}) regelmaessig einzelne Aufgaben
+ * faellig hat. Beide nutzen dieselbe Aktion (Bulkhead 4) und denselben IO-Pool.
+ * Gemessen wird die Startverspaetung der ops-Aufgaben (Start minus Faelligkeit):
+ * <ul>
+ *     <li>ohne Tags: eine gemeinsame FIFO-Warteschlange wie frueher</li>
+ *     <li>mit Tags: gewichtet faire Warteschlangen, beide Gewicht 1</li>
+ *     <li>dazu eine Quote fuer bulk</li>
+ * </ul>
+ * Aufruf: java bench.FairnessBenchmark [bulk-aufgaben] [ops-aufgaben]
+ */
+public class FairnessBenchmark {
+
+    private static final long WORK_MILLIS = 10;
+
+    private static final long OPS_EVERY_MILLIS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int bulk = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        run("no tags (FIFO)      ", bulk, ops, false, null);
+        run("tags, fair queuing  ", bulk, ops, true, null);
+        run("tags + bulk 100/1s  ", bulk, ops, true, "1:100/1s");
+        System.exit(0);
+    }
+
+    private static void run(String label, int bulk, int ops, boolean tagged, String bulkShare)
+            throws InterruptedException {
+        SystemClock clock = new SystemClock(2, 4, 16);
+        Scheduler scheduler = new Scheduler(clock);
+        scheduler.setAutoSave(false);
+        if (bulkShare != null) scheduler.setTagShare("bulk", TagShare.parse(bulkShare));
+
+        List<Long> opsDelay = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger bulkStarted = new AtomicInteger();
+        CountDownLatch opsDone = new CountDownLatch(ops);
+        scheduler.setRunListener((task, startedAt, durationNanos, success) -> {
+            if (task.getName().startsWith("ops")) {
+                opsDelay.add(startedAt - task.getExecuteAT().toEpochMilli());
+                opsDone.countDown();
+            } else {
+                bulkStarted.incrementAndGet();
+            }
+        });
+        // eine Aktion fuer alle: beide Besitzer teilen Bulkhead und Pool
+        Runnable work = () -> {
+            try {
+                Thread.sleep(WORK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        long begin = System.currentTimeMillis();
+        Instant now = Instant.ofEpochMilli(begin);
+        for (int i = 0; i < bulk; i++) {
+            Task task = new Task("bulk " + i, (byte) 3, now, work, null);
+            scheduler.addTask(tagged ? task.withTag("bulk") : task);
+        }
+        for (int i = 0; i < ops; i++) {
+            Instant at = Instant.ofEpochMilli(begin + (i + 1) * OPS_EVERY_MILLIS);
+            Task task = new Task("ops " + i, (byte) 1, at, work, null);
+            scheduler.addTask(tagged ? task.withTag("ops") : task);
+        }
+        boolean finished = opsDone.await(5, TimeUnit.MINUTES);
+        long elapsed = System.currentTimeMillis() - begin;
+        int bulkDuring = bulkStarted.get();
+        // was von bulk noch wartet, nicht mehr in den gestoppten Pool geben
+        scheduler.removeByPrefix("bulk");
+        scheduler.shutdown();
+
+        long[] values = opsDelay.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%s: ops delay p50 %5d ms, p99 %5d ms, max %5d ms | bulk runs %4d in %5d ms%s%n",
+                label, values[values.length / 2], values[values.length * 99 / 100], values[values.length - 1],
+                bulkDuring, elapsed, finished ? "" : " (timed out)");
+    }
+}
@@ -0,0 +1,55 @@
+package bench;
+
+import core.IdGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durchsatz der id-Generatoren bei mehreren Threads.
+ * <p>
+ * Aufruf: java bench.IdGeneratorBenchmark [threads] [ids pro thread]
+ */
+public class IdGeneratorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        for (int round = 0; round < 2; round++) {
+            run("random (SecureRandom)", IdGenerator.random(), threads, perThread / 4);
+            run("uuidV7", IdGenerator.uuidV7(), threads, perThread);
+            run("monotonic", IdGenerator.monotonic(), threads, perThread);
+        }
+    }
+
+    private static void run(String label, IdGenerator generator, int threads, int perThread)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong sink = new AtomicLong();
+        for (int t = 0; t < threads; t++) {
+            Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long x = 0;
+                for (int i = 0; i < perThread; i++) {
+                    UUID id = generator.next();
+                    x ^= id.getLeastSignificantBits();
+                }
+                sink.addAndGet(x);
+                done.countDown();
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%-22s %2d threads  %,14.0f ids/s  (%d)%n",
+                label, threads, threads * (double) perThread / seconds, sink.get() & 1);
+    }
+}
@@ -0,0 +1,74 @@
+package bench;
+
+import core.runnable.LogCleaner.LogCleaner;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+/**
+ * {@link LogCleaner} auf einem flachen Verzeichnis mit vielen Dateien, deren Alter gleichmaessig
+ * ueber 60 Tage verteilt ist: die aeltesten 30 Tage werden geloescht, 1 bis 30 Tage alte komprimiert,
+ * danach wird auf ein Zehntel der Anzahl gekuerzt. Gibt Laufzeit und hoechsten Heap-Verbrauch aus;
+ * mit kleinem {@code -Xmx} zeigt sich, dass der Speicher nicht mit der Dateizahl waechst.
+ * <p>
+ * Aufruf: java -Xmx64m bench.LogCleanerBenchmark [dateien]
+ */
+public class LogCleanerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path dir = Files.createTempDirectory("logs-bench");
+        long now = System.currentTimeMillis();
+        byte[] line = "2026-01-01T00:00:00Z INFO task finished\n".repeat(20).getBytes();
+        for (int i = 0; i < count; i++) {
+            Path file = dir.resolve("app-" + i + ".log");
+            Files.write(file, line);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now - Duration.ofDays(60).toMillis() * i / count));
+        }
+        System.out.printf("created %d files%n", count);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] peak = {0};
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak[0] = Math.max(peak[0], memory.getHeapMemoryUsage().getUsed());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        sampler.start();
+        LogCleaner cleaner = LogCleaner.parse(dir + " *.log gzip=1d age=30d count=" + count / 10);
+        LogCleaner.Result result = cleaner.clean();
+        sampler.interrupt();
+        System.out.println(result);
+        System.out.printf("left %d files, heap baseline %d MB, peak %d MB%n", count(dir), baseline >> 20, peak[0] >> 20);
+        delete(dir);
+    }
+
+    private static int count(Path dir) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path ignored : stream) count++;
+        }
+        return count;
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+}
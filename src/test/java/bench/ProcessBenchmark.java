@@ -0,0 +1,100 @@
+package bench;
+
+import core.runnable.ProcessAction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Viele kurze Befehle ({@value #SLEEP} s) auf einmal: frueher {@code Runtime.exec} ohne Warten und ohne die Pipes
+ * zu schliessen, jetzt {@link ProcessAction} mit Ausgabe in eine Datei. Gezaehlt werden offene
+ * Dateideskriptoren des Prozesses (aus {@code /proc/self/fd}, nur Linux), hoechstens
+ * gleichzeitig laufende Kindprozesse und die Dauer.
+ * <p>
+ * Aufruf: java bench.ProcessBenchmark [befehle]
+ */
+public class ProcessBenchmark {
+
+    // jeder Befehl lebt so lange (Sekunden), damit sich gleichzeitig laufende stauen
+    private static final String SLEEP = "0.2";
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        Path dir = Files.createTempDirectory("process-bench");
+        System.out.printf("open fds at start: %d%n", openFiles());
+
+        // alt: Prozesse starten und vergessen; die Pipes bleiben offen, bis der GC sie findet
+        List<Process> started = new ArrayList<>();
+        long begin = System.nanoTime();
+        int failed = 0;
+        for (int i = 0; i < count; i++) {
+            try {
+                started.add(Runtime.getRuntime().exec(new String[]{"sleep", SLEEP}));
+            } catch (IOException e) {
+                failed++;
+            }
+        }
+        long oldMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.printf("exec and forget: %d started in %d ms, %d failed, open fds right after %d%n",
+                started.size(), oldMillis, failed, openFiles());
+        for (Process process : started) process.waitFor();
+        started.clear();
+        System.gc();
+        Thread.sleep(500);
+        System.out.printf("open fds after waiting and GC: %d%n", openFiles());
+
+        // neu: alle auf einmal faellig, je ein virtueller Thread, Ausgabe in eine Datei
+        ProcessAction action = new ProcessAction(List.of("/bin/sh", "-c", "echo run; sleep " + SLEEP), Duration.ofSeconds(30),
+                dir.resolve("output.log"));
+        AtomicInteger peakProcesses = new AtomicInteger();
+        AtomicInteger peakFiles = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakProcesses.accumulateAndGet(ProcessAction.running(), Math::max);
+                peakFiles.accumulateAndGet((int) openFiles(), Math::max);
+                Thread.onSpinWait();
+            }
+        });
+        begin = System.nanoTime();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                threads.execute(() -> {
+                    try {
+                        action.run();
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                });
+            }
+        }
+        long newMillis = (System.nanoTime() - begin) / 1_000_000;
+        sampler.interrupt();
+        long lines;
+        try (Stream<String> output = Files.lines(dir.resolve("output.log"))) {
+            lines = output.filter("run"::equals).count();
+        }
+        System.out.printf("ProcessAction: %d runs in %d ms, %d failed, peak %d processes (limit %d), peak open fds %d, "
+                        + "%d output lines, open fds afterwards %d%n", count, newMillis, errors.get(), peakProcesses.get(),
+                ProcessAction.MAX_PROCESSES, peakFiles.get(), lines, openFiles());
+        System.exit(0);
+    }
+
+    private static long openFiles() {
+        Path fds = Path.of("/proc/self/fd");
+        if (!Files.isDirectory(fds)) return -1;
+        try (Stream<Path> files = Files.list(fds)) {
+            return files.count();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package bench;
+
+import core.ResourceClass;
+import core.ResourceLimit;
+import core.SystemClock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gemischte Last auf einmal faellig: lange blockierende Plattenjobs, viele kurze Netzaufrufe
+ * und rechnende Jobs. Einmal alles in einem gemeinsamen Pool wie frueher
+ * ({@code max(4, Kerne)} Threads), einmal mit den Pools des {@link SystemClock} je
+ * {@link ResourceClass} und der Zulassung, die der Scheduler davor setzt. Gemessen wird, wie
+ * lange Netzaufrufe und Rechenjobs vom Faelligwerden bis zum Ende brauchen.
+ * <p>
+ * Platte und Netz werden durch Warten nachgebildet, Rechnen durch echtes Rechnen.
+ * <p>
+ * Aufruf: java bench.ResourceBenchmark [plattenjobs] [netzaufrufe] [rechenjobs]
+ */
+public class ResourceBenchmark {
+
+    private static final long DISK_MILLIS = 500;
+
+    private static final long NETWORK_MILLIS = 50;
+
+    private static final long CPU_MILLIS = 20;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int disk = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int network = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int cpu = args.length > 2 ? Integer.parseInt(args[2]) : cores * 8;
+
+        for (int round = 0; round < 2; round++) {
+            // erste Runde waermt den JIT auf
+            boolean print = round == 1;
+            ExecutorService shared = Executors.newFixedThreadPool(Math.max(4, cores));
+            run("shared pool", disk, network, cpu, print, (resource, work) -> shared.execute(work));
+            shared.shutdown();
+
+            SystemClock clock = new SystemClock();
+            Admission admission = new Admission(clock);
+            run("per class  ", disk, network, cpu, print, admission::submit);
+            clock.shutdown();
+        }
+        System.exit(0);
+    }
+
+    private static void run(String label, int disk, int network, int cpu, boolean print, Dispatcher dispatcher)
+            throws InterruptedException {
+        Map<ResourceClass, List<Long>> latency = new EnumMap<>(ResourceClass.class);
+        for (ResourceClass resource : ResourceClass.values()) {
+            latency.put(resource, Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(disk + network + cpu);
+        long start = System.nanoTime();
+        // Reihenfolge wie in einem Zeitplan: die Plattenjobs sind zuerst faellig
+        for (int i = 0; i < disk; i++) submit(dispatcher, ResourceClass.IO, start, latency, done);
+        for (int i = 0; i < Math.max(network, cpu); i++) {
+            if (i < network) submit(dispatcher, ResourceClass.NETWORK, start, latency, done);
+            if (i < cpu) submit(dispatcher, ResourceClass.CPU, start, latency, done);
+        }
+        done.await();
+        long total = (System.nanoTime() - start) / 1_000_000;
+        if (!print) return;
+        System.out.printf("%s: all done in %5d ms%n", label, total);
+        for (ResourceClass resource : ResourceClass.values()) {
+            long[] values = latency.get(resource).stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("  %-7s %4d jobs: p50 %5d ms, p99 %5d ms, last %5d ms%n", resource, values.length,
+                    values[values.length / 2], values[values.length * 99 / 100], values[values.length - 1]);
+        }
+    }
+
+    private static void submit(Dispatcher dispatcher, ResourceClass resource, long start,
+                               Map<ResourceClass, List<Long>> latency, CountDownLatch done) {
+        dispatcher.submit(resource, () -> {
+            try {
+                work(resource);
+            } finally {
+                latency.get(resource).add((System.nanoTime() - start) / 1_000_000);
+                done.countDown();
+            }
+        });
+    }
+
+    private static void work(ResourceClass resource) {
+        if (resource == ResourceClass.CPU) {
+            long until = System.nanoTime() + CPU_MILLIS * 1_000_000;
+            long value = 0;
+            while (System.nanoTime() < until) {
+                for (int i = 0; i < 10_000; i++) value = value * 31 + i;
+            }
+            sink = value;
+            return;
+        }
+        try {
+            Thread.sleep(resource == ResourceClass.IO ? DISK_MILLIS : NETWORK_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Dispatcher {
+        void submit(ResourceClass resource, Runnable work);
+    }
+
+    /**
+     * Die Zulassung des Schedulers: ueber der Kapazitaet eines Pools wartet die Arbeit hier,
+     * und jede fertige Arbeit gibt ihren Platz an die naechste wartende weiter.
+     */
+    private static final class Admission {
+
+        private final SystemClock clock;
+
+        private final Map<ResourceClass, ResourceLimit> limits = new EnumMap<>(ResourceClass.class);
+
+        // ResourceLimit fuehrt Aufgaben; hier genuegt eine eigene Warteschlange je Klasse
+        private final Map<ResourceClass, Queue<Runnable>> backlog = new EnumMap<>(ResourceClass.class);
+
+        private Admission(SystemClock clock) {
+            this.clock = clock;
+            for (ResourceClass resource : ResourceClass.values()) {
+                limits.put(resource, new ResourceLimit(resource, clock.capacity(resource)));
+                backlog.put(resource, new ArrayDeque<>());
+            }
+        }
+
+        private void submit(ResourceClass resource, Runnable work) {
+            synchronized (this) {
+                if (!limits.get(resource).tryAcquire()) {
+                    backlog.get(resource).add(work);
+                    return;
+                }
+            }
+            start(resource, work);
+        }
+
+        private void start(ResourceClass resource, Runnable work) {
+            clock.execute(resource, () -> {
+                try {
+                    work.run();
+                } finally {
+                    Runnable next;
+                    synchronized (this) {
+                        next = backlog.get(resource).poll();
+                        if (next == null) limits.get(resource).release();
+                    }
+                    if (next != null) start(resource, next);
+                }
+            });
+        }
+    }
+}
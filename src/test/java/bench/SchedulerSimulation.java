@@ -0,0 +1,156 @@
+package bench;
+
+import core.RecurrenceRule;
+import core.Scheduler;
+import core.Task;
+import core.VirtualClock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Lasttest des {@link Scheduler} in simulierter Zeit ({@link VirtualClock}).
+ * <p>
+ * Erzeugt aus einem Seed eine reproduzierbare Last: {@code recurring} wiederkehrende Aufgaben
+ * (Mischung aus festen Intervallen und Cron-Ausdruecken) plus einmalige Aufgaben, die als
+ * Poisson-Prozess mit {@code arrivals} pro Stunde eintreffen und 1 min bis 1 Tag spaeter faellig
+ * sind. Prioritaeten sind gleichverteilt 1 bis 5, Aktionsdauern exponentiell verteilt. Ausgegeben
+ * werden Laeufe, Durchsatz in echter Zeit, Verteilung der Verspaetung (Start minus geplanter
+ * Zeitpunkt, simuliert) und Speicher.
+ * <p>
+ * Aufruf: java bench.SchedulerSimulation [tage] [wiederkehrend] [ankuenfte/h] [worker] [dauer-ms] [seed]
+ */
+public class SchedulerSimulation {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static final Duration[] INTERVALS = {
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofDays(1)
+    };
+
+    private static final String[] CRONS = {"*/15 * * * *", "0 9 * * MON-FRI", "30 */2 * * *", "0 0 1 * *", "0 18 L * *"};
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int recurring = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        double arrivals = args.length > 2 ? Double.parseDouble(args[2]) : 200;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        double meanMillis = args.length > 4 ? Double.parseDouble(args[4]) : 200;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+
+        Random random = new Random(seed);
+        VirtualClock clock = new VirtualClock(START, workers);
+        Scheduler scheduler = new Scheduler(clock);
+        scheduler.setAutoSave(false);
+        Histogram lateness = new Histogram();
+        scheduler.setRunListener((task, startedAt, duration, success) ->
+                lateness.add(startedAt - task.getExecuteAT().toEpochMilli()));
+        // eine gemeinsame Aktion, damit alle Aufgaben denselben Bulkhead teilen
+        Random durations = new Random(seed + 1);
+        Runnable action = () -> clock.busy((long) (-meanMillis * Math.log(1 - durations.nextDouble())));
+
+        for (int i = 0; i < recurring; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            byte priority = (byte) (1 + random.nextInt(5));
+            Instant first = START.plusMillis(random.nextInt(3_600_000));
+            if (random.nextInt(4) == 0) {
+                RecurrenceRule rule = RecurrenceRule.cron(CRONS[random.nextInt(CRONS.length)], ZoneId.of("Europe/Berlin"));
+                Instant at = rule.nextAfter(START);
+                scheduler.addTask(new Task(id, "cron-" + i, priority, at, action, null).withRecurrence(rule));
+            } else {
+                Duration interval = INTERVALS[random.nextInt(INTERVALS.length)];
+                scheduler.addTask(new Task(id, "every-" + i, priority, first, action, interval));
+            }
+        }
+        long end = START.plus(Duration.ofDays(days)).toEpochMilli();
+        scheduleArrival(clock, scheduler, random, action, arrivals, end, new int[1]);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long peak = 0;
+        long begin = System.nanoTime();
+        // tageweise, damit der Speicher zwischendurch gemessen werden kann
+        for (long day = START.toEpochMilli(); day < end; day += Duration.ofDays(1).toMillis()) {
+            clock.runUntil(Math.min(end, day + Duration.ofDays(1).toMillis()));
+            peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.gc();
+        long retained = memory.getHeapMemoryUsage().getUsed();
+
+        System.out.printf("simulated %d days, %d recurring, %.0f arrivals/h, %d workers, mean action %.0f ms, seed %d%n",
+                days, recurring, arrivals, workers, meanMillis, seed);
+        System.out.printf("runs %d, events %d, pending timers %d, tasks left %d%n", lateness.count(), clock.getEvents(),
+                clock.pendingTimers(), scheduler.snapshot().size());
+        System.out.printf("wall %.2f s, %.0f runs/s, %.0f simulated hours/s%n", seconds, lateness.count() / seconds,
+                days * 24 / seconds);
+        System.out.printf("lateness ms: p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n", lateness.percentile(0.5),
+                lateness.percentile(0.9), lateness.percentile(0.99), lateness.percentile(0.999), lateness.max());
+        System.out.printf("heap: peak %d MB, retained %d MB%n", peak >> 20, retained >> 20);
+        scheduler.shutdown();
+    }
+
+    /**
+     * Plant die naechste Ankunft einer einmaligen Aufgabe; exponentielle Abstaende ergeben einen Poisson-Prozess.
+     */
+    private static void scheduleArrival(VirtualClock clock, Scheduler scheduler, Random random, Runnable action,
+                                        double perHour, long end, int[] counter) {
+        if (perHour <= 0) return;
+        long gap = (long) (-3_600_000 / perHour * Math.log(1 - random.nextDouble()));
+        if (clock.millis() + gap >= end) return;
+        clock.schedule(() -> {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            Instant at = Instant.ofEpochMilli(clock.millis() + 60_000 + (long) (random.nextDouble() * 86_400_000));
+            scheduler.addTask(new Task(id, "once-" + counter[0]++, (byte) (1 + random.nextInt(5)), at, action, null));
+            scheduleArrival(clock, scheduler, random, action, perHour, end, counter);
+        }, gap);
+    }
+
+    /**
+     * Exakt bis 1 s, darueber in Zweierpotenzen.
+     */
+    private static final class Histogram {
+
+        private final long[] exact = new long[1000];
+
+        private final long[] coarse = new long[64];
+
+        private long count;
+
+        private long max;
+
+        void add(long value) {
+            value = Math.max(0, value);
+            if (value < exact.length) exact[(int) value]++;
+            else coarse[63 - Long.numberOfLeadingZeros(value)]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long max() {
+            return max;
+        }
+
+        long percentile(double p) {
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < exact.length; i++) {
+                seen += exact[i];
+                if (seen >= rank && seen > 0) return i;
+            }
+            for (int i = 0; i < coarse.length; i++) {
+                seen += coarse[i];
+                if (seen >= rank && seen > 0) return Math.min(max, (2L << i) - 1);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package bench;
+
+import core.Task;
+import core.TaskIndex;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Namenssuche ueber sehr viele Aufgaben: Aufbau und Speicher des {@link TaskIndex}, Latenz
+ * (p50/p99) von Teilstring- und kurzen Praefix-Suchen, Kosten fuer Umbenennen und Entfernen.
+ * Zum Vergleich die lineare Suche ueber alle Namen, wie sie ohne Index noetig waere.
+ * <p>
+ * Aufruf: java bench.SearchBenchmark [aufgaben] [suchen]
+ */
+public class SearchBenchmark {
+
+    private static final String[] WORDS = {
+            "backup", "deploy", "report", "invoice", "cleanup", "sync", "mail", "database", "photos", "server",
+            "weekly", "daily", "monthly", "archive", "rotate", "logs", "build", "release", "test", "metrics",
+            "billing", "users", "cache", "index", "export", "import", "review", "meeting", "coding", "music"
+    };
+
+    private static final String[] QUERIES = {"backup", "data", "ily rep", "invoice 12", "rotate logs", "zzz", "se"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int searches = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Random random = new Random(42);
+        Runnable action = () -> {
+        };
+        Instant start = Instant.parse("2027-01-01T00:00:00Z");
+
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + random.nextInt(100_000);
+            tasks.add(new Task(name, (byte) (1 + i % 5), start, action, Duration.ofDays(1)));
+        }
+
+        long heap = usedHeap();
+        long begin = System.nanoTime();
+        TaskIndex index = new TaskIndex();
+        for (Task task : tasks) index.add(task);
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.printf("build %d tasks: %d ms, ~%d MB heap%n", count, buildMillis, (usedHeap() - heap) >> 20);
+
+        for (String query : QUERIES) {
+            long[] times = new long[searches];
+            int found = 0;
+            for (int i = 0; i < searches; i++) {
+                long t = System.nanoTime();
+                found = index.search(query, 50).size();
+                times[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(times);
+            System.out.printf("search %-14s %2d hits: p50 %6.1f us, p99 %6.1f us%n", '"' + query + '"', found,
+                    times[searches / 2] / 1e3, times[searches * 99 / 100] / 1e3);
+        }
+
+        // ohne Index: jeden Namen pruefen (nicht gefundene Suche = schlimmster Fall)
+        long linear = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long t = System.nanoTime();
+            int found = 0;
+            for (Task task : tasks) {
+                if (task.getName().toLowerCase().contains("zzz")) found++;
+            }
+            linear = Math.min(linear, System.nanoTime() - t);
+            if (found < 0) System.out.println(found);
+        }
+        System.out.printf("linear scan \"zzz\": %.1f ms%n", linear / 1e6);
+
+        int updates = Math.min(count, 100_000);
+        begin = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            Task task = tasks.get(i);
+            Task renamed = task.withName("renamed " + task.getName());
+            index.replace(task, renamed);
+            tasks.set(i, renamed);
+        }
+        long renameNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (int i = 0; i < updates; i++) index.remove(tasks.get(i));
+        long removeNanos = System.nanoTime() - begin;
+        System.out.printf("rename %d: %.2f us each, remove %d: %.2f us each, %d left%n", updates,
+                renameNanos / 1e3 / updates, updates, removeNanos / 1e3 / updates, index.size());
+        System.exit(0);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import core.Scheduler;
+import core.Task;
+import core.VirtualClock;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Speicherumschlag von {@link Scheduler#snapshot()} bei vielen Lesern: Bytes und Zeit je Aufruf
+ * der versionierten Liste gegen die fruehere volle Kopie ({@code new ArrayList<>(...)}), dazu
+ * die Kosten einer Aenderung, die eine neue Version veroeffentlicht. Gemessen wird mit den
+ * Allokationszaehlern des Threads, deshalb laeuft alles auf dem aufrufenden Thread.
+ * <p>
+ * Aufruf: java bench.SnapshotBenchmark [aufgaben] [lesezugriffe]
+ */
+public class SnapshotBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        // virtuelle Uhr: keine Timer-Threads, nichts feuert
+        Scheduler scheduler = new Scheduler(new VirtualClock(Instant.parse("2026-01-01T00:00:00Z"), 1));
+        scheduler.setAutoSave(false);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("task-" + i, (byte) (1 + i % 5), Instant.parse("2027-01-01T00:00:00Z"), () -> {
+            }, null);
+            scheduler.addTask(task);
+            ids.add(task.getId());
+        }
+
+        for (int round = 0; round < 3; round++) {
+            measure("snapshot (version)", reads, () -> sink(scheduler.snapshot().size()));
+            measure("snapshot (copy)   ", reads, () -> sink(new ArrayList<>(scheduler.snapshot()).size()));
+            int[] next = {0};
+            measure("changePriority    ", reads, () ->
+                    scheduler.changePriority(ids.get(next[0]++ % count), (byte) (1 + next[0] % 5)));
+        }
+        System.out.println(sink);
+        scheduler.shutdown();
+    }
+
+    private static long sink;
+
+    private static void sink(long value) {
+        sink += value;
+    }
+
+    private static void measure(String label, int times, Runnable body) {
+        long thread = Thread.currentThread().threadId();
+        long bytes = THREADS.getThreadAllocatedBytes(thread);
+        long begin = System.nanoTime();
+        for (int i = 0; i < times; i++) body.run();
+        long nanos = System.nanoTime() - begin;
+        bytes = THREADS.getThreadAllocatedBytes(thread) - bytes;
+        System.out.printf("%s %10.1f bytes/op %10.1f ns/op%n", label, (double) bytes / times, (double) nanos / times);
+    }
+}
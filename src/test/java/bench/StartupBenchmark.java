@@ -0,0 +1,123 @@
+package bench;
+
+import core.Scheduler;
+import core.Task;
+import core.VirtualClock;
+import core.runnable.RunnableRegistry;
+import storage.Checkpoint;
+import storage.Data;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Zeit vom JVM-Start bis zum ersten gestarteten Lauf, jeweils in einer frischen JVM: Zeitplan
+ * aus {@code tasks.json}, aus dem Checkpoint und aus dem Checkpoint mit AppCDS-Archiv. Eine
+ * Aufgabe ist sofort faellig, alle anderen erst morgen.
+ * <p>
+ * AppCDS archiviert nur Klassen aus Jars; mit Klassenverzeichnissen im Klassenpfad entfaellt
+ * der letzte Teil. Dafuer mit dem Jar aus {@code mvn -Pappcds package} und den Test-Klassen als Jar starten.
+ * <p>
+ * Aufruf: java bench.StartupBenchmark [aufgaben] [laeufe]
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("child")) {
+            child(args[1]);
+            return;
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path dir = Files.createTempDirectory("startup-bench");
+        Path file = dir.resolve("tasks.json");
+        Path archive = dir.resolve("app.jsa");
+
+        Runnable action = RunnableRegistry.get("coding");
+        Instant tomorrow = Instant.now().plus(Duration.ofDays(1));
+        List<Task> tasks = new ArrayList<>(count);
+        tasks.add(new Task("first", (byte) 1, Instant.EPOCH, action, null));
+        for (int i = 1; i < count; i++) {
+            tasks.add(new Task("task " + i, (byte) (1 + i % 5), tomorrow.plusSeconds(i), action, Duration.ofDays(1)));
+        }
+        Data.writeTasks(file.toString(), tasks, id -> null);
+        System.setProperty("tasks.file", file.toString());
+        System.out.printf("%d tasks, tasks.json %d KB%n", count, Files.size(file) >> 10);
+
+        report("tasks.json", runs, file);
+        // Checkpoint mit simulierter Uhr, damit die sofort faellige Aufgabe dabei nicht schon laeuft
+        Scheduler writer = new Scheduler(new VirtualClock(Instant.now(), 1));
+        writer.setAutoSave(false);
+        Data.loadTasks(writer);
+        Checkpoint.write(writer, Path.of(file + ".ckpt"), file);
+        System.out.printf("checkpoint %d KB%n", Files.size(Path.of(file + ".ckpt")) >> 10);
+        report("checkpoint", runs, file);
+        for (String entry : System.getProperty("java.class.path").split(java.io.File.pathSeparator)) {
+            if (!entry.isEmpty() && Files.isDirectory(Path.of(entry))) {
+                System.out.println("AppCDS skipped: class path contains the directory " + entry);
+                return;
+            }
+        }
+        // Trainingslauf, dann mit dem Archiv
+        run(file, "-XX:ArchiveClassesAtExit=" + archive, "-Xlog:cds=off", "-Xlog:cds+dynamic=off");
+        report("checkpoint + AppCDS", runs, file, "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off");
+    }
+
+    private static void report(String label, int runs, Path file, String... options) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) millis[i] = run(file, options);
+        Arrays.sort(millis);
+        System.out.printf("%-20s start to first dispatch: median %4d ms, best %4d ms%n", label, millis[runs / 2], millis[0]);
+    }
+
+    private static long run(Path file, String... options) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(options));
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), StartupBenchmark.class.getName(),
+                "child", file.toString()));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long millis = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("FIRST ")) millis = Long.parseLong(line.substring(6));
+                else if (!line.startsWith("Loaded ")) System.out.println("  " + line);
+            }
+        }
+        if (process.waitFor() != 0 || millis < 0) throw new IllegalStateException("Child failed: " + command);
+        return millis;
+    }
+
+    /**
+     * Der Startpfad von {@code cli.Main} bis zum ersten Lauf, ohne Plugins und Historie.
+     */
+    private static void child(String file) throws Exception {
+        System.setProperty("tasks.file", file);
+        Instant jvmStart = ProcessHandle.current().info().startInstant().orElseThrow();
+        CountDownLatch first = new CountDownLatch(1);
+        long[] startedAt = new long[1];
+        Scheduler scheduler = new Scheduler();
+        scheduler.setAutoSave(false);
+        scheduler.setRunListener((task, started, duration, success) -> {
+            if (first.getCount() > 0) startedAt[0] = started;
+            first.countDown();
+        });
+        Checkpoint.load(scheduler);
+        scheduler.start();
+        first.await();
+        System.out.println("FIRST " + (startedAt[0] - jvmStart.toEpochMilli()));
+        scheduler.shutdown();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,70 @@
+package bench;
+
+import core.Task;
+import core.TaskTable;
+
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Vergleicht den Heap-Verbrauch pro Aufgabe: Task-Objekte in Liste + Map
+ * (wie im Scheduler) gegen {@link TaskTable}.
+ * <p>
+ * Aufruf: java -Xmx4g bench.TaskMemoryBenchmark [anzahl]
+ */
+public class TaskMemoryBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Runnable[] actions = {() -> {}, () -> {}, () -> {}, () -> {}, () -> {}};
+        Instant start = Instant.now();
+
+        long before = usedHeap();
+        List<Task> tasks = new ArrayList<>();
+        Map<UUID, Object> scheduled = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Task task = task(i, start, actions);
+            tasks.add(task);
+            scheduled.put(task.getId(), new Object());
+        }
+        long objectModel = usedHeap() - before;
+        report("Task objects + map", objectModel, count);
+        Reference.reachabilityFence(tasks);
+        Reference.reachabilityFence(scheduled);
+        tasks = null;
+        scheduled = null;
+
+        before = usedHeap();
+        TaskTable table = new TaskTable(count);
+        for (int i = 0; i < count; i++) {
+            table.add(task(i, start, actions));
+        }
+        long tableModel = usedHeap() - before;
+        report("TaskTable", tableModel, count);
+        Reference.reachabilityFence(table);
+        System.out.printf("distinct names: %d, ratio: %.1fx%n",
+                table.distinctNames(), (double) objectModel / tableModel);
+    }
+
+    private static Task task(int i, Instant start, Runnable[] actions) {
+        Duration repeat = i % 3 == 0 ? Duration.ofDays(1) : null;
+        return new Task("task " + (i % 100), (byte) (i % 5 + 1), start.plusSeconds(i),
+                actions[i % actions.length], repeat);
+    }
+
+    private static void report(String label, long bytes, int count) {
+        System.out.printf("%-20s %,14d bytes  %6.1f bytes/task%n", label, bytes, (double) bytes / count);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,106 @@
+package bench;
+
+import core.Scheduler;
+import core.Task;
+import core.VirtualClock;
+import core.runnable.RunnableRegistry;
+import storage.Data;
+import storage.TaskTransfer;
+
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Export und Import grosser Zeitplaene: Groesse und Dauer eines gzip-Exports, danach Importe mit
+ * {@code --diff}, bei denen sich nur wenige bis alle Aufgaben unterscheiden. Zum Vergleich das
+ * vollstaendige Neuladen der Datei in einen leeren Scheduler. Die Zeitplandatei liegt im
+ * Temp-Verzeichnis ({@code tasks.file}).
+ * <p>
+ * Aufruf: java bench.TransferBenchmark [aufgaben]
+ */
+public class TransferBenchmark {
+
+    private static final Instant START = Instant.parse("2027-01-01T00:00:00Z");
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path dir = Files.createTempDirectory("transfer-bench");
+        System.setProperty("tasks.file", dir.resolve("tasks.json").toString());
+        Runnable action = RunnableRegistry.get("coding");
+
+        List<Task> base = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            base.add(new Task(new UUID(random.nextLong(), random.nextLong()), "task-" + i, (byte) (1 + i % 5),
+                    START.plusSeconds(i), action, Duration.ofHours(1 + i % 24)));
+        }
+        Scheduler local = scheduler(base);
+
+        Path plain = dir.resolve("export.json");
+        Path gzip = dir.resolve("export.json.gz");
+        long begin = System.nanoTime();
+        TaskTransfer.export(local, plain, 0);
+        long plainMillis = (System.nanoTime() - begin) / 1_000_000;
+        begin = System.nanoTime();
+        TaskTransfer.export(local, gzip, 0);
+        long gzipMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.printf("export %d tasks: json %d KB in %d ms, gzip %d KB in %d ms%n", count,
+                Files.size(plain) >> 10, plainMillis, Files.size(gzip) >> 10, gzipMillis);
+
+        for (int changes : new int[]{10, 1_000, count / 10, count}) {
+            // entfernter Rechner: die ersten Aufgaben geaendert, je eine weitere entfernt und neu
+            List<Task> remote = new ArrayList<>(base);
+            for (int i = 0; i < changes; i++) remote.set(i, base.get(i).withName("changed-" + i));
+            int removed = Math.min(changes, count - changes) / 10;
+            for (int i = 0; i < removed; i++) {
+                remote.set(count - 1 - i, new Task("new-" + i, (byte) 3, START, action, Duration.ofDays(1)));
+            }
+            Path file = dir.resolve("remote-" + changes + ".json.gz");
+            TaskTransfer.export(scheduler(remote), file, 0);
+
+            // bester von vier Laeufen, die ersten waermen den JIT auf
+            long best = Long.MAX_VALUE;
+            TaskTransfer.Result result = null;
+            for (int round = 0; round < 4; round++) {
+                Scheduler target = scheduler(base);
+                begin = System.nanoTime();
+                result = TaskTransfer.importTasks(target, file, TaskTransfer.Conflict.REPLACE, true);
+                best = Math.min(best, (System.nanoTime() - begin) / 1_000_000);
+                target.shutdown();
+            }
+            System.out.printf("import --diff with %6d changed: %5d ms (%s)%n", changes, best, result);
+        }
+
+        // zum Vergleich: alles parsen, einen neuen Scheduler fuellen und speichern
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 4; round++) {
+            begin = System.nanoTime();
+            List<Task> all;
+            try (BufferedReader reader = Data.open(gzip)) {
+                all = Data.readTasks(reader, new HashMap<>(), null);
+            }
+            Scheduler reloaded = scheduler(all);
+            Data.saveTasks(reloaded);
+            reloaded.shutdown();
+            best = Math.min(best, (System.nanoTime() - begin) / 1_000_000);
+        }
+        System.out.printf("full reload of %d tasks: %d ms%n", count, best);
+        local.shutdown();
+        System.exit(0);
+    }
+
+    private static Scheduler scheduler(List<Task> tasks) {
+        Scheduler scheduler = new Scheduler(new VirtualClock(START.minus(Duration.ofDays(1)), 1));
+        scheduler.setAutoSave(false);
+        for (Task task : tasks) scheduler.addTask(task);
+        return scheduler;
+    }
+}
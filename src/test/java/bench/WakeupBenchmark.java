@@ -0,0 +1,173 @@
+package bench;
+
+import core.ResourceClass;
+import core.Scheduler;
+import core.SchedulerClock;
+import core.SystemClock;
+import core.Task;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weckrufe und CPU eines grossen, meist leerlaufenden Zeitplans in echter Zeit: einmal alle
+ * Timer exakt (Spielraum 0), einmal mit dem Standard-Spielraum je Prioritaet. Gezaehlt werden
+ * Timer, die tatsaechlich feuern, CPU-Zeit des Prozesses und Kontextwechsel aller Threads
+ * (aus {@code /proc}, nur Linux); dazu die Verspaetung je Prioritaet, die den Spielraum nicht
+ * ueberschreiten soll.
+ * <p>
+ * Aufruf: java bench.WakeupBenchmark [aufgaben] [sekunden] [seed]
+ */
+public class WakeupBenchmark {
+
+    private static final Duration[] INTERVALS = {
+            Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(10)
+    };
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        // Laeufe, die nach shutdown() noch nachplanen wollen, werden abgewiesen; das ist hier erwartet
+        Thread.setDefaultUncaughtExceptionHandler((thread, error) -> {
+        });
+        run("exact", count, seconds, seed, true);
+        run("slack", count, seconds, seed, false);
+        System.exit(0);
+    }
+
+    private static void run(String label, int count, int seconds, long seed, boolean exact) throws Exception {
+        CountingClock clock = new CountingClock();
+        Scheduler scheduler = new Scheduler(clock);
+        scheduler.setAutoSave(false);
+        if (exact) {
+            for (int priority = 1; priority <= 5; priority++) scheduler.setTimerSlack(priority, Duration.ZERO);
+        }
+        List<List<Long>> lateness = new ArrayList<>();
+        for (int i = 0; i < 5; i++) lateness.add(Collections.synchronizedList(new ArrayList<>()));
+        scheduler.setRunListener((task, startedAt, duration, success) ->
+                lateness.get(task.getPriority() - 1).add(startedAt - task.getExecuteAT().toEpochMilli()));
+
+        Random random = new Random(seed);
+        Runnable action = () -> {
+        };
+        Instant start = Instant.now().plusSeconds(1);
+        for (int i = 0; i < count; i++) {
+            Duration interval = INTERVALS[random.nextInt(INTERVALS.length)];
+            Instant first = start.plusMillis((long) (random.nextDouble() * interval.toMillis()));
+            scheduler.addTask(new Task("task-" + i, (byte) (1 + random.nextInt(5)), first, action, interval));
+        }
+
+        System.gc();
+        long cpu = cpuNanos();
+        long switches = contextSwitches();
+        Thread.sleep(seconds * 1000L);
+        cpu = cpuNanos() - cpu;
+        switches = contextSwitches() - switches;
+
+        long runs = 0;
+        for (List<Long> values : lateness) runs += values.size();
+        System.out.printf("%s: %d tasks, %d s, runs %d, timer wakeups %d, cpu %d ms, context switches %s%n", label,
+                count, seconds, runs, clock.fired.get(), cpu / 1_000_000, switches < 0 ? "n/a" : switches);
+        for (int priority = 1; priority <= 5; priority++) {
+            List<Long> values = new ArrayList<>(lateness.get(priority - 1));
+            Collections.sort(values);
+            System.out.printf("  priority %d (slack %d ms): lateness p50 %d, p99 %d, max %d ms%n", priority,
+                    scheduler.getTimerSlack(priority).toMillis(), percentile(values, 0.5), percentile(values, 0.99),
+                    values.isEmpty() ? 0 : values.get(values.size() - 1));
+        }
+        scheduler.shutdown();
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1));
+    }
+
+    private static long cpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    /**
+     * Summe freiwilliger und erzwungener Kontextwechsel aller Threads, -1 ohne {@code /proc}.
+     */
+    private static long contextSwitches() {
+        Path tasks = Path.of("/proc/self/task");
+        if (!Files.isDirectory(tasks)) return -1;
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tasks)) {
+            for (Path task : stream) {
+                try {
+                    for (String line : Files.readAllLines(task.resolve("status"))) {
+                        if (line.contains("ctxt_switches")) total += Long.parseLong(line.replaceAll("\\D", ""));
+                    }
+                } catch (IOException e) {
+                    // Thread inzwischen beendet
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return total;
+    }
+
+    /**
+     * {@link SystemClock}, die mitzaehlt, wie viele Timer wirklich feuern.
+     */
+    private static final class CountingClock implements SchedulerClock {
+
+        private final SystemClock clock = new SystemClock();
+
+        private final AtomicLong fired = new AtomicLong();
+
+        @Override
+        public long millis() {
+            return clock.millis();
+        }
+
+        @Override
+        public long nanos() {
+            return clock.nanos();
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+            return clock.schedule(() -> {
+                fired.incrementAndGet();
+                task.run();
+            }, delayMillis);
+        }
+
+        @Override
+        public void execute(Runnable work) {
+            clock.execute(work);
+        }
+
+        @Override
+        public void execute(ResourceClass resource, Runnable work) {
+            clock.execute(resource, work);
+        }
+
+        @Override
+        public int capacity(ResourceClass resource) {
+            return clock.capacity(resource);
+        }
+
+        @Override
+        public void shutdown() {
+            clock.shutdown();
+        }
+    }
+}